@@ -0,0 +1,285 @@
+package com.opsysinc.learning.cert.examples.vna00j;
+
+import com.opsysinc.learning.cert.examples.util.IntReaderWriterBase;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VNA00-J. Ensure visibility when accessing shared primitive variables.
+ * <p/>
+ * JMH benchmark of each variant's reader and writer runImpl() paths.
+ * <p/>
+ * Throughput mode reports ops/us; sample mode reports average and percentile
+ * latency per op. The read/write benchmarks take their thread count from
+ * <code>-t</code> (e.g. <code>-t 1</code> .. <code>-t 32</code>); the grouped
+ * benchmarks run fixed reader/writer mixes, which <code>-tg</code> can override:
+ * <pre>
+ * mvn -B -Pbenchmarks package
+ * java -jar target/benchmarks.jar VNA00JBenchmark.read -t 8
+ * java -jar target/benchmarks.jar VNA00JBenchmark.readHeavy -tg 30,1
+ * java -jar target/benchmarks.jar VNA00JBenchmark.readSkewed -p variant=Compliant3,Compliant8,Compliant9 -tg 100,1
+ * java -jar target/benchmarks.jar VNA00JBenchmark.write -p variant=Compliant2,Compliant4 -t 64
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VNA00JBenchmark {
+
+    /**
+     * Variant under test.
+     */
+    @Param({"NonCompliant", "Compliant1", "Compliant2", "Compliant3", "Compliant4",
+            "Compliant5", "Compliant6", "Compliant7", "Compliant8", "Compliant9"})
+    private String variant;
+
+    /**
+     * Test instance shared by all benchmark threads.
+     */
+    private VNA00JBase test;
+
+    /**
+     * Builds test instance.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        this.test = VNA00JBenchmark.buildTest(this.variant);
+        this.test.setUpSharedState();
+    }
+
+    /**
+     * Read, on as many threads as requested.
+     *
+     * @param state Reader state.
+     * @return Last sample.
+     */
+    @Benchmark
+    public int read(final ReaderState state) {
+
+        state.worker.runOnce();
+        return state.worker.getPrevData();
+    }
+
+    /**
+     * Write, on as many threads as requested.
+     *
+     * @param state Writer state.
+     * @return Last sample.
+     */
+    @Benchmark
+    public int write(final WriterState state) {
+
+        state.worker.runOnce();
+        return state.worker.getPrevData();
+    }
+
+    /**
+     * Read side of 1:1 reader/writer mix.
+     *
+     * @param state Reader state.
+     * @return Last sample.
+     */
+    @Benchmark
+    @Group("balanced")
+    @GroupThreads(1)
+    public int balancedRead(final ReaderState state) {
+
+        return this.read(state);
+    }
+
+    /**
+     * Write side of 1:1 reader/writer mix.
+     *
+     * @param state Writer state.
+     * @return Last sample.
+     */
+    @Benchmark
+    @Group("balanced")
+    @GroupThreads(1)
+    public int balancedWrite(final WriterState state) {
+
+        return this.write(state);
+    }
+
+    /**
+     * Read side of 3:1 reader/writer mix.
+     *
+     * @param state Reader state.
+     * @return Last sample.
+     */
+    @Benchmark
+    @Group("readHeavy")
+    @GroupThreads(3)
+    public int readHeavyRead(final ReaderState state) {
+
+        return this.read(state);
+    }
+
+    /**
+     * Write side of 3:1 reader/writer mix.
+     *
+     * @param state Writer state.
+     * @return Last sample.
+     */
+    @Benchmark
+    @Group("readHeavy")
+    @GroupThreads(1)
+    public int readHeavyWrite(final WriterState state) {
+
+        return this.write(state);
+    }
+
+    /**
+     * Read side of 16:1 reader/writer mix.
+     *
+     * @param state Reader state.
+     * @return Last sample.
+     */
+    @Benchmark
+    @Group("readSkewed")
+    @GroupThreads(16)
+    public int readSkewedRead(final ReaderState state) {
+
+        return this.read(state);
+    }
+
+    /**
+     * Write side of 16:1 reader/writer mix.
+     *
+     * @param state Writer state.
+     * @return Last sample.
+     */
+    @Benchmark
+    @Group("readSkewed")
+    @GroupThreads(1)
+    public int readSkewedWrite(final WriterState state) {
+
+        return this.write(state);
+    }
+
+    /**
+     * Read side of 1:3 reader/writer mix.
+     *
+     * @param state Reader state.
+     * @return Last sample.
+     */
+    @Benchmark
+    @Group("writeHeavy")
+    @GroupThreads(1)
+    public int writeHeavyRead(final ReaderState state) {
+
+        return this.read(state);
+    }
+
+    /**
+     * Write side of 1:3 reader/writer mix.
+     *
+     * @param state Writer state.
+     * @return Last sample.
+     */
+    @Benchmark
+    @Group("writeHeavy")
+    @GroupThreads(3)
+    public int writeHeavyWrite(final WriterState state) {
+
+        return this.write(state);
+    }
+
+    /**
+     * Builds test instance by variant name.
+     *
+     * @param variant Variant name.
+     * @return Test instance.
+     */
+    static VNA00JBase buildTest(final String variant) {
+
+        final String id = ("Benchmark: " + variant);
+
+        switch (variant) {
+
+            case "NonCompliant":
+                return new VNA00JNonCompliant(id, -1L);
+
+            case "Compliant1":
+                return new VNA00JCompliant1(id, -1L);
+
+            case "Compliant2":
+                return new VNA00JCompliant2(id, -1L);
+
+            case "Compliant3":
+                return new VNA00JCompliant3(id, -1L);
+
+            case "Compliant4":
+                return new VNA00JCompliant4(id, -1L);
+
+            case "Compliant5":
+                return new VNA00JCompliant5(id, -1L);
+
+            case "Compliant6":
+                return new VNA00JCompliant6(id, -1L);
+
+            case "Compliant7":
+                return new VNA00JCompliant7(id, -1L);
+
+            case "Compliant8":
+                return new VNA00JCompliant8(id, -1L);
+
+            case "Compliant9":
+                return new VNA00JCompliant9(id, -1L);
+
+            default:
+                throw new IllegalArgumentException("Unknown variant: " + variant);
+        }
+    }
+
+    /**
+     * Per-thread reader worker.
+     */
+    @State(Scope.Thread)
+    public static class ReaderState {
+
+        /**
+         * Reader worker.
+         */
+        private IntReaderWriterBase.IntReaderWriterWorker worker;
+
+        /**
+         * Builds reader worker.
+         *
+         * @param benchmark Enclosing benchmark state.
+         */
+        @Setup(Level.Trial)
+        public void setUp(final VNA00JBenchmark benchmark) {
+
+            this.worker = benchmark.test.buildReaderWorker();
+        }
+    }
+
+    /**
+     * Per-thread writer worker.
+     */
+    @State(Scope.Thread)
+    public static class WriterState {
+
+        /**
+         * Writer worker.
+         */
+        private IntReaderWriterBase.IntReaderWriterWorker worker;
+
+        /**
+         * Builds writer worker.
+         *
+         * @param benchmark Enclosing benchmark state.
+         */
+        @Setup(Level.Trial)
+        public void setUp(final VNA00JBenchmark benchmark) {
+
+            this.worker = benchmark.test.buildWriterWorker();
+        }
+    }
+}
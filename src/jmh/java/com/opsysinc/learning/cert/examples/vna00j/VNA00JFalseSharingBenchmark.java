@@ -0,0 +1,199 @@
+package com.opsysinc.learning.cert.examples.vna00j;
+
+import com.opsysinc.learning.cert.examples.util.IntReaderWriterBase;
+import com.opsysinc.learning.cert.examples.util.MemoryLayout;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * VNA00-J. Ensure visibility when accessing shared primitive variables.
+ * <p/>
+ * JMH benchmark of compact vs. padded memory layouts.
+ * <p/>
+ * Workers are built together and then given their per-operation state in one
+ * pass, as at start up, so compact slots sit side by side and may share cache
+ * lines; each benchmark thread then claims one worker. Differences show with more
+ * threads than fit on one core (e.g. <code>-t 4</code> and up):
+ * <pre>
+ * mvn -B -Pbenchmarks package
+ * java -jar target/benchmarks.jar VNA00JFalseSharingBenchmark.read -t 8
+ * java -jar target/benchmarks.jar VNA00JFalseSharingBenchmark.write -p variant=Compliant2 -t 8
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VNA00JFalseSharingBenchmark {
+
+    /**
+     * Workers built per side (upper bound on benchmark threads).
+     */
+    private static final int MAX_WORKERS = 256;
+
+    /**
+     * Variant under test.
+     */
+    @Param({"Compliant1", "Compliant2", "Compliant5"})
+    private String variant;
+
+    /**
+     * Memory layout under test.
+     */
+    @Param({"COMPACT", "PADDED"})
+    private MemoryLayout layout;
+
+    /**
+     * Reader workers, claimed one per thread.
+     */
+    private IntReaderWriterBase.IntReaderWriterWorker[] readerWorkers;
+
+    /**
+     * Writer workers, claimed one per thread.
+     */
+    private IntReaderWriterBase.IntReaderWriterWorker[] writerWorkers;
+
+    /**
+     * Next reader worker to claim.
+     */
+    private AtomicInteger nextReader;
+
+    /**
+     * Next writer worker to claim.
+     */
+    private AtomicInteger nextWriter;
+
+    /**
+     * Builds test instance and workers.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        final VNA00JBase test = VNA00JBenchmark.buildTest(this.variant);
+
+        test.setMemoryLayout(this.layout);
+        test.setUpSharedState();
+
+        this.readerWorkers = new IntReaderWriterBase.IntReaderWriterWorker[VNA00JFalseSharingBenchmark.MAX_WORKERS];
+        this.writerWorkers = new IntReaderWriterBase.IntReaderWriterWorker[VNA00JFalseSharingBenchmark.MAX_WORKERS];
+
+        for (int ctr = 0; ctr < VNA00JFalseSharingBenchmark.MAX_WORKERS; ctr++) {
+
+            this.readerWorkers[ctr] = test.buildReaderWorker();
+            this.writerWorkers[ctr] = test.buildWriterWorker();
+        }
+
+        for (int ctr = 0; ctr < VNA00JFalseSharingBenchmark.MAX_WORKERS; ctr++) {
+
+            this.readerWorkers[ctr].setMemoryLayout(this.layout);
+        }
+
+        for (int ctr = 0; ctr < VNA00JFalseSharingBenchmark.MAX_WORKERS; ctr++) {
+
+            this.writerWorkers[ctr].setMemoryLayout(this.layout);
+        }
+
+        this.nextReader = new AtomicInteger(0);
+        this.nextWriter = new AtomicInteger(0);
+    }
+
+    /**
+     * Read, on as many threads as requested.
+     *
+     * @param state Reader state.
+     * @return Last sample.
+     */
+    @Benchmark
+    public int read(final ReaderState state) {
+
+        state.worker.runOnce();
+        return state.worker.getPrevData();
+    }
+
+    /**
+     * Write, on as many threads as requested.
+     *
+     * @param state Writer state.
+     * @return Last sample.
+     */
+    @Benchmark
+    public int write(final WriterState state) {
+
+        state.worker.runOnce();
+        return state.worker.getPrevData();
+    }
+
+    /**
+     * Claims next worker.
+     *
+     * @param workers Workers.
+     * @param next    Next worker index.
+     * @return Worker.
+     */
+    private static IntReaderWriterBase.IntReaderWriterWorker claimWorker(
+            final IntReaderWriterBase.IntReaderWriterWorker[] workers,
+            final AtomicInteger next) {
+
+        final int index = next.getAndIncrement();
+
+        if (index >= workers.length) {
+
+            throw new IllegalStateException(String.format(
+                    "Too many threads (max=%d).", workers.length));
+        }
+
+        return workers[index];
+    }
+
+    /**
+     * Per-thread reader worker.
+     */
+    @State(Scope.Thread)
+    public static class ReaderState {
+
+        /**
+         * Reader worker.
+         */
+        private IntReaderWriterBase.IntReaderWriterWorker worker;
+
+        /**
+         * Claims reader worker.
+         *
+         * @param benchmark Enclosing benchmark state.
+         */
+        @Setup(Level.Trial)
+        public void setUp(final VNA00JFalseSharingBenchmark benchmark) {
+
+            this.worker = VNA00JFalseSharingBenchmark.claimWorker(
+                    benchmark.readerWorkers, benchmark.nextReader);
+        }
+    }
+
+    /**
+     * Per-thread writer worker.
+     */
+    @State(Scope.Thread)
+    public static class WriterState {
+
+        /**
+         * Writer worker.
+         */
+        private IntReaderWriterBase.IntReaderWriterWorker worker;
+
+        /**
+         * Claims writer worker.
+         *
+         * @param benchmark Enclosing benchmark state.
+         */
+        @Setup(Level.Trial)
+        public void setUp(final VNA00JFalseSharingBenchmark benchmark) {
+
+            this.worker = VNA00JFalseSharingBenchmark.claimWorker(
+                    benchmark.writerWorkers, benchmark.nextWriter);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.opsysinc.learning.cert.examples;
+
+import com.opsysinc.learning.cert.examples.util.Statistics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares scenario results with a saved baseline run.
+ * <p/>
+ * Scenario runs are matched on scenario, parallel tests, readers and writers. Per-test
+ * ops/sec is compared with Welch's t-test (one-sided; needs two or more tests a side),
+ * and violating tests with Fisher's exact test (one-sided); either below the
+ * significance level is a regression.
+ */
+public final class BaselineComparison {
+
+    /**
+     * Baseline per-test ops/sec, by scenario run key.
+     */
+    private final Map<String, List<Double>> baselineOpsPerSec;
+
+    /**
+     * Baseline per-test violations, by scenario run key.
+     */
+    private final Map<String, List<Integer>> baselineViolations;
+
+    /**
+     * Significance level.
+     */
+    private final double alpha;
+
+    /**
+     * Basic ctor.
+     *
+     * @param baselineFile Baseline per-test CSV (see ResultsStore).
+     * @param alpha        Significance level (e.g., 0.05).
+     * @throws IOException On read failure, or if not a per-test CSV.
+     */
+    public BaselineComparison(final Path baselineFile,
+                              final double alpha) throws IOException {
+
+        if ((alpha <= 0.0) ||
+                (alpha >= 1.0)) {
+
+            throw new IllegalArgumentException(String.format(
+                    "Invalid significance level (alpha=%s).", alpha));
+        }
+
+        this.alpha = alpha;
+        this.baselineOpsPerSec = new HashMap<>();
+        this.baselineViolations = new HashMap<>();
+
+        for (final String[] fields : ResultsStore.readTests(baselineFile)) {
+
+            final String key = BaselineComparison.keyOf(fields[0], Integer.parseInt(fields[1]),
+                    Integer.parseInt(fields[2]), Integer.parseInt(fields[3]));
+
+            this.baselineOpsPerSec.computeIfAbsent(key, ignored -> new ArrayList<>())
+                    .add(Double.parseDouble(fields[5]));
+            this.baselineViolations.computeIfAbsent(key, ignored -> new ArrayList<>())
+                    .add(Integer.parseInt(fields[7]));
+        }
+    }
+
+    /**
+     * Compares results with baseline, printing one row per scenario run.
+     *
+     * @param results Scenario results.
+     * @return Regressions found.
+     */
+    public int compare(final List<ScenarioResult> results) {
+
+        int regressions = 0;
+
+        System.out.println(String.format("\n%-12s %8s %8s %8s %14s %14s %8s %8s %9s %8s  %s",
+                "Scenario", "Parallel", "Readers", "Writers", "Base ops/sec", "Ops/sec", "Change",
+                "p(ops)", "Violating", "p(viol)", "Verdict"));
+
+        for (final ScenarioResult item : results) {
+
+            final String key = BaselineComparison.keyOf(item.getName(), item.getParallelTests(),
+                    item.getReaderWorkers(), item.getWriterWorkers());
+            final List<Double> baselineOps = this.baselineOpsPerSec.get(key);
+
+            if (baselineOps == null) {
+
+                System.out.println(String.format("%-12s %8d %8d %8d %14s %14.0f %8s %8s %9s %8s  %s",
+                        item.getName(), item.getParallelTests(), item.getReaderWorkers(), item.getWriterWorkers(),
+                        "-", Statistics.mean(item.getTestOpsPerSec()), "-", "-", "-", "-", "no baseline"));
+                continue;
+            }
+
+            final double[] baselineSamples = new double[baselineOps.size()];
+            int baselineViolating = 0;
+
+            for (int ctr = 0; ctr < baselineSamples.length; ctr++) {
+
+                baselineSamples[ctr] = baselineOps.get(ctr);
+
+                if (this.baselineViolations.get(key).get(ctr) > 0) {
+
+                    baselineViolating++;
+                }
+            }
+
+            final double[] currentSamples = item.getTestOpsPerSec();
+            final double baselineMean = Statistics.mean(baselineSamples);
+            final double currentMean = Statistics.mean(currentSamples);
+            final double opsPValue = Statistics.welchLowerPValue(baselineSamples, currentSamples);
+            final double violationsPValue = Statistics.fisherUpperPValue(
+                    baselineViolating, baselineSamples.length, item.getViolatingTests(), item.getParallelTests());
+
+            final boolean isRegression = ((!Double.isNaN(opsPValue) && (opsPValue < this.alpha)) ||
+                    (violationsPValue < this.alpha));
+
+            if (isRegression) {
+
+                regressions++;
+            }
+
+            System.out.println(String.format("%-12s %8d %8d %8d %14.0f %14.0f %+7.1f%% %8s %4d/%-4d %8.3f  %s",
+                    item.getName(), item.getParallelTests(), item.getReaderWorkers(), item.getWriterWorkers(),
+                    baselineMean, currentMean,
+                    ((baselineMean > 0.0) ? (((currentMean - baselineMean) / baselineMean) * 100.0) : 0.0),
+                    (Double.isNaN(opsPValue) ? "n/a" : String.format("%.3f", opsPValue)),
+                    item.getViolatingTests(), item.getParallelTests(), violationsPValue,
+                    (isRegression ? "REGRESSION" : "ok")));
+        }
+
+        System.out.println(String.format("\n%d regression(s) at alpha=%s.", regressions, this.alpha));
+        return regressions;
+    }
+
+    /**
+     * Gets scenario run key.
+     *
+     * @param scenario      Scenario name.
+     * @param parallelTests Parallel tests.
+     * @param readers       Readers per test.
+     * @param writers       Writers per test.
+     * @return Key.
+     */
+    private static String keyOf(final String scenario,
+                                final int parallelTests,
+                                final int readers,
+                                final int writers) {
+
+        return String.format("%s/%d/%d/%d", scenario, parallelTests, readers, writers);
+    }
+}
@@ -0,0 +1,266 @@
+package com.opsysinc.learning.cert.examples;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Runs Main in child JVMs, one per fork (a JVM profile, or several joined with "+"),
+ * one after another, then merges their saved results.
+ * <p/>
+ * Children get the same arguments and cert.examples.* options (other than fork and
+ * results options), and save results under the fork directory, one subdirectory per
+ * fork; the merged table is printed and saved there as merged.csv.
+ */
+public final class ForkRunner {
+
+    /**
+     * Fork option prefix (not passed to children).
+     */
+    private static final String FORK_OPTION_PREFIX = "cert.examples.fork";
+
+    /**
+     * Results option prefix (set per child).
+     */
+    private static final String RESULTS_OPTION_PREFIX = "cert.examples.results";
+
+    /**
+     * Forks, as profile lists.
+     */
+    private final Map<String, List<JvmProfile>> forks;
+
+    /**
+     * Fork directory.
+     */
+    private final Path directory;
+
+    /**
+     * Basic ctor.
+     *
+     * @param forks     Forks, comma-separated; each a JVM profile, or several joined with "+"
+     *                  (e.g., "INTERPRETER,C1,C2+PARALLEL_GC").
+     * @param directory Fork directory (created as needed).
+     * @throws IllegalArgumentException If a profile isn't known.
+     */
+    public ForkRunner(final String forks,
+                      final Path directory) {
+
+        this.forks = new LinkedHashMap<>();
+        this.directory = directory;
+
+        for (final String forkItem : forks.split(",")) {
+
+            final List<JvmProfile> profiles = new ArrayList<>();
+
+            for (final String profileItem : forkItem.trim().split("\\+")) {
+
+                profiles.add(JvmProfile.valueOf(profileItem.trim()));
+            }
+
+            this.forks.put(forkItem.trim(), profiles);
+        }
+    }
+
+    /**
+     * Runs forks, then prints and saves merged results.
+     *
+     * @param args Main args, for each child.
+     * @return Failed forks (non-zero exit, or no results).
+     * @throws IOException          On process or results failure.
+     * @throws InterruptedException If interrupted while waiting for a child.
+     */
+    public int run(final String[] args) throws IOException, InterruptedException {
+
+        final String javaFile = ForkRunner.getJavaFile();
+        final String classPath = ForkRunner.getClassPath();
+        final Map<String, List<String[]>> forkResults = new LinkedHashMap<>();
+        int failures = 0;
+        int forkCtr = 0;
+
+        for (final Map.Entry<String, List<JvmProfile>> item : this.forks.entrySet()) {
+
+            final List<String> flags = ForkRunner.flagsOf(item.getValue());
+            final Path forkDirectory = this.directory.resolve(item.getKey().replace('+', '-'));
+            final List<String> command = new ArrayList<>();
+
+            command.add(javaFile);
+            command.addAll(flags);
+            command.add("-cp");
+            command.add(classPath);
+
+            for (final String optionItem : new TreeSet<>(System.getProperties().stringPropertyNames())) {
+
+                if (optionItem.startsWith("cert.examples.") &&
+                        !optionItem.startsWith(ForkRunner.FORK_OPTION_PREFIX) &&
+                        !optionItem.startsWith(ForkRunner.RESULTS_OPTION_PREFIX)) {
+
+                    command.add("-D" + optionItem + "=" + System.getProperty(optionItem));
+                }
+            }
+
+            command.add("-D" + ForkRunner.RESULTS_OPTION_PREFIX + "=true");
+            command.add("-D" + ForkRunner.RESULTS_OPTION_PREFIX + ".directory=" + forkDirectory);
+            command.add(Main.class.getName());
+
+            for (final String argItem : args) {
+
+                command.add(argItem);
+            }
+
+            forkCtr++;
+
+            System.out.println(String.format("\n=== Fork %d of %d: %s (%s) ===",
+                    forkCtr, this.forks.size(), item.getKey(), (flags.isEmpty() ? "no flags" : String.join(" ", flags))));
+
+            final int exitCode = new ProcessBuilder(command).inheritIO().start().waitFor();
+            final Path testsFile = new ResultsStore(forkDirectory).findLatest();
+
+            if ((exitCode != 0) ||
+                    (testsFile == null)) {
+
+                System.out.println(String.format("\nFork %s failed (exit code=%d).", item.getKey(), exitCode));
+                failures++;
+
+            } else {
+
+                forkResults.put(item.getKey(), ResultsStore.readTests(testsFile));
+            }
+        }
+
+        this.merge(forkResults);
+        return failures;
+    }
+
+    /**
+     * Prints and saves merged results: per scenario run and fork, mean per-test
+     * ops/sec and violating tests.
+     *
+     * @param forkResults Per-test rows, by fork.
+     * @throws IOException On write failure.
+     */
+    private void merge(final Map<String, List<String[]>> forkResults) throws IOException {
+
+        final Map<String, Map<String, double[]>> merged = new LinkedHashMap<>();
+
+        for (final Map.Entry<String, List<String[]>> forkItem : forkResults.entrySet()) {
+
+            for (final String[] fields : forkItem.getValue()) {
+
+                final String key = String.join(",", fields[0], fields[1], fields[2], fields[3]);
+                final double[] totals = merged.computeIfAbsent(key, ignored -> new LinkedHashMap<>())
+                        .computeIfAbsent(forkItem.getKey(), ignored -> new double[3]);
+
+                totals[0] += Double.parseDouble(fields[5]);
+                totals[1] += ((Integer.parseInt(fields[7]) > 0) ? 1.0 : 0.0);
+                totals[2] += 1.0;
+            }
+        }
+
+        Files.createDirectories(this.directory);
+
+        final Path mergedFile = this.directory.resolve("merged.csv");
+
+        System.out.println(String.format("\n%-12s %8s %8s %8s  %-24s %14s %9s",
+                "Scenario", "Parallel", "Readers", "Writers", "Fork", "Ops/sec", "Violating"));
+
+        try (final BufferedWriter writer = Files.newBufferedWriter(mergedFile, StandardCharsets.UTF_8)) {
+
+            writer.write("scenario,parallelTests,readers,writers,fork,flags,opsPerSec,violatingTests,tests\n");
+
+            for (final Map.Entry<String, Map<String, double[]>> keyItem : merged.entrySet()) {
+
+                final String[] keyFields = keyItem.getKey().split(",");
+
+                for (final Map.Entry<String, double[]> forkItem : keyItem.getValue().entrySet()) {
+
+                    final double[] totals = forkItem.getValue();
+                    final double opsPerSec = (totals[0] / totals[2]);
+
+                    System.out.println(String.format("%-12s %8s %8s %8s  %-24s %14.0f %4d/%-4d",
+                            keyFields[0], keyFields[1], keyFields[2], keyFields[3], forkItem.getKey(),
+                            opsPerSec, (int) totals[1], (int) totals[2]));
+
+                    writer.write(String.format(Locale.ROOT, "%s,%s,%s,%.3f,%d,%d\n",
+                            keyItem.getKey(), forkItem.getKey(),
+                            String.join(" ", ForkRunner.flagsOf(this.forks.get(forkItem.getKey()))),
+                            opsPerSec, (int) totals[1], (int) totals[2]));
+                }
+            }
+        }
+
+        System.out.println("\nMerged: " + mergedFile);
+    }
+
+    /**
+     * Gets JVM flags of profiles.
+     *
+     * @param profiles Profiles.
+     * @return Flags, in order.
+     */
+    private static List<String> flagsOf(final List<JvmProfile> profiles) {
+
+        final List<String> result = new ArrayList<>();
+
+        for (final JvmProfile item : profiles) {
+
+            result.addAll(item.getFlags());
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets my JVM's java binary, for child JVMs.
+     *
+     * @return Java binary.
+     */
+    public static String getJavaFile() {
+
+        return Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    /**
+     * Gets my class path, for child JVMs: my class loader's, if it has URLs (e.g.,
+     * under exec:java), or else the JVM's.
+     *
+     * @return Class path.
+     */
+    public static String getClassPath() {
+
+        final ClassLoader classLoader = ForkRunner.class.getClassLoader();
+
+        if (classLoader instanceof URLClassLoader) {
+
+            final List<String> result = new ArrayList<>();
+
+            try {
+
+                for (final URL item : ((URLClassLoader) classLoader).getURLs()) {
+
+                    result.add(Paths.get(item.toURI()).toString());
+                }
+
+            } catch (final URISyntaxException ex) {
+
+                throw new IllegalStateException(ex);
+            }
+
+            return String.join(File.pathSeparator, result);
+        }
+
+        return System.getProperty("java.class.path");
+    }
+}
@@ -0,0 +1,76 @@
+package com.opsysinc.learning.cert.examples;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JVM flag sets, for forked runs.
+ */
+public enum JvmProfile {
+
+    /**
+     * JVM defaults (tiered compilation, default GC).
+     */
+    DEFAULT,
+
+    /**
+     * Interpreter only: no JIT, so no compiler reordering or hoisting.
+     */
+    INTERPRETER("-Xint"),
+
+    /**
+     * C1 only (client compiler; few of C2's loop optimizations).
+     */
+    C1("-XX:TieredStopAtLevel=1"),
+
+    /**
+     * C2 only (server compiler, no tiers).
+     */
+    C2("-XX:-TieredCompilation"),
+
+    /**
+     * Serial GC.
+     */
+    SERIAL_GC("-XX:+UseSerialGC"),
+
+    /**
+     * Parallel GC.
+     */
+    PARALLEL_GC("-XX:+UseParallelGC"),
+
+    /**
+     * G1 GC.
+     */
+    G1_GC("-XX:+UseG1GC"),
+
+    /**
+     * Z GC.
+     */
+    Z_GC("-XX:+UseZGC");
+
+    /**
+     * JVM flags.
+     */
+    private final List<String> flags;
+
+    /**
+     * Basic ctor.
+     *
+     * @param flags JVM flags.
+     */
+    JvmProfile(final String... flags) {
+
+        this.flags = Collections.unmodifiableList(Arrays.asList(flags));
+    }
+
+    /**
+     * Gets JVM flags.
+     *
+     * @return Flags.
+     */
+    public List<String> getFlags() {
+
+        return this.flags;
+    }
+}
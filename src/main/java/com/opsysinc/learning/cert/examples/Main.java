@@ -1,14 +1,40 @@
 package com.opsysinc.learning.cert.examples;
 
-import com.opsysinc.learning.cert.examples.util.ReaderWriterBase;
-import com.opsysinc.learning.cert.examples.vna00j.*;
-
+import com.opsysinc.learning.cert.examples.util.AbstractReaderWriterBase;
+import com.opsysinc.learning.cert.examples.util.AllocationProfile;
+import com.opsysinc.learning.cert.examples.util.ContentionProfile;
+import com.opsysinc.learning.cert.examples.util.LatencyHistogram;
+import com.opsysinc.learning.cert.examples.util.LitmusEngine;
+import com.opsysinc.learning.cert.examples.util.LitmusResult;
+import com.opsysinc.learning.cert.examples.util.LitmusTest;
+import com.opsysinc.learning.cert.examples.util.MemoryLayout;
+import com.opsysinc.learning.cert.examples.util.RunMode;
+import com.opsysinc.learning.cert.examples.util.SharedCounterFile;
+import com.opsysinc.learning.cert.examples.util.StopReason;
+import com.opsysinc.learning.cert.examples.util.StoppingRule;
+import com.opsysinc.learning.cert.examples.util.ThreadMode;
+import com.opsysinc.learning.cert.examples.util.ViolationReporter;
+import com.opsysinc.learning.cert.examples.util.WaitStrategy;
+import com.opsysinc.learning.cert.examples.util.WorkBarrier;
+import com.opsysinc.learning.cert.examples.vna00j.VNA00JSharedMemory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * Main class.
@@ -22,6 +48,311 @@ public final class Main {
      */
     private static final int DEFAULT_PARALLEL_TESTS = 10;
 
+    /**
+     * Run mode property (LOCKSTEP or FREE_RUNNING).
+     */
+    private static final String RUN_MODE_PROPERTY = "cert.examples.runMode";
+
+    /**
+     * Record latency property (true or false).
+     */
+    private static final String RECORD_LATENCY_PROPERTY = "cert.examples.recordLatency";
+
+    /**
+     * Record staleness property (true or false).
+     */
+    private static final String RECORD_STALENESS_PROPERTY = "cert.examples.recordStaleness";
+
+    /**
+     * Profile contention property (true or false).
+     */
+    private static final String PROFILE_CONTENTION_PROPERTY = "cert.examples.profileContention";
+
+    /**
+     * Profile allocation property (true or false).
+     */
+    private static final String PROFILE_ALLOCATION_PROPERTY = "cert.examples.profileAllocation";
+
+    /**
+     * Driver thread mode property (PLATFORM or VIRTUAL).
+     */
+    private static final String DRIVER_THREADS_PROPERTY = "cert.examples.driverThreads";
+
+    /**
+     * Worker thread mode property (PLATFORM or VIRTUAL).
+     */
+    private static final String WORKER_THREADS_PROPERTY = "cert.examples.workerThreads";
+
+    /**
+     * Memory layout property (COMPACT or PADDED).
+     */
+    private static final String MEMORY_LAYOUT_PROPERTY = "cert.examples.memoryLayout";
+
+    /**
+     * Wait strategy property (SLEEP, BUSY_SPIN, ON_SPIN_WAIT, YIELD, PARK or BACKOFF).
+     */
+    private static final String WAIT_STRATEGY_PROPERTY = "cert.examples.waitStrategy";
+
+    /**
+     * Wait period property (ns).
+     */
+    private static final String WAIT_PERIOD_PROPERTY = "cert.examples.waitStrategy.periodInNs";
+
+    /**
+     * Work barrier property.
+     */
+    private static final String WORK_BARRIER_PROPERTY = "cert.examples.workBarrier";
+
+    /**
+     * Journal capacity property (samples per worker; 0 to disable).
+     */
+    private static final String JOURNAL_CAPACITY_PROPERTY = "cert.examples.journal.capacity";
+
+    /**
+     * Journal directory property.
+     */
+    private static final String JOURNAL_DIRECTORY_PROPERTY = "cert.examples.journal.directory";
+
+    /**
+     * Default journal directory.
+     */
+    private static final String DEFAULT_JOURNAL_DIRECTORY = "target/journal";
+
+    /**
+     * JFR RunImpl sample interval property (runImpl() calls per event, per worker; 0 to disable).
+     */
+    private static final String RUN_IMPL_SAMPLE_INTERVAL_PROPERTY = "cert.examples.jfr.runImplSampleInterval";
+
+    /**
+     * Stopping rule maximum violation rate property (per check; unset for no stopping rule).
+     */
+    private static final String STOPPING_RULE_RATE_PROPERTY = "cert.examples.stoppingRule.maxViolationRate";
+
+    /**
+     * Stopping rule confidence property.
+     */
+    private static final String STOPPING_RULE_CONFIDENCE_PROPERTY = "cert.examples.stoppingRule.confidence";
+
+    /**
+     * Default stopping rule confidence.
+     */
+    private static final String DEFAULT_STOPPING_RULE_CONFIDENCE = "0.95";
+
+    /**
+     * Worker thread budget property (worker threads across concurrently running tests).
+     */
+    private static final String THREAD_BUDGET_PROPERTY = "cert.examples.threadBudget";
+
+    /**
+     * Save results property (true or false).
+     */
+    private static final String RESULTS_PROPERTY = "cert.examples.results";
+
+    /**
+     * Results directory property.
+     */
+    private static final String RESULTS_DIRECTORY_PROPERTY = "cert.examples.results.directory";
+
+    /**
+     * Default results directory.
+     */
+    private static final String DEFAULT_RESULTS_DIRECTORY = "target/results";
+
+    /**
+     * Baseline property (per-test results file, or "latest").
+     */
+    private static final String BASELINE_PROPERTY = "cert.examples.results.baseline";
+
+    /**
+     * Latest baseline value.
+     */
+    private static final String LATEST_BASELINE = "latest";
+
+    /**
+     * Significance level property.
+     */
+    private static final String ALPHA_PROPERTY = "cert.examples.results.alpha";
+
+    /**
+     * Default significance level.
+     */
+    private static final String DEFAULT_ALPHA = "0.05";
+
+    /**
+     * Scenarios property (comma-separated names; unset for all).
+     */
+    private static final String SCENARIOS_PROPERTY = "cert.examples.scenarios";
+
+    /**
+     * Fork property (comma-separated forks, each a JVM profile or several joined with "+").
+     */
+    private static final String FORK_PROPERTY = "cert.examples.fork";
+
+    /**
+     * Fork directory property.
+     */
+    private static final String FORK_DIRECTORY_PROPERTY = "cert.examples.fork.directory";
+
+    /**
+     * Litmus property (true or false).
+     */
+    private static final String LITMUS_PROPERTY = "cert.examples.litmus";
+
+    /**
+     * Litmus batch size property (state instances per round).
+     */
+    private static final String LITMUS_BATCH_SIZE_PROPERTY = "cert.examples.litmus.batchSize";
+
+    /**
+     * Default litmus batch size.
+     */
+    private static final int DEFAULT_LITMUS_BATCH_SIZE = 65536;
+
+    /**
+     * Default litmus run length in MS (per test).
+     */
+    private static final long DEFAULT_LITMUS_LENGTH_IN_MS = 1000L;
+
+    /**
+     * Shared memory property (true or false).
+     */
+    private static final String SHARED_MEMORY_PROPERTY = "cert.examples.sharedMemory";
+
+    /**
+     * Shared memory access mode property.
+     */
+    private static final String SHARED_MEMORY_MODE_PROPERTY = "cert.examples.sharedMemory.mode";
+
+    /**
+     * Shared memory writer processes property.
+     */
+    private static final String SHARED_MEMORY_WRITERS_PROPERTY = "cert.examples.sharedMemory.writers";
+
+    /**
+     * Shared memory reader processes property.
+     */
+    private static final String SHARED_MEMORY_READERS_PROPERTY = "cert.examples.sharedMemory.readers";
+
+    /**
+     * Shared memory directory property.
+     */
+    private static final String SHARED_MEMORY_DIRECTORY_PROPERTY = "cert.examples.sharedMemory.directory";
+
+    /**
+     * Default shared memory directory (tmpfs), if present.
+     */
+    private static final String DEFAULT_SHARED_MEMORY_DIRECTORY = "/dev/shm";
+
+    /**
+     * Default shared memory worker processes (writers, and readers).
+     */
+    private static final int DEFAULT_SHARED_MEMORY_WORKERS = 2;
+
+    /**
+     * Default shared memory test length in MS.
+     */
+    private static final long DEFAULT_SHARED_MEMORY_LENGTH_IN_MS = 5000L;
+
+    /**
+     * Sweep property (true or false).
+     */
+    private static final String SWEEP_PROPERTY = "cert.examples.sweep";
+
+    /**
+     * Sweep reader counts property (comma-separated).
+     */
+    private static final String SWEEP_READERS_PROPERTY = "cert.examples.sweep.readers";
+
+    /**
+     * Sweep writer counts property (comma-separated).
+     */
+    private static final String SWEEP_WRITERS_PROPERTY = "cert.examples.sweep.writers";
+
+    /**
+     * Sweep parallel test counts property (comma-separated).
+     */
+    private static final String SWEEP_PARALLEL_TESTS_PROPERTY = "cert.examples.sweep.parallelTests";
+
+    /**
+     * Default sweep worker counts.
+     */
+    private static final String DEFAULT_SWEEP_WORKERS = "1,4,16,64";
+
+    /**
+     * Default sweep parallel test counts.
+     */
+    private static final String DEFAULT_SWEEP_PARALLEL_TESTS = "1";
+
+    /**
+     * True if recording latency, false otherwise.
+     */
+    private static boolean isRecordingLatency;
+
+    /**
+     * True if recording reader staleness, false otherwise.
+     */
+    private static boolean isRecordingStaleness;
+
+    /**
+     * True if profiling contention, false otherwise.
+     */
+    private static boolean isProfilingContention;
+
+    /**
+     * True if profiling allocation, false otherwise.
+     */
+    private static boolean isProfilingAllocation;
+
+    /**
+     * Run mode.
+     */
+    private static RunMode runMode;
+
+    /**
+     * Driver thread mode.
+     */
+    private static ThreadMode driverThreadMode;
+
+    /**
+     * Worker thread mode.
+     */
+    private static ThreadMode workerThreadMode;
+
+    /**
+     * Memory layout.
+     */
+    private static MemoryLayout memoryLayout;
+
+    /**
+     * Wait strategy.
+     */
+    private static WaitStrategy waitStrategy;
+
+    /**
+     * Work barrier kind.
+     */
+    private static WorkBarrier.Kind workBarrierKind;
+
+    /**
+     * Journal capacity (samples per worker; 0 if disabled).
+     */
+    private static int journalCapacity;
+
+    /**
+     * Journal directory.
+     */
+    private static Path journalDirectory;
+
+    /**
+     * JFR RunImpl sample interval (runImpl() calls per event, per worker; 0 if disabled).
+     */
+    private static int runImplSampleInterval;
+
+    /**
+     * Stopping rule, or null if none.
+     */
+    private static StoppingRule stoppingRule;
+
     /**
      * Main driver method.
      *
@@ -49,10 +380,86 @@ public final class Main {
                 parallelTests = Main.DEFAULT_PARALLEL_TESTS;
             }
 
-            Main.testVNA00JNonCompliant(parallelTests, testLengthInMs);
-            Main.testVNA00JCompliant1(parallelTests, testLengthInMs);
-            Main.testVNA00JCompliant2(parallelTests, testLengthInMs);
-            Main.testVNA00JCompliant3(parallelTests, testLengthInMs);
+            Main.runMode = RunMode.valueOf(
+                    System.getProperty(Main.RUN_MODE_PROPERTY, RunMode.LOCKSTEP.name()).trim());
+            Main.isRecordingLatency = Boolean.getBoolean(Main.RECORD_LATENCY_PROPERTY);
+            Main.isRecordingStaleness = Boolean.getBoolean(Main.RECORD_STALENESS_PROPERTY);
+            Main.isProfilingContention = Boolean.getBoolean(Main.PROFILE_CONTENTION_PROPERTY);
+            Main.isProfilingAllocation = Boolean.getBoolean(Main.PROFILE_ALLOCATION_PROPERTY);
+            Main.driverThreadMode = ThreadMode.valueOf(
+                    System.getProperty(Main.DRIVER_THREADS_PROPERTY, ThreadMode.PLATFORM.name()).trim());
+            Main.workerThreadMode = ThreadMode.valueOf(
+                    System.getProperty(Main.WORKER_THREADS_PROPERTY, ThreadMode.PLATFORM.name()).trim());
+            Main.memoryLayout = MemoryLayout.valueOf(
+                    System.getProperty(Main.MEMORY_LAYOUT_PROPERTY, MemoryLayout.COMPACT.name()).trim());
+            Main.waitStrategy = WaitStrategy.Kind.valueOf(
+                    System.getProperty(Main.WAIT_STRATEGY_PROPERTY, WaitStrategy.Kind.SLEEP.name()).trim())
+                    .build(Long.getLong(Main.WAIT_PERIOD_PROPERTY, WaitStrategy.DEFAULT_PERIOD_IN_NS));
+            Main.workBarrierKind = WorkBarrier.Kind.valueOf(
+                    System.getProperty(Main.WORK_BARRIER_PROPERTY, WorkBarrier.Kind.CYCLIC.name()).trim());
+            Main.journalCapacity = Integer.getInteger(Main.JOURNAL_CAPACITY_PROPERTY, 0);
+            Main.journalDirectory = Paths.get(
+                    System.getProperty(Main.JOURNAL_DIRECTORY_PROPERTY, Main.DEFAULT_JOURNAL_DIRECTORY));
+            Main.runImplSampleInterval = Integer.getInteger(Main.RUN_IMPL_SAMPLE_INTERVAL_PROPERTY, 0);
+
+            final String maxViolationRate = System.getProperty(Main.STOPPING_RULE_RATE_PROPERTY);
+
+            if (maxViolationRate != null) {
+
+                Main.stoppingRule = new StoppingRule(Double.parseDouble(maxViolationRate.trim()),
+                        Double.parseDouble(System.getProperty(Main.STOPPING_RULE_CONFIDENCE_PROPERTY,
+                                Main.DEFAULT_STOPPING_RULE_CONFIDENCE).trim()));
+            }
+
+            final String forks = System.getProperty(Main.FORK_PROPERTY);
+
+            if (forks != null) {
+
+                final Path forkDirectory = Paths.get(System.getProperty(Main.FORK_DIRECTORY_PROPERTY,
+                        Paths.get(System.getProperty(Main.RESULTS_DIRECTORY_PROPERTY, Main.DEFAULT_RESULTS_DIRECTORY),
+                                "fork-" + Main.newRunId()).toString()));
+
+                if (new ForkRunner(forks, forkDirectory).run(args) > 0) {
+
+                    System.exit(1);
+                }
+
+                return;
+            }
+
+            if (Boolean.getBoolean(Main.SHARED_MEMORY_PROPERTY)) {
+
+                Main.runSharedMemory(testLengthInMs);
+                return;
+            }
+
+            if (Boolean.getBoolean(Main.LITMUS_PROPERTY)) {
+
+                Main.runLitmusTests(testLengthInMs);
+                return;
+            }
+
+            final List<Scenario> scenarios = Main.loadScenarios();
+            final List<ScenarioResult> results;
+
+            if (Boolean.getBoolean(Main.SWEEP_PROPERTY)) {
+
+                results = Main.sweepScenarios(scenarios, testLengthInMs);
+
+            } else {
+
+                results = Main.testScenarios(scenarios, parallelTests, testLengthInMs);
+            }
+
+            if (ViolationReporter.getDroppedCount() > 0L) {
+
+                System.out.println(String.format("\nViolation reports dropped: %d", ViolationReporter.getDroppedCount()));
+            }
+
+            if (Main.storeResults(results) > 0) {
+
+                System.exit(1);
+            }
 
         } catch (final Exception ex) {
 
@@ -61,178 +468,498 @@ public final class Main {
     }
 
     /**
-     * Test non-compliant.
+     * Loads scenarios from registered providers, keeping only those named
+     * (if any are).
      *
-     * @param parallelTests  Parallel test count.
-     * @param testLengthInMs Test length in MS.
-     * @throws InterruptedException
+     * @return Scenarios, in run order.
      */
-    private static void testVNA00JNonCompliant(final int parallelTests,
-                                               final long testLengthInMs)
-            throws InterruptedException {
+    private static List<Scenario> loadScenarios() {
 
-        final List<VNA00JBase> tests = new ArrayList<>();
-        final List<Callable<Object>> tasks = new ArrayList<>();
+        final Set<String> nameSet = Main.getScenarioNames();
+        final List<Scenario> result = new ArrayList<>();
 
-        for (int ctr = 0; ctr < parallelTests; ctr++) {
+        for (final ScenarioProvider providerItem : ServiceLoader.load(ScenarioProvider.class)) {
 
-            final VNA00JBase test = new VNA00JNonCompliant(
-                    String.format("Test #%d", (ctr + 1)), testLengthInMs);
+            for (final Scenario item : providerItem.getScenarios()) {
 
-            tests.add(test);
-            tasks.add(Executors.callable(test));
+                if (nameSet.isEmpty() ||
+                        nameSet.contains(item.getName())) {
+
+                    result.add(item);
+                }
+            }
         }
 
-        System.out.println("\nVNA00J: Non-Compliant.");
-        System.out.println("\nExecuting " + parallelTests + " tests...");
+        return result;
+    }
 
-        final ExecutorService executorService = Executors.newFixedThreadPool(parallelTests, new ThreadFactory() {
+    /**
+     * Loads litmus tests from registered providers, keeping only those named
+     * (if any are).
+     *
+     * @return Litmus tests, in run order.
+     */
+    private static List<LitmusTest<?>> loadLitmusTests() {
 
-            @Override
-            public Thread newThread(final Runnable runnable) {
+        final Set<String> nameSet = Main.getScenarioNames();
+        final List<LitmusTest<?>> result = new ArrayList<>();
 
-                final Thread result = new Thread(runnable);
-                result.setDaemon(true);
+        for (final ScenarioProvider providerItem : ServiceLoader.load(ScenarioProvider.class)) {
 
-                return result;
+            for (final LitmusTest<?> item : providerItem.getLitmusTests()) {
+
+                if (nameSet.isEmpty() ||
+                        nameSet.contains(item.getName())) {
+
+                    result.add(item);
+                }
             }
-        });
+        }
 
-        executorService.invokeAll(tasks);
-        executorService.shutdown();
+        return result;
+    }
 
-        System.out.println("\n...Done.");
+    /**
+     * Gets scenario names to run.
+     *
+     * @return Names (empty for all).
+     */
+    private static Set<String> getScenarioNames() {
+
+        final String names = System.getProperty(Main.SCENARIOS_PROPERTY);
+        final Set<String> result = new HashSet<>();
+
+        if (names != null) {
+
+            for (final String item : names.split(",")) {
+
+                result.add(item.trim());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Runs litmus tests in batches, one after another, printing each test's
+     * outcome counts.
+     *
+     * @param testLengthInMs Run length per test in MS (default if not positive).
+     * @throws InterruptedException If interrupted while running.
+     */
+    private static void runLitmusTests(final long testLengthInMs) throws InterruptedException {
+
+        final int batchSize = Integer.getInteger(Main.LITMUS_BATCH_SIZE_PROPERTY, Main.DEFAULT_LITMUS_BATCH_SIZE);
+        final long runTimeInMs = ((testLengthInMs > 0L) ? testLengthInMs : Main.DEFAULT_LITMUS_LENGTH_IN_MS);
+
+        System.out.println(String.format("\nLitmus tests (%d instances/round, %d ms each, %s actors)",
+                batchSize, runTimeInMs, Main.workerThreadMode));
+
+        for (final LitmusTest<?> item : Main.loadLitmusTests()) {
+
+            final LitmusResult result = new LitmusEngine<>(item, batchSize, Main.workerThreadMode).run(runTimeInMs);
+
+            System.out.print("\n" + result.format());
+        }
+    }
+
+    /**
+     * Runs the cross-process (shared memory) example.
+     *
+     * @param testLengthInMs Test length in MS (default if not positive).
+     * @throws IOException          On file or process failure.
+     * @throws InterruptedException If interrupted while running.
+     */
+    private static void runSharedMemory(final long testLengthInMs) throws IOException, InterruptedException {
+
+        final Path defaultDirectory = Paths.get(Main.DEFAULT_SHARED_MEMORY_DIRECTORY);
+        final String directory = System.getProperty(Main.SHARED_MEMORY_DIRECTORY_PROPERTY,
+                (Files.isDirectory(defaultDirectory) ? defaultDirectory.toString() : System.getProperty("java.io.tmpdir")));
+
+        new VNA00JSharedMemory(
+                SharedCounterFile.AccessMode.valueOf(System.getProperty(Main.SHARED_MEMORY_MODE_PROPERTY,
+                        SharedCounterFile.AccessMode.ATOMIC.name()).trim()),
+                Integer.getInteger(Main.SHARED_MEMORY_WRITERS_PROPERTY, Main.DEFAULT_SHARED_MEMORY_WORKERS),
+                Integer.getInteger(Main.SHARED_MEMORY_READERS_PROPERTY, Main.DEFAULT_SHARED_MEMORY_WORKERS),
+                Paths.get(directory),
+                ((testLengthInMs > 0L) ? testLengthInMs : Main.DEFAULT_SHARED_MEMORY_LENGTH_IN_MS)).run();
+    }
+
+    /**
+     * Gets new run id (sorts by time, to the MS; the results store makes it unique).
+     *
+     * @return Run id.
+     */
+    private static String newRunId() {
+
+        return LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS"));
     }
 
     /**
-     * Test compliant #1.
+     * Tests scenarios, with default worker counts, printing each scenario's results
+     * in order as it completes.
      *
+     * @param scenarios      Scenarios.
      * @param parallelTests  Parallel test count.
      * @param testLengthInMs Test length in MS.
+     * @return Scenario results.
      * @throws InterruptedException
+     * @throws ExecutionException
      */
-    private static void testVNA00JCompliant1(final int parallelTests,
-                                             final long testLengthInMs)
-            throws InterruptedException {
+    private static List<ScenarioResult> testScenarios(final List<Scenario> scenarios,
+                                                      final int parallelTests,
+                                                      final long testLengthInMs)
+            throws InterruptedException, ExecutionException {
+
+        final int workersPerTest = (AbstractReaderWriterBase.DEFAULT_READER_WORKERS + AbstractReaderWriterBase.DEFAULT_WRITER_WORKERS);
+
+        try (final ScenarioRunner runner = new ScenarioRunner(
+                Main.getThreadBudget(parallelTests * workersPerTest), Main.driverThreadMode)) {
+
+            System.out.println("\nExecuting " + scenarios.size() + " scenarios x " + parallelTests + " tests (" +
+                    Main.runMode + ", " + Main.driverThreadMode + " drivers, " + Main.workerThreadMode + " workers, " +
+                    Main.memoryLayout + " layout, " + Main.waitStrategy + " wait, " + Main.workBarrierKind + " barrier, budget " +
+                    runner.getThreadBudget() + " worker threads" +
+                    ((Main.stoppingRule == null) ? "" : (", stop after " + Main.stoppingRule)) + ")...");
+
+            final List<Future<ScenarioResult>> futures = new ArrayList<>();
+            final List<ScenarioResult> results = new ArrayList<>();
+
+            for (final Scenario item : scenarios) {
+
+                futures.add(runner.submit(item, parallelTests, testLengthInMs,
+                        AbstractReaderWriterBase.DEFAULT_READER_WORKERS, AbstractReaderWriterBase.DEFAULT_WRITER_WORKERS, Main::configureTest));
+            }
+
+            for (int ctr = 0; ctr < scenarios.size(); ctr++) {
+
+                final ScenarioResult result = futures.get(ctr).get();
 
-        final List<VNA00JBase> tests = new ArrayList<>();
-        final List<Callable<Object>> tasks = new ArrayList<>();
+                results.add(result);
 
-        for (int ctr = 0; ctr < parallelTests; ctr++) {
+                // print pending reports first, then keep later ones out of this scenario's lines;
+                ViolationReporter.flush();
 
-            final VNA00JBase test = new VNA00JCompliant1(
-                    String.format("Test #%d", (ctr + 1)), testLengthInMs);
+                synchronized (System.out) {
 
-            tests.add(test);
-            tasks.add(Executors.callable(test));
+                    System.out.println("\n" + scenarios.get(ctr).getRule() + ": " + scenarios.get(ctr).getTitle() + ".");
+
+                    Main.printSummary(result);
+                    Main.printLatency(result);
+                    Main.printStaleness(result);
+                    Main.printContention(result);
+                    Main.printAllocation(result);
+                }
+            }
+
+            System.out.println("\n...Done.");
+            return results;
         }
+    }
+
+    /**
+     * Sweeps each scenario across reader, writer and parallel test counts,
+     * then prints one row per point, grouped by scenario.
+     *
+     * @param scenarios      Scenarios.
+     * @param testLengthInMs Test length in MS.
+     * @return Scenario results.
+     * @throws InterruptedException
+     * @throws ExecutionException
+     */
+    private static List<ScenarioResult> sweepScenarios(final List<Scenario> scenarios,
+                                                       final long testLengthInMs)
+            throws InterruptedException, ExecutionException {
+
+        final int[] readerCounts = Main.parseCounts(
+                System.getProperty(Main.SWEEP_READERS_PROPERTY, Main.DEFAULT_SWEEP_WORKERS));
+        final int[] writerCounts = Main.parseCounts(
+                System.getProperty(Main.SWEEP_WRITERS_PROPERTY, Main.DEFAULT_SWEEP_WORKERS));
+        final int[] parallelTestCounts = Main.parseCounts(
+                System.getProperty(Main.SWEEP_PARALLEL_TESTS_PROPERTY, Main.DEFAULT_SWEEP_PARALLEL_TESTS));
 
-        System.out.println("\nVNA00J: Compliant #1 (volatile qualifier).");
-        System.out.println("\nExecuting " + parallelTests + " tests...");
+        final int maxWorkerThreads = (Main.maxOf(parallelTestCounts) *
+                (Main.maxOf(readerCounts) + Main.maxOf(writerCounts)));
+        final List<Future<ScenarioResult>> futures = new ArrayList<>();
+        final List<ScenarioResult> results = new ArrayList<>();
 
-        final ExecutorService executorService = Executors.newFixedThreadPool(parallelTests, new ThreadFactory() {
+        try (final ScenarioRunner runner = new ScenarioRunner(
+                Main.getThreadBudget(maxWorkerThreads), Main.driverThreadMode)) {
 
-            @Override
-            public Thread newThread(final Runnable runnable) {
+            System.out.println(String.format("\nSweeping %d scenarios x %d points (%s, budget %d worker threads)...",
+                    scenarios.size(),
+                    (readerCounts.length * writerCounts.length * parallelTestCounts.length),
+                    Main.runMode, runner.getThreadBudget()));
 
-                final Thread result = new Thread(runnable);
-                result.setDaemon(true);
+            for (final Scenario scenarioItem : scenarios) {
 
-                return result;
+                for (final int parallelTestsItem : parallelTestCounts) {
+
+                    for (final int writersItem : writerCounts) {
+
+                        for (final int readersItem : readerCounts) {
+
+                            futures.add(runner.submit(scenarioItem, parallelTestsItem, testLengthInMs,
+                                    readersItem, writersItem, Main::configureTest));
+                        }
+                    }
+                }
             }
-        });
 
-        executorService.invokeAll(tasks);
-        executorService.shutdown();
+            for (final Future<ScenarioResult> futureItem : futures) {
+
+                final ScenarioResult item = futureItem.get();
+
+                results.add(item);
+
+                // print pending reports first, then keep later ones out of the table;
+                ViolationReporter.flush();
+
+                synchronized (System.out) {
+
+                    if (results.size() == 1) {
+
+                        System.out.println(String.format("\n%-12s %8s %8s %8s %14s %12s %10s",
+                                "Scenario", "Parallel", "Readers", "Writers", "Ops/sec", "Trips/sec", "Violations"));
+                    }
+
+                    System.out.println(String.format("%-12s %8d %8d %8d %14.0f %12.1f %6d/%d",
+                            item.getName(), item.getParallelTests(), item.getReaderWorkers(), item.getWriterWorkers(),
+                            item.getOpsPerSec(), item.getTripsPerSec(), item.getViolatingTests(), item.getParallelTests()));
+                }
+            }
+        }
 
         System.out.println("\n...Done.");
+        return results;
     }
 
     /**
-     * Test compliant #2.
+     * Saves results to the results store and compares them with a baseline, as requested.
      *
-     * @param parallelTests  Parallel test count.
-     * @param testLengthInMs Test length in MS.
-     * @throws InterruptedException
+     * @param results Scenario results.
+     * @return Regressions found.
+     * @throws IOException On results read/write failure.
      */
-    private static void testVNA00JCompliant2(final int parallelTests,
-                                             final long testLengthInMs)
-            throws InterruptedException {
+    private static int storeResults(final List<ScenarioResult> results) throws IOException {
 
-        final List<VNA00JBase> tests = new ArrayList<>();
-        final List<Callable<Object>> tasks = new ArrayList<>();
+        final ResultsStore store = new ResultsStore(Paths.get(
+                System.getProperty(Main.RESULTS_DIRECTORY_PROPERTY, Main.DEFAULT_RESULTS_DIRECTORY)));
+        final String baseline = System.getProperty(Main.BASELINE_PROPERTY);
 
-        for (int ctr = 0; ctr < parallelTests; ctr++) {
+        final Path baselineFile = ((baseline == null) ? null :
+                (Main.LATEST_BASELINE.equalsIgnoreCase(baseline.trim()) ? store.findLatest() : Paths.get(baseline.trim())));
+
+        if (Boolean.getBoolean(Main.RESULTS_PROPERTY)) {
+
+            System.out.println("\nResults: " + store.save(Main.newRunId(), Main.getRunInfo(), results));
+        }
 
-            final VNA00JBase test = new VNA00JCompliant2(
-                    String.format("Test #%d", (ctr + 1)), testLengthInMs);
+        if (baseline == null) {
 
-            tests.add(test);
-            tasks.add(Executors.callable(test));
+            return 0;
         }
 
-        System.out.println("\nVNA00J: Compliant #2 (AtomicInteger).");
-        System.out.println("\nExecuting " + parallelTests + " tests...");
+        if (baselineFile == null) {
+
+            System.out.println("\nNo baseline found (" + baseline + ").");
+            return 0;
+        }
+
+        System.out.println("\nBaseline: " + baselineFile);
+
+        return new BaselineComparison(baselineFile,
+                Double.parseDouble(System.getProperty(Main.ALPHA_PROPERTY, Main.DEFAULT_ALPHA))).compare(results);
+    }
+
+    /**
+     * Gets run info: JVM, machine and cert.examples.* options.
+     *
+     * @return Run info, in order.
+     */
+    private static Map<String, String> getRunInfo() {
+
+        final Map<String, String> result = new LinkedHashMap<>();
 
-        final ExecutorService executorService = Executors.newFixedThreadPool(parallelTests, new ThreadFactory() {
+        result.put("java.version", System.getProperty("java.version"));
+        result.put("java.vm.name", System.getProperty("java.vm.name"));
+        result.put("os.name", System.getProperty("os.name"));
+        result.put("os.arch", System.getProperty("os.arch"));
+        result.put("availableProcessors", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        result.put("jvmArguments", String.join(" ", ManagementFactory.getRuntimeMXBean().getInputArguments()));
 
-            @Override
-            public Thread newThread(final Runnable runnable) {
+        for (final String item : new TreeSet<>(System.getProperties().stringPropertyNames())) {
 
-                final Thread result = new Thread(runnable);
-                result.setDaemon(true);
+            if (item.startsWith("cert.examples.")) {
 
-                return result;
+                result.put(item, System.getProperty(item));
             }
-        });
+        }
 
-        executorService.invokeAll(tasks);
-        executorService.shutdown();
+        return result;
+    }
 
-        System.out.println("\n...Done.");
+    /**
+     * Applies run options to test.
+     *
+     * @param test Test.
+     */
+    private static void configureTest(final AbstractReaderWriterBase<?> test) {
+
+        test.setRunMode(Main.runMode);
+        test.setRecordingLatency(Main.isRecordingLatency);
+        test.setRecordingStaleness(Main.isRecordingStaleness);
+        test.setProfilingContention(Main.isProfilingContention);
+        test.setProfilingAllocation(Main.isProfilingAllocation);
+        test.setWorkerThreadMode(Main.workerThreadMode);
+        test.setMemoryLayout(Main.memoryLayout);
+        test.setWaitStrategy(Main.waitStrategy);
+        test.setWorkBarrierKind(Main.workBarrierKind);
+        test.setJournal(Main.journalCapacity, Main.journalDirectory);
+        test.setRunImplSampleInterval(Main.runImplSampleInterval);
+        test.setStoppingRule(Main.stoppingRule);
     }
 
     /**
-     * Test compliant #3.
+     * Gets worker thread budget: as set, or else enough for the largest
+     * scenario run (and at least one per CPU).
      *
-     * @param parallelTests  Parallel test count.
-     * @param testLengthInMs Test length in MS.
-     * @throws InterruptedException
+     * @param maxWorkerThreads Worker threads of the largest scenario run.
+     * @return Thread budget.
      */
-    private static void testVNA00JCompliant3(final int parallelTests,
-                                             final long testLengthInMs)
-            throws InterruptedException {
+    private static int getThreadBudget(final int maxWorkerThreads) {
 
-        final List<VNA00JBase> tests = new ArrayList<>();
-        final List<Callable<Object>> tasks = new ArrayList<>();
+        return Integer.getInteger(Main.THREAD_BUDGET_PROPERTY,
+                Math.max(Runtime.getRuntime().availableProcessors(), maxWorkerThreads));
+    }
 
-        for (int ctr = 0; ctr < parallelTests; ctr++) {
+    /**
+     * Gets max of counts.
+     *
+     * @param counts Counts (at least one).
+     * @return Max count.
+     */
+    private static int maxOf(final int[] counts) {
 
-            final VNA00JBase test = new VNA00JCompliant3(
-                    String.format("Test #%d", (ctr + 1)), testLengthInMs);
+        int result = counts[0];
 
-            tests.add(test);
-            tasks.add(Executors.callable(test));
+        for (final int item : counts) {
+
+            result = Math.max(result, item);
         }
 
-        System.out.println("\nVNA00J: Compliant #3 (synchronization).");
-        System.out.println("\nExecuting " + parallelTests + " tests...");
+        return result;
+    }
 
-        final ExecutorService executorService = Executors.newFixedThreadPool(parallelTests, new ThreadFactory() {
+    /**
+     * Parses comma-separated counts.
+     *
+     * @param value Comma-separated counts.
+     * @return Counts.
+     */
+    private static int[] parseCounts(final String value) {
 
-            @Override
-            public Thread newThread(final Runnable runnable) {
+        final String[] items = value.split(",");
+        final int[] result = new int[items.length];
 
-                final Thread result = new Thread(runnable);
-                result.setDaemon(true);
+        for (int ctr = 0; ctr < items.length; ctr++) {
 
-                return result;
+            result[ctr] = Integer.parseInt(items[ctr].trim());
+        }
+
+        return result;
+    }
+
+    /**
+     * Prints violations and throughput, totaled across tests.
+     *
+     * @param result Scenario result.
+     */
+    private static void printSummary(final ScenarioResult result) {
+
+        System.out.println(String.format("\nViolations: %d of %d tests; throughput: %.0f ops/sec, %.1f trips/sec",
+                result.getViolatingTests(), result.getParallelTests(), result.getOpsPerSec(), result.getTripsPerSec()));
+
+        final StringBuilder stopReasons = new StringBuilder();
+
+        for (final StopReason item : StopReason.values()) {
+
+            if (result.getStopReasonCount(item) > 0) {
+
+                stopReasons.append((stopReasons.length() == 0) ? "" : ", ")
+                        .append(result.getStopReasonCount(item)).append(' ').append(item);
             }
-        });
+        }
 
-        executorService.invokeAll(tasks);
-        executorService.shutdown();
+        System.out.println(String.format("Stopped: %s; mean test length: %.0f ms",
+                stopReasons, result.getMeanRunTimeInMs()));
+    }
 
-        System.out.println("\n...Done.");
+    /**
+     * Prints latency, merged across tests.
+     *
+     * @param result Scenario result.
+     */
+    private static void printLatency(final ScenarioResult result) {
+
+        if (Main.isRecordingLatency) {
+
+            System.out.println();
+            System.out.println(LatencyHistogram.formatHeader("Latency (ns)"));
+            System.out.println(result.getReaderRunLatency().format("READER / runImpl"));
+            System.out.println(result.getReaderWaitLatency().format("READER / barrier wait"));
+            System.out.println(result.getWriterRunLatency().format("WRITER / runImpl"));
+            System.out.println(result.getWriterWaitLatency().format("WRITER / barrier wait"));
+        }
+    }
+
+    /**
+     * Prints reader staleness, merged across tests.
+     *
+     * @param result Scenario result.
+     */
+    private static void printStaleness(final ScenarioResult result) {
+
+        if (Main.isRecordingStaleness) {
+
+            System.out.println();
+            System.out.println(LatencyHistogram.formatHeader("Staleness"));
+            System.out.println(result.getReaderValueLag().format("READER / writes missed"));
+            System.out.println(result.getReaderTimeLag().format("READER / ns behind"));
+        }
+    }
+
+    /**
+     * Prints contention, merged across tests.
+     *
+     * @param result Scenario result.
+     */
+    private static void printContention(final ScenarioResult result) {
+
+        if (Main.isProfilingContention) {
+
+            System.out.println();
+            System.out.println(ContentionProfile.formatHeader("Contention"));
+            System.out.println(result.getReaderContention().format("READER"));
+            System.out.println(result.getWriterContention().format("WRITER"));
+        }
+    }
+
+    /**
+     * Prints allocation per operation, merged across tests.
+     *
+     * @param result Scenario result.
+     */
+    private static void printAllocation(final ScenarioResult result) {
+
+        if (Main.isProfilingAllocation) {
+
+            System.out.println();
+            System.out.println(AllocationProfile.formatHeader("Allocation"));
+            System.out.println(result.getReaderAllocation().format("READER runImpl()"));
+            System.out.println(result.getWriterAllocation().format("WRITER runImpl()"));
+            System.out.println(result.getCheckAllocation().format(
+                    (Main.runMode == RunMode.FREE_RUNNING) ? "Verifier pass" : "Barrier action"));
+        }
     }
 }
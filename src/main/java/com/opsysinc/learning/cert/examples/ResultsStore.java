@@ -0,0 +1,446 @@
+package com.opsysinc.learning.cert.examples;
+
+import com.opsysinc.learning.cert.examples.util.AllocationProfile;
+import com.opsysinc.learning.cert.examples.util.ContentionProfile;
+import com.opsysinc.learning.cert.examples.util.LatencyHistogram;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Local store of run results, one set of files per run.
+ * <p/>
+ * Each run is saved as <code>&lt;run id&gt;.json</code> (everything),
+ * <code>&lt;run id&gt;.csv</code> (one row per scenario run, with latency percentiles)
+ * and <code>&lt;run id&gt;-tests.csv</code> (one row per test, the samples baseline
+ * comparisons use). Run ids sort by time; an id already in the store gets a suffix
+ * (<code>_2</code>, <code>_3</code>, ...), so runs started together never overwrite
+ * each other.
+ */
+public final class ResultsStore {
+
+    /**
+     * Per-test CSV suffix.
+     */
+    static final String TESTS_CSV_SUFFIX = "-tests.csv";
+
+    /**
+     * Per-test CSV header.
+     */
+    static final String TESTS_CSV_HEADER = "scenario,parallelTests,readers,writers,test,opsPerSec,tripsPerSec,violations";
+
+    /**
+     * Store directory.
+     */
+    private final Path directory;
+
+    /**
+     * Basic ctor.
+     *
+     * @param directory Store directory (created on first save).
+     */
+    public ResultsStore(final Path directory) {
+
+        this.directory = directory;
+    }
+
+    /**
+     * Finds latest saved run.
+     *
+     * @return Latest run's per-test CSV, or null if none.
+     * @throws IOException On read failure.
+     */
+    public Path findLatest() throws IOException {
+
+        if (!Files.isDirectory(this.directory)) {
+
+            return null;
+        }
+
+        Path result = null;
+
+        try (final DirectoryStream<Path> files = Files.newDirectoryStream(
+                this.directory, ("*" + ResultsStore.TESTS_CSV_SUFFIX))) {
+
+            for (final Path item : files) {
+
+                if ((result == null) ||
+                        (item.getFileName().toString().compareTo(result.getFileName().toString()) > 0)) {
+
+                    result = item;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads per-test CSV.
+     *
+     * @param file Per-test CSV (see save()).
+     * @return Rows, as fields (see TESTS_CSV_HEADER).
+     * @throws IOException On read failure, or if not a per-test CSV.
+     */
+    public static List<String[]> readTests(final Path file) throws IOException {
+
+        final List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+
+        if (lines.isEmpty() ||
+                !lines.get(0).trim().equals(ResultsStore.TESTS_CSV_HEADER)) {
+
+            throw new IOException("Not a per-test results file: " + file);
+        }
+
+        final List<String[]> result = new ArrayList<>();
+
+        for (int ctr = 1; ctr < lines.size(); ctr++) {
+
+            final String[] fields = lines.get(ctr).trim().split(",");
+
+            if (fields.length == 8) {
+
+                result.add(fields);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Saves run.
+     *
+     * @param runId   Run id (suffixed, if already in the store).
+     * @param runInfo Run info (JVM, options), in order.
+     * @param results Scenario results.
+     * @return Saved per-test CSV.
+     * @throws IOException On write failure.
+     */
+    public Path save(final String runId,
+                     final Map<String, String> runInfo,
+                     final List<ScenarioResult> results) throws IOException {
+
+        Files.createDirectories(this.directory);
+
+        final String savedRunId = this.reserveRunId(runId);
+
+        this.writeJson(this.directory.resolve(savedRunId + ".json"), savedRunId, runInfo, results);
+        this.writeSummaryCsv(this.directory.resolve(savedRunId + ".csv"), results);
+
+        final Path testsCsv = this.directory.resolve(savedRunId + ResultsStore.TESTS_CSV_SUFFIX);
+
+        this.writeTestsCsv(testsCsv, results);
+        return testsCsv;
+    }
+
+    /**
+     * Reserves run id, by creating its JSON file (atomically, so only one run gets it).
+     *
+     * @param runId Run id.
+     * @return Reserved run id: as given, or suffixed if already in the store.
+     * @throws IOException On write failure.
+     */
+    private String reserveRunId(final String runId) throws IOException {
+
+        String result = runId;
+
+        for (int ctr = 2; ; ctr++) {
+
+            try {
+
+                Files.createFile(this.directory.resolve(result + ".json"));
+                return result;
+
+            } catch (final FileAlreadyExistsException ex) {
+
+                // '_' sorts after '-', so suffixed ids still sort after the id they follow;
+                result = (runId + "_" + ctr);
+            }
+        }
+    }
+
+    /**
+     * Writes JSON.
+     *
+     * @param file    Target file.
+     * @param runId   Run id.
+     * @param runInfo Run info.
+     * @param results Scenario results.
+     * @throws IOException On write failure.
+     */
+    private void writeJson(final Path file,
+                           final String runId,
+                           final Map<String, String> runInfo,
+                           final List<ScenarioResult> results) throws IOException {
+
+        try (final BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+
+            writer.write("{\n  \"runId\": " + ResultsStore.quote(runId) + ",\n  \"info\": {");
+
+            boolean isFirst = true;
+
+            for (final Map.Entry<String, String> item : runInfo.entrySet()) {
+
+                writer.write((isFirst ? "\n" : ",\n") + "    " + ResultsStore.quote(item.getKey()) +
+                        ": " + ResultsStore.quote(item.getValue()));
+                isFirst = false;
+            }
+
+            writer.write("\n  },\n  \"scenarios\": [");
+
+            for (int ctr = 0; ctr < results.size(); ctr++) {
+
+                final ScenarioResult item = results.get(ctr);
+
+                writer.write(((ctr == 0) ? "\n" : ",\n") + "    {\n");
+                writer.write("      \"scenario\": " + ResultsStore.quote(item.getName()) + ",\n");
+                writer.write("      \"parallelTests\": " + item.getParallelTests() + ",\n");
+                writer.write("      \"readers\": " + item.getReaderWorkers() + ",\n");
+                writer.write("      \"writers\": " + item.getWriterWorkers() + ",\n");
+                writer.write("      \"opsPerSec\": " + ResultsStore.number(item.getOpsPerSec()) + ",\n");
+                writer.write("      \"tripsPerSec\": " + ResultsStore.number(item.getTripsPerSec()) + ",\n");
+                writer.write("      \"violatingTests\": " + item.getViolatingTests() + ",\n");
+                writer.write("      \"distributions\": {\n");
+                writer.write(ResultsStore.jsonHistogram("readerRunNs", item.getReaderRunLatency()) + ",\n");
+                writer.write(ResultsStore.jsonHistogram("readerWaitNs", item.getReaderWaitLatency()) + ",\n");
+                writer.write(ResultsStore.jsonHistogram("writerRunNs", item.getWriterRunLatency()) + ",\n");
+                writer.write(ResultsStore.jsonHistogram("writerWaitNs", item.getWriterWaitLatency()) + ",\n");
+                writer.write(ResultsStore.jsonHistogram("readerWritesMissed", item.getReaderValueLag()) + ",\n");
+                writer.write(ResultsStore.jsonHistogram("readerNsBehind", item.getReaderTimeLag()) + "\n");
+                writer.write("      },\n      \"contention\": {\n");
+                writer.write(ResultsStore.jsonContention("reader", item.getReaderContention()) + ",\n");
+                writer.write(ResultsStore.jsonContention("writer", item.getWriterContention()) + "\n");
+                writer.write("      },\n      \"allocation\": {\n");
+                writer.write(ResultsStore.jsonAllocation("readerRun", item.getReaderAllocation()) + ",\n");
+                writer.write(ResultsStore.jsonAllocation("writerRun", item.getWriterAllocation()) + ",\n");
+                writer.write(ResultsStore.jsonAllocation("check", item.getCheckAllocation()) + "\n");
+                writer.write("      },\n      \"tests\": [");
+
+                final double[] testOpsPerSec = item.getTestOpsPerSec();
+                final double[] testTripsPerSec = item.getTestTripsPerSec();
+                final int[] testViolations = item.getTestViolations();
+
+                for (int testCtr = 0; testCtr < testOpsPerSec.length; testCtr++) {
+
+                    writer.write(String.format("%s        {\"opsPerSec\": %s, \"tripsPerSec\": %s, \"violations\": %d}",
+                            ((testCtr == 0) ? "\n" : ",\n"),
+                            ResultsStore.number(testOpsPerSec[testCtr]),
+                            ResultsStore.number(testTripsPerSec[testCtr]),
+                            testViolations[testCtr]));
+                }
+
+                writer.write("\n      ]\n    }");
+            }
+
+            writer.write("\n  ]\n}\n");
+        }
+    }
+
+    /**
+     * Writes summary CSV.
+     *
+     * @param file    Target file.
+     * @param results Scenario results.
+     * @throws IOException On write failure.
+     */
+    private void writeSummaryCsv(final Path file,
+                                 final List<ScenarioResult> results) throws IOException {
+
+        try (final BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+
+            writer.write("scenario,parallelTests,readers,writers,opsPerSec,tripsPerSec,violatingTests");
+
+            for (final String item : new String[]{"readerRunNs", "readerWaitNs", "writerRunNs", "writerWaitNs",
+                    "readerWritesMissed", "readerNsBehind"}) {
+
+                writer.write(String.format(",%1$s_p50,%1$s_p99,%1$s_p999,%1$s_max", item));
+            }
+
+            for (final String item : new String[]{"reader", "writer"}) {
+
+                writer.write(String.format(",%1$s_blockedMs,%1$s_waitedMs,%1$s_retries", item));
+            }
+
+            for (final String item : new String[]{"readerRun", "writerRun", "check"}) {
+
+                writer.write(String.format(",%1$s_bytesPerOp", item));
+            }
+
+            writer.write("\n");
+
+            for (final ScenarioResult item : results) {
+
+                writer.write(String.format("%s,%d,%d,%d,%s,%s,%d%s%s%s%s%s%s%s%s,%s,%s,%s\n",
+                        item.getName(), item.getParallelTests(), item.getReaderWorkers(), item.getWriterWorkers(),
+                        ResultsStore.number(item.getOpsPerSec()), ResultsStore.number(item.getTripsPerSec()),
+                        item.getViolatingTests(),
+                        ResultsStore.csvHistogram(item.getReaderRunLatency()),
+                        ResultsStore.csvHistogram(item.getReaderWaitLatency()),
+                        ResultsStore.csvHistogram(item.getWriterRunLatency()),
+                        ResultsStore.csvHistogram(item.getWriterWaitLatency()),
+                        ResultsStore.csvHistogram(item.getReaderValueLag()),
+                        ResultsStore.csvHistogram(item.getReaderTimeLag()),
+                        ResultsStore.csvContention(item.getReaderContention()),
+                        ResultsStore.csvContention(item.getWriterContention()),
+                        ResultsStore.number(item.getReaderAllocation().getBytesPerOp()),
+                        ResultsStore.number(item.getWriterAllocation().getBytesPerOp()),
+                        ResultsStore.number(item.getCheckAllocation().getBytesPerOp())));
+            }
+        }
+    }
+
+    /**
+     * Writes per-test CSV.
+     *
+     * @param file    Target file.
+     * @param results Scenario results.
+     * @throws IOException On write failure.
+     */
+    private void writeTestsCsv(final Path file,
+                               final List<ScenarioResult> results) throws IOException {
+
+        try (final BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+
+            writer.write(ResultsStore.TESTS_CSV_HEADER + "\n");
+
+            for (final ScenarioResult item : results) {
+
+                final double[] testOpsPerSec = item.getTestOpsPerSec();
+                final double[] testTripsPerSec = item.getTestTripsPerSec();
+                final int[] testViolations = item.getTestViolations();
+
+                for (int ctr = 0; ctr < testOpsPerSec.length; ctr++) {
+
+                    writer.write(String.format("%s,%d,%d,%d,%d,%s,%s,%d\n",
+                            item.getName(), item.getParallelTests(), item.getReaderWorkers(), item.getWriterWorkers(),
+                            (ctr + 1), ResultsStore.number(testOpsPerSec[ctr]), ResultsStore.number(testTripsPerSec[ctr]),
+                            testViolations[ctr]));
+                }
+            }
+        }
+    }
+
+    /**
+     * Formats histogram as JSON member.
+     *
+     * @param name      Member name.
+     * @param histogram Histogram.
+     * @return JSON member.
+     */
+    private static String jsonHistogram(final String name,
+                                        final LatencyHistogram histogram) {
+
+        return String.format("        %s: {\"count\": %d, \"mean\": %s, \"p50\": %d, \"p99\": %d, \"p999\": %d, \"max\": %d}",
+                ResultsStore.quote(name), histogram.getTotalCount(), ResultsStore.number(histogram.getMean()),
+                histogram.getValueAtPercentile(50.0), histogram.getValueAtPercentile(99.0),
+                histogram.getValueAtPercentile(99.9), histogram.getMaxValue());
+    }
+
+    /**
+     * Formats histogram as CSV columns.
+     *
+     * @param histogram Histogram.
+     * @return CSV columns, each with a leading comma.
+     */
+    private static String csvHistogram(final LatencyHistogram histogram) {
+
+        return String.format(",%d,%d,%d,%d",
+                histogram.getValueAtPercentile(50.0), histogram.getValueAtPercentile(99.0),
+                histogram.getValueAtPercentile(99.9), histogram.getMaxValue());
+    }
+
+    /**
+     * Formats contention as JSON member.
+     *
+     * @param name       Member name.
+     * @param contention Contention.
+     * @return JSON member.
+     */
+    private static String jsonContention(final String name,
+                                         final ContentionProfile contention) {
+
+        return String.format("        %s: {\"blocked\": %d, \"blockedMs\": %d, \"waited\": %d, \"waitedMs\": %d, \"retries\": %d, \"paused\": %d, \"pausedMs\": %d}",
+                ResultsStore.quote(name), contention.getBlockedCount(), contention.getBlockedTimeInMs(),
+                contention.getWaitedCount(), contention.getWaitedTimeInMs(), contention.getRetryCount(),
+                contention.getPauseCount(), contention.getPauseTimeInMs());
+    }
+
+    /**
+     * Formats contention as CSV columns.
+     *
+     * @param contention Contention.
+     * @return CSV columns, each with a leading comma.
+     */
+    private static String csvContention(final ContentionProfile contention) {
+
+        return String.format(",%d,%d,%d",
+                contention.getBlockedTimeInMs(), contention.getWaitedTimeInMs(), contention.getRetryCount());
+    }
+
+    /**
+     * Formats allocation as JSON member.
+     *
+     * @param name       Member name.
+     * @param allocation Allocation.
+     * @return JSON member.
+     */
+    private static String jsonAllocation(final String name,
+                                         final AllocationProfile allocation) {
+
+        return String.format("        %s: {\"ops\": %d, \"bytes\": %d, \"bytesPerOp\": %s}",
+                ResultsStore.quote(name), allocation.getOpCount(), allocation.getAllocatedBytes(),
+                ResultsStore.number(allocation.getBytesPerOp()));
+    }
+
+    /**
+     * Formats number (locale-independent).
+     *
+     * @param value Value.
+     * @return Formatted value.
+     */
+    private static String number(final double value) {
+
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    /**
+     * Quotes JSON string.
+     *
+     * @param value Value.
+     * @return Quoted value.
+     */
+    private static String quote(final String value) {
+
+        final StringBuilder result = new StringBuilder("\"");
+
+        for (int ctr = 0; ctr < value.length(); ctr++) {
+
+            final char item = value.charAt(ctr);
+
+            if ((item == '"') ||
+                    (item == '\\')) {
+
+                result.append('\\').append(item);
+
+            } else if (item < 0x20) {
+
+                result.append(String.format("\\u%04x", (int) item));
+
+            } else {
+
+                result.append(item);
+            }
+        }
+
+        return result.append('"').toString();
+    }
+}
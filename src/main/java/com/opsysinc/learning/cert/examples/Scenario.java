@@ -0,0 +1,103 @@
+package com.opsysinc.learning.cert.examples;
+
+import com.opsysinc.learning.cert.examples.util.AbstractReaderWriterBase;
+
+/**
+ * Named test scenario, as registered by a ScenarioProvider.
+ */
+public final class Scenario {
+
+    /**
+     * Rule id (e.g., "VNA00J").
+     */
+    private final String rule;
+
+    /**
+     * Short name.
+     */
+    private final String name;
+
+    /**
+     * Display title.
+     */
+    private final String title;
+
+    /**
+     * Test builder.
+     */
+    private final Scenario.Builder builder;
+
+    /**
+     * Basic ctor.
+     *
+     * @param rule    Rule id.
+     * @param name    Short name.
+     * @param title   Display title.
+     * @param builder Test builder.
+     */
+    public Scenario(final String rule,
+                    final String name,
+                    final String title,
+                    final Scenario.Builder builder) {
+
+        this.rule = rule;
+        this.name = name;
+        this.title = title;
+        this.builder = builder;
+    }
+
+    /**
+     * Gets rule id.
+     *
+     * @return Rule id.
+     */
+    public String getRule() {
+
+        return this.rule;
+    }
+
+    /**
+     * Gets short name.
+     *
+     * @return Short name.
+     */
+    public String getName() {
+
+        return this.name;
+    }
+
+    /**
+     * Gets display title.
+     *
+     * @return Display title.
+     */
+    public String getTitle() {
+
+        return this.title;
+    }
+
+    /**
+     * Gets test builder.
+     *
+     * @return Test builder.
+     */
+    public Scenario.Builder getBuilder() {
+
+        return this.builder;
+    }
+
+    /**
+     * Test builder.
+     */
+    public interface Builder {
+
+        /**
+         * Builds test.
+         *
+         * @param id             Test id.
+         * @param testLengthInMs Test length in MS.
+         * @return Test.
+         */
+        AbstractReaderWriterBase<?> build(String id, long testLengthInMs);
+    }
+}
@@ -0,0 +1,33 @@
+package com.opsysinc.learning.cert.examples;
+
+import com.opsysinc.learning.cert.examples.util.LitmusTest;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Scenario service provider.
+ * <p/>
+ * Rule modules list their implementations in
+ * <code>META-INF/services/com.opsysinc.learning.cert.examples.ScenarioProvider</code>;
+ * Main finds them through ServiceLoader, and runs their scenarios in file order.
+ */
+public interface ScenarioProvider {
+
+    /**
+     * Gets scenarios.
+     *
+     * @return Scenarios, in run order.
+     */
+    List<Scenario> getScenarios();
+
+    /**
+     * Gets litmus tests (for batched runs; see LitmusEngine).
+     *
+     * @return Litmus tests, in run order (none, by default).
+     */
+    default List<LitmusTest<?>> getLitmusTests() {
+
+        return Collections.emptyList();
+    }
+}
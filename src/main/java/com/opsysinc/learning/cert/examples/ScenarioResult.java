@@ -0,0 +1,472 @@
+package com.opsysinc.learning.cert.examples;
+
+import com.opsysinc.learning.cert.examples.util.AbstractReaderWriterBase;
+import com.opsysinc.learning.cert.examples.util.AllocationProfile;
+import com.opsysinc.learning.cert.examples.util.ContentionProfile;
+import com.opsysinc.learning.cert.examples.util.LatencyHistogram;
+import com.opsysinc.learning.cert.examples.util.StopReason;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Results of one scenario run, totaled across its parallel tests.
+ */
+public final class ScenarioResult {
+
+    /**
+     * Scenario name.
+     */
+    private final String name;
+
+    /**
+     * Parallel tests.
+     */
+    private final int parallelTests;
+
+    /**
+     * Reader workers per test.
+     */
+    private final int readerWorkers;
+
+    /**
+     * Writer workers per test.
+     */
+    private final int writerWorkers;
+
+    /**
+     * Tests that detected any violation.
+     */
+    private final int violatingTests;
+
+    /**
+     * Worker operations per second, totaled across tests over the scenario's wall-clock
+     * span (first test start to last test end).
+     */
+    private final double opsPerSec;
+
+    /**
+     * Barrier trips per second, totaled across tests over the scenario's wall-clock span.
+     */
+    private final double tripsPerSec;
+
+    /**
+     * Worker operations per second, per test.
+     */
+    private final double[] testOpsPerSec;
+
+    /**
+     * Barrier trips per second, per test.
+     */
+    private final double[] testTripsPerSec;
+
+    /**
+     * Violations, per test.
+     */
+    private final int[] testViolations;
+
+    /**
+     * Tests stopped, by stop reason ordinal.
+     */
+    private final int[] stopReasonCounts;
+
+    /**
+     * Mean test run time in MS.
+     */
+    private final double meanRunTimeInMs;
+
+    /**
+     * Reader runImpl() latency.
+     */
+    private final LatencyHistogram readerRunLatency;
+
+    /**
+     * Reader barrier wait latency.
+     */
+    private final LatencyHistogram readerWaitLatency;
+
+    /**
+     * Writer runImpl() latency.
+     */
+    private final LatencyHistogram writerRunLatency;
+
+    /**
+     * Writer barrier wait latency.
+     */
+    private final LatencyHistogram writerWaitLatency;
+
+    /**
+     * Reader staleness, in writes missed.
+     */
+    private final LatencyHistogram readerValueLag;
+
+    /**
+     * Reader staleness, in ns.
+     */
+    private final LatencyHistogram readerTimeLag;
+
+    /**
+     * Reader contention.
+     */
+    private final ContentionProfile readerContention;
+
+    /**
+     * Writer contention.
+     */
+    private final ContentionProfile writerContention;
+
+    /**
+     * Reader runImpl() allocation.
+     */
+    private final AllocationProfile readerAllocation;
+
+    /**
+     * Writer runImpl() allocation.
+     */
+    private final AllocationProfile writerAllocation;
+
+    /**
+     * Check (barrier action or verifier pass) allocation.
+     */
+    private final AllocationProfile checkAllocation;
+
+    /**
+     * Basic ctor.
+     *
+     * @param name  Scenario name.
+     * @param tests Completed tests (at least one).
+     */
+    public ScenarioResult(final String name,
+                          final List<? extends AbstractReaderWriterBase<?>> tests) {
+
+        this.name = name;
+        this.parallelTests = tests.size();
+        this.readerWorkers = tests.get(0).getReaderWorkerCount();
+        this.writerWorkers = tests.get(0).getWriterWorkerCount();
+
+        this.readerRunLatency = new LatencyHistogram();
+        this.readerWaitLatency = new LatencyHistogram();
+        this.writerRunLatency = new LatencyHistogram();
+        this.writerWaitLatency = new LatencyHistogram();
+        this.readerValueLag = new LatencyHistogram();
+        this.readerTimeLag = new LatencyHistogram();
+        this.readerContention = new ContentionProfile();
+        this.writerContention = new ContentionProfile();
+        this.readerAllocation = new AllocationProfile();
+        this.writerAllocation = new AllocationProfile();
+        this.checkAllocation = new AllocationProfile();
+
+        this.testOpsPerSec = new double[tests.size()];
+        this.testTripsPerSec = new double[tests.size()];
+        this.testViolations = new int[tests.size()];
+        this.stopReasonCounts = new int[StopReason.values().length];
+
+        final double nsPerSec = (double) TimeUnit.SECONDS.toNanos(1L);
+
+        int violatingTests = 0;
+        long totalOps = 0L;
+        long totalTrips = 0L;
+        long totalRunTimeInNs = 0L;
+        long firstStartTimeInNs = 0L;
+        long lastEndTimeInNs = 0L;
+        boolean hasSpan = false;
+
+        for (int ctr = 0; ctr < tests.size(); ctr++) {
+
+            final AbstractReaderWriterBase<?> item = tests.get(ctr);
+
+            this.testViolations[ctr] = item.getViolationCount();
+
+            if (item.getViolationCount() > 0) {
+
+                violatingTests++;
+            }
+
+            if (item.getStopReason() != null) {
+
+                this.stopReasonCounts[item.getStopReason().ordinal()]++;
+            }
+
+            totalRunTimeInNs += item.getRunTimeInNs();
+            totalOps += item.getTotalOps();
+            totalTrips += item.getBarrierTripCount();
+
+            if (item.getRunTimeInNs() > 0L) {
+
+                final double runTimeInSec = ((double) item.getRunTimeInNs() / nsPerSec);
+                final long endTimeInNs = (item.getStartTimeInNs() + item.getRunTimeInNs());
+
+                this.testOpsPerSec[ctr] = ((double) item.getTotalOps() / runTimeInSec);
+                this.testTripsPerSec[ctr] = ((double) item.getBarrierTripCount() / runTimeInSec);
+
+                // tests may run one after another (thread budget), so span their wall-clock;
+                if (!hasSpan ||
+                        ((item.getStartTimeInNs() - firstStartTimeInNs) < 0L)) {
+
+                    firstStartTimeInNs = item.getStartTimeInNs();
+                }
+
+                if (!hasSpan ||
+                        ((endTimeInNs - lastEndTimeInNs) > 0L)) {
+
+                    lastEndTimeInNs = endTimeInNs;
+                }
+
+                hasSpan = true;
+            }
+
+            this.readerRunLatency.add(item.getReaderRunLatency());
+            this.readerWaitLatency.add(item.getReaderWaitLatency());
+            this.writerRunLatency.add(item.getWriterRunLatency());
+            this.writerWaitLatency.add(item.getWriterWaitLatency());
+            this.readerValueLag.add(item.getReaderValueLag());
+            this.readerTimeLag.add(item.getReaderTimeLag());
+            this.readerContention.add(item.getReaderContention());
+            this.writerContention.add(item.getWriterContention());
+            this.readerAllocation.add(item.getReaderAllocation());
+            this.writerAllocation.add(item.getWriterAllocation());
+            this.checkAllocation.add(item.getCheckAllocation());
+        }
+
+        this.violatingTests = violatingTests;
+
+        final long spanInNs = (lastEndTimeInNs - firstStartTimeInNs);
+
+        this.opsPerSec = ((spanInNs > 0L) ? ((double) totalOps * nsPerSec / spanInNs) : 0.0);
+        this.tripsPerSec = ((spanInNs > 0L) ? ((double) totalTrips * nsPerSec / spanInNs) : 0.0);
+        this.meanRunTimeInMs = (((double) totalRunTimeInNs / tests.size()) / TimeUnit.MILLISECONDS.toNanos(1L));
+    }
+
+    /**
+     * Gets tests stopped for a reason.
+     *
+     * @param stopReason Stop reason.
+     * @return Test count.
+     */
+    public int getStopReasonCount(final StopReason stopReason) {
+
+        return this.stopReasonCounts[stopReason.ordinal()];
+    }
+
+    /**
+     * Gets mean test run time in MS.
+     *
+     * @return Mean run time in MS.
+     */
+    public double getMeanRunTimeInMs() {
+
+        return this.meanRunTimeInMs;
+    }
+
+    /**
+     * Gets scenario name.
+     *
+     * @return Scenario name.
+     */
+    public String getName() {
+
+        return this.name;
+    }
+
+    /**
+     * Gets parallel tests.
+     *
+     * @return Parallel tests.
+     */
+    public int getParallelTests() {
+
+        return this.parallelTests;
+    }
+
+    /**
+     * Gets reader workers per test.
+     *
+     * @return Reader workers.
+     */
+    public int getReaderWorkers() {
+
+        return this.readerWorkers;
+    }
+
+    /**
+     * Gets writer workers per test.
+     *
+     * @return Writer workers.
+     */
+    public int getWriterWorkers() {
+
+        return this.writerWorkers;
+    }
+
+    /**
+     * Gets tests that detected any violation.
+     *
+     * @return Violating tests.
+     */
+    public int getViolatingTests() {
+
+        return this.violatingTests;
+    }
+
+    /**
+     * Gets worker operations per second, totaled across tests over the scenario's
+     * wall-clock span (so not inflated when tests run one after another).
+     *
+     * @return Ops/sec.
+     */
+    public double getOpsPerSec() {
+
+        return this.opsPerSec;
+    }
+
+    /**
+     * Gets barrier trips per second, totaled across tests over the scenario's
+     * wall-clock span.
+     *
+     * @return Trips/sec.
+     */
+    public double getTripsPerSec() {
+
+        return this.tripsPerSec;
+    }
+
+    /**
+     * Gets worker operations per second, per test.
+     *
+     * @return Ops/sec, by test.
+     */
+    public double[] getTestOpsPerSec() {
+
+        return this.testOpsPerSec.clone();
+    }
+
+    /**
+     * Gets barrier trips per second, per test.
+     *
+     * @return Trips/sec, by test.
+     */
+    public double[] getTestTripsPerSec() {
+
+        return this.testTripsPerSec.clone();
+    }
+
+    /**
+     * Gets violations, per test.
+     *
+     * @return Violations, by test.
+     */
+    public int[] getTestViolations() {
+
+        return this.testViolations.clone();
+    }
+
+    /**
+     * Gets reader runImpl() latency (ns).
+     *
+     * @return Reader run latency.
+     */
+    public LatencyHistogram getReaderRunLatency() {
+
+        return this.readerRunLatency;
+    }
+
+    /**
+     * Gets reader barrier wait latency (ns).
+     *
+     * @return Reader wait latency.
+     */
+    public LatencyHistogram getReaderWaitLatency() {
+
+        return this.readerWaitLatency;
+    }
+
+    /**
+     * Gets writer runImpl() latency (ns).
+     *
+     * @return Writer run latency.
+     */
+    public LatencyHistogram getWriterRunLatency() {
+
+        return this.writerRunLatency;
+    }
+
+    /**
+     * Gets writer barrier wait latency (ns).
+     *
+     * @return Writer wait latency.
+     */
+    public LatencyHistogram getWriterWaitLatency() {
+
+        return this.writerWaitLatency;
+    }
+
+    /**
+     * Gets reader staleness, in writes missed.
+     *
+     * @return Reader value lag.
+     */
+    public LatencyHistogram getReaderValueLag() {
+
+        return this.readerValueLag;
+    }
+
+    /**
+     * Gets reader staleness, in ns since the first missed write.
+     *
+     * @return Reader time lag.
+     */
+    public LatencyHistogram getReaderTimeLag() {
+
+        return this.readerTimeLag;
+    }
+
+    /**
+     * Gets reader contention.
+     *
+     * @return Reader contention.
+     */
+    public ContentionProfile getReaderContention() {
+
+        return this.readerContention;
+    }
+
+    /**
+     * Gets writer contention.
+     *
+     * @return Writer contention.
+     */
+    public ContentionProfile getWriterContention() {
+
+        return this.writerContention;
+    }
+
+    /**
+     * Gets reader runImpl() allocation.
+     *
+     * @return Reader allocation.
+     */
+    public AllocationProfile getReaderAllocation() {
+
+        return this.readerAllocation;
+    }
+
+    /**
+     * Gets writer runImpl() allocation.
+     *
+     * @return Writer allocation.
+     */
+    public AllocationProfile getWriterAllocation() {
+
+        return this.writerAllocation;
+    }
+
+    /**
+     * Gets check (barrier action or verifier pass) allocation.
+     *
+     * @return Check allocation.
+     */
+    public AllocationProfile getCheckAllocation() {
+
+        return this.checkAllocation;
+    }
+}
@@ -0,0 +1,299 @@
+package com.opsysinc.learning.cert.examples;
+
+import com.opsysinc.learning.cert.examples.util.AbstractReaderWriterBase;
+import com.opsysinc.learning.cert.examples.util.ManagementSupport;
+import com.opsysinc.learning.cert.examples.util.ThreadMode;
+
+import javax.management.ObjectName;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Runs scenarios' tests on one shared driver executor, within a worker thread budget.
+ * <p/>
+ * Each test holds permits for its worker threads (capped at the budget) while it runs;
+ * permits are granted first come, first served, so scenarios start in submission order
+ * and independent scenarios overlap whenever the budget allows.
+ * <p/>
+ * While open, the runner is registered over JMX (see ScenarioRunnerMXBean).
+ */
+public final class ScenarioRunner implements ScenarioRunnerMXBean, AutoCloseable {
+
+    /**
+     * Worker thread budget.
+     */
+    private final int threadBudget;
+
+    /**
+     * Worker thread permits.
+     */
+    private final Semaphore threadPermits;
+
+    /**
+     * Driver executor.
+     */
+    private final ExecutorService executorService;
+
+    /**
+     * Start time in NS.
+     */
+    private final long startTimeInNs;
+
+    /**
+     * Tests submitted.
+     */
+    private final AtomicInteger submittedTestCount;
+
+    /**
+     * Tests completed.
+     */
+    private final AtomicInteger completedTestCount;
+
+    /**
+     * Running tests.
+     */
+    private final Set<AbstractReaderWriterBase<?>> runningTests;
+
+    /**
+     * Completed tests' worker operations.
+     */
+    private final LongAdder completedOpCount;
+
+    /**
+     * Completed tests' barrier trips.
+     */
+    private final LongAdder completedBarrierTripCount;
+
+    /**
+     * Completed tests' violations.
+     */
+    private final LongAdder completedViolationCount;
+
+    /**
+     * JMX registration, or null if not registered.
+     */
+    private final ObjectName objectName;
+
+    /**
+     * Basic ctor.
+     *
+     * @param threadBudget     Worker thread budget (at least one).
+     * @param driverThreadMode Driver thread mode.
+     */
+    public ScenarioRunner(final int threadBudget,
+                          final ThreadMode driverThreadMode) {
+
+        if (threadBudget < 1) {
+
+            throw new IllegalArgumentException(String.format(
+                    "Invalid thread budget (threadBudget=%d).", threadBudget));
+        }
+
+        this.threadBudget = threadBudget;
+        this.threadPermits = new Semaphore(threadBudget, true);
+        this.executorService = Executors.newCachedThreadPool(driverThreadMode.newThreadFactory());
+
+        this.startTimeInNs = System.nanoTime();
+        this.submittedTestCount = new AtomicInteger(0);
+        this.completedTestCount = new AtomicInteger(0);
+        this.runningTests = ConcurrentHashMap.newKeySet();
+        this.completedOpCount = new LongAdder();
+        this.completedBarrierTripCount = new LongAdder();
+        this.completedViolationCount = new LongAdder();
+
+        this.objectName = ManagementSupport.register("ScenarioRunner", "Main", this);
+    }
+
+    @Override
+    public int getThreadBudget() {
+
+        return this.threadBudget;
+    }
+
+    @Override
+    public int getAvailableThreadPermits() {
+
+        return this.threadPermits.availablePermits();
+    }
+
+    @Override
+    public int getSubmittedTestCount() {
+
+        return this.submittedTestCount.get();
+    }
+
+    @Override
+    public int getCompletedTestCount() {
+
+        return this.completedTestCount.get();
+    }
+
+    @Override
+    public String[] getRunningTests() {
+
+        final List<String> result = new ArrayList<>();
+
+        for (final AbstractReaderWriterBase<?> item : this.runningTests) {
+
+            result.add(item.getId());
+        }
+
+        return result.toArray(new String[0]);
+    }
+
+    @Override
+    public long getOpCount() {
+
+        long result = this.completedOpCount.sum();
+
+        for (final AbstractReaderWriterBase<?> item : this.runningTests) {
+
+            result += item.getOpCount();
+        }
+
+        return result;
+    }
+
+    @Override
+    public double getOpsPerSec() {
+
+        final long elapsedTimeInNs = (System.nanoTime() - this.startTimeInNs);
+
+        return ((elapsedTimeInNs > 0L) ? ((this.getOpCount() * 1.0e9) / elapsedTimeInNs) : 0.0);
+    }
+
+    @Override
+    public long getBarrierTripCount() {
+
+        long result = this.completedBarrierTripCount.sum();
+
+        for (final AbstractReaderWriterBase<?> item : this.runningTests) {
+
+            result += item.getBarrierTripCount();
+        }
+
+        return result;
+    }
+
+    @Override
+    public long getViolationCount() {
+
+        long result = this.completedViolationCount.sum();
+
+        for (final AbstractReaderWriterBase<?> item : this.runningTests) {
+
+            result += item.getViolationCount();
+        }
+
+        return result;
+    }
+
+    @Override
+    public int getActiveWorkerCount() {
+
+        int result = 0;
+
+        for (final AbstractReaderWriterBase<?> item : this.runningTests) {
+
+            result += item.getActiveWorkerCount();
+        }
+
+        return result;
+    }
+
+    /**
+     * Submits scenario's parallel tests.
+     *
+     * @param scenario          Scenario.
+     * @param parallelTests     Parallel test count.
+     * @param testLengthInMs    Test length in MS.
+     * @param readerWorkerCount Reader workers per test.
+     * @param writerWorkerCount Writer workers per test.
+     * @param configurer        Applies run options to each test.
+     * @return Scenario result, completed once all tests have run.
+     */
+    public CompletableFuture<ScenarioResult> submit(final Scenario scenario,
+                                                    final int parallelTests,
+                                                    final long testLengthInMs,
+                                                    final int readerWorkerCount,
+                                                    final int writerWorkerCount,
+                                                    final Consumer<AbstractReaderWriterBase<?>> configurer) {
+
+        final List<AbstractReaderWriterBase<?>> tests = new ArrayList<>();
+        final CompletableFuture<?>[] testFutures = new CompletableFuture<?>[parallelTests];
+        final int permits = Math.min(this.threadBudget, (readerWorkerCount + writerWorkerCount));
+
+        for (int ctr = 0; ctr < parallelTests; ctr++) {
+
+            final AbstractReaderWriterBase<?> test = scenario.getBuilder().build(
+                    String.format("%s / Test #%d", scenario.getName(), (ctr + 1)), testLengthInMs);
+
+            configurer.accept(test);
+            test.setWorkerCounts(readerWorkerCount, writerWorkerCount);
+
+            tests.add(test);
+            this.submittedTestCount.incrementAndGet();
+            testFutures[ctr] = CompletableFuture.runAsync(
+                    () -> this.runTest(test, permits), this.executorService);
+        }
+
+        return CompletableFuture.allOf(testFutures)
+                .thenApply(ignored -> new ScenarioResult(scenario.getName(), tests));
+    }
+
+    /**
+     * Runs test within budget.
+     *
+     * @param test    Test.
+     * @param permits Worker thread permits.
+     */
+    private void runTest(final AbstractReaderWriterBase<?> test,
+                         final int permits) {
+
+        try {
+
+            this.threadPermits.acquire(permits);
+
+        } catch (final InterruptedException ex) {
+
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        this.runningTests.add(test);
+
+        try {
+
+            test.run();
+
+        } finally {
+
+            this.runningTests.remove(test);
+            this.completedOpCount.add(test.getTotalOps());
+            this.completedBarrierTripCount.add(test.getBarrierTripCount());
+            this.completedViolationCount.add(test.getViolationCount());
+            this.completedTestCount.incrementAndGet();
+
+            this.threadPermits.release(permits);
+        }
+    }
+
+    /**
+     * Stops accepting tests, and unregisters from JMX; running tests complete.
+     */
+    @Override
+    public void close() {
+
+        this.executorService.shutdown();
+        ManagementSupport.unregister(this.objectName);
+    }
+}
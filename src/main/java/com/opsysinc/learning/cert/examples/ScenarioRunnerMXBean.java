@@ -0,0 +1,79 @@
+package com.opsysinc.learning.cert.examples;
+
+/**
+ * Live runner metrics, registered over JMX while a runner is open.
+ * <p/>
+ * Totals include running tests' live (approximate) figures.
+ */
+public interface ScenarioRunnerMXBean {
+
+    /**
+     * Gets worker thread budget.
+     *
+     * @return Thread budget.
+     */
+    int getThreadBudget();
+
+    /**
+     * Gets worker thread permits not held by running tests.
+     *
+     * @return Available permits.
+     */
+    int getAvailableThreadPermits();
+
+    /**
+     * Gets tests submitted.
+     *
+     * @return Submitted test count.
+     */
+    int getSubmittedTestCount();
+
+    /**
+     * Gets tests completed.
+     *
+     * @return Completed test count.
+     */
+    int getCompletedTestCount();
+
+    /**
+     * Gets running tests' ids.
+     *
+     * @return Test ids.
+     */
+    String[] getRunningTests();
+
+    /**
+     * Gets completed worker operations, across tests.
+     *
+     * @return Op count.
+     */
+    long getOpCount();
+
+    /**
+     * Gets completed worker operations per second, since the runner opened.
+     *
+     * @return Ops/sec.
+     */
+    double getOpsPerSec();
+
+    /**
+     * Gets work barrier trips, across tests.
+     *
+     * @return Trip count.
+     */
+    long getBarrierTripCount();
+
+    /**
+     * Gets violations detected, across tests.
+     *
+     * @return Violation count.
+     */
+    long getViolationCount();
+
+    /**
+     * Gets live worker threads, across running tests.
+     *
+     * @return Active worker count.
+     */
+    int getActiveWorkerCount();
+}
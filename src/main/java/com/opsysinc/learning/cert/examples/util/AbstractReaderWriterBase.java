@@ -0,0 +1,2104 @@
+package com.opsysinc.learning.cert.examples.util;
+
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reader/writer base capabilities, independent of sample type.
+ * <p/>
+ * Owns worker threads, the work barrier and the free-running verifier; sample
+ * storage and checking live in typed subclasses (ReaderWriterBase, boxed, and
+ * IntReaderWriterBase). While running, each instance is registered over JMX (see
+ * ReaderWriterBaseMXBean).
+ * <p/>
+ * As scenario tests, rule modules' subclasses run (see run()) with the worker
+ * counts set here.
+ */
+public abstract class AbstractReaderWriterBase<W extends AbstractReaderWriterBase.AbstractReaderWriterWorker>
+        implements ReaderWriterBaseMXBean, Runnable {
+
+    /**
+     * Default writer workers.
+     */
+    public static final int DEFAULT_WRITER_WORKERS = 10;
+
+    /**
+     * Default reader workers.
+     */
+    public static final int DEFAULT_READER_WORKERS = 10;
+
+    /**
+     * Verify interval in MS (free-running mode).
+     */
+    private static final long VERIFY_INTERVAL_IN_MS = 1L;
+
+    /**
+     * Reader workers, per run.
+     */
+    private int readerWorkerCount;
+
+    /**
+     * Writer workers, per run.
+     */
+    private int writerWorkerCount;
+
+    /**
+     * Worker threads (volatile for JMX readers).
+     */
+    private volatile List<Thread> workerThreads;
+
+    /**
+     * Verifier thread (free-running mode; volatile for stopping threads).
+     */
+    private volatile Thread verifierThread;
+
+    /**
+     * Run mode.
+     */
+    private RunMode runMode;
+
+    /**
+     * Worker thread mode.
+     */
+    private ThreadMode workerThreadMode;
+
+    /**
+     * Memory layout, for worker and shared state.
+     */
+    private MemoryLayout memoryLayout;
+
+    /**
+     * Wait strategy, between lockstep iterations.
+     */
+    private WaitStrategy waitStrategy;
+
+    /**
+     * Work barrier kind (lockstep mode).
+     */
+    private WorkBarrier.Kind workBarrierKind;
+
+    /**
+     * Work barrier, or null if free-running.
+     */
+    private WorkBarrier workBarrier;
+
+    /**
+     * runImpl() calls per JFR RunImpl event, per worker, or 0 if not sampling.
+     */
+    private int runImplSampleInterval;
+
+    /**
+     * Sample journal capacity per worker, or 0 if not journaling.
+     */
+    private int journalCapacity;
+
+    /**
+     * Sample journal dump directory.
+     */
+    private Path journalDirectory;
+
+    /**
+     * Last sample journal dump, or null if none.
+     */
+    private Path journalFile;
+
+    /**
+     * Shutdown hook dumping sample journals if the JVM exits mid-run, or null if none.
+     */
+    private Thread journalShutdownHook;
+
+    /**
+     * Stopping rule, or null if none.
+     */
+    private StoppingRule stoppingRule;
+
+    /**
+     * Completes with why I stopped (renewed at start up, once completed).
+     */
+    private volatile CompletableFuture<StopReason> completion;
+
+    /**
+     * Checks (barrier trips, or verifier passes) without violations (only updated by the checking thread).
+     */
+    private long cleanCheckCount;
+
+    /**
+     * Violations detected.
+     */
+    private final AtomicInteger violationCount;
+
+    /**
+     * Completed worker operations, totaled at clean up.
+     */
+    private long totalOps;
+
+    /**
+     * Work barrier trips (only updated by the tripping thread; volatile for JMX readers).
+     */
+    private volatile long barrierTripCount;
+
+    /**
+     * Start time in NS.
+     */
+    private long startTimeInNs;
+
+    /**
+     * Run time in NS, set at clean up.
+     */
+    private long runTimeInNs;
+
+    /**
+     * True from start up until totals are set at clean up, false otherwise.
+     */
+    private volatile boolean isRunning;
+
+    /**
+     * JMX registration, or null if not registered.
+     */
+    private ObjectName objectName;
+
+    /**
+     * Violation report, preallocated at start up (null until then).
+     */
+    private ViolationReport violationReport;
+
+    /**
+     * True if recording latency, false otherwise.
+     */
+    private boolean isRecordingLatency;
+
+    /**
+     * Reader runImpl() latency, merged at clean up.
+     */
+    private final LatencyHistogram readerRunLatency;
+
+    /**
+     * Reader barrier wait latency, merged at clean up.
+     */
+    private final LatencyHistogram readerWaitLatency;
+
+    /**
+     * Writer runImpl() latency, merged at clean up.
+     */
+    private final LatencyHistogram writerRunLatency;
+
+    /**
+     * Writer barrier wait latency, merged at clean up.
+     */
+    private final LatencyHistogram writerWaitLatency;
+
+    /**
+     * True if recording reader staleness, false otherwise.
+     */
+    private boolean isRecordingStaleness;
+
+    /**
+     * Reader staleness, in writes, merged at clean up.
+     */
+    private final LatencyHistogram readerValueLag;
+
+    /**
+     * Reader staleness, in ns, merged at clean up.
+     */
+    private final LatencyHistogram readerTimeLag;
+
+    /**
+     * True if profiling contention, false otherwise.
+     */
+    private boolean isProfilingContention;
+
+    /**
+     * Reader contention, merged at clean up.
+     */
+    private final ContentionProfile readerContention;
+
+    /**
+     * Writer contention, merged at clean up.
+     */
+    private final ContentionProfile writerContention;
+
+    /**
+     * True if profiling allocation, false otherwise.
+     */
+    private boolean isProfilingAllocation;
+
+    /**
+     * Reader runImpl() allocation, merged at clean up.
+     */
+    private final AllocationProfile readerAllocation;
+
+    /**
+     * Writer runImpl() allocation, merged at clean up.
+     */
+    private final AllocationProfile writerAllocation;
+
+    /**
+     * Check (barrier action or verifier pass) allocation. Written by one thread at a
+     * time: each trip's last to arrive, or the verifier.
+     */
+    private final AllocationProfile checkAllocation;
+
+    /**
+     * Reader workers.
+     */
+    private List<W> readerWorkers;
+
+    /**
+     * Writer workers.
+     */
+    private List<W> writerWorkers;
+
+    /**
+     * All workers (writers, then readers).
+     */
+    private List<W> allWorkers;
+
+    /**
+     * My id.
+     */
+    private final String id;
+
+    /**
+     * Basic ctor.
+     *
+     * @param id My id.
+     */
+    public AbstractReaderWriterBase(final String id) {
+
+        this.id = id;
+        this.readerWorkerCount = AbstractReaderWriterBase.DEFAULT_READER_WORKERS;
+        this.writerWorkerCount = AbstractReaderWriterBase.DEFAULT_WRITER_WORKERS;
+        this.runMode = RunMode.LOCKSTEP;
+        this.workerThreadMode = ThreadMode.PLATFORM;
+        this.memoryLayout = MemoryLayout.COMPACT;
+        this.waitStrategy = WaitStrategy.Kind.SLEEP.build(WaitStrategy.DEFAULT_PERIOD_IN_NS);
+        this.workBarrierKind = WorkBarrier.Kind.CYCLIC;
+        this.violationCount = new AtomicInteger(0);
+        this.completion = new CompletableFuture<>();
+
+        this.readerRunLatency = new LatencyHistogram();
+        this.readerWaitLatency = new LatencyHistogram();
+        this.writerRunLatency = new LatencyHistogram();
+        this.writerWaitLatency = new LatencyHistogram();
+        this.readerValueLag = new LatencyHistogram();
+        this.readerTimeLag = new LatencyHistogram();
+        this.readerContention = new ContentionProfile();
+        this.writerContention = new ContentionProfile();
+        this.readerAllocation = new AllocationProfile();
+        this.writerAllocation = new AllocationProfile();
+        this.checkAllocation = new AllocationProfile();
+    }
+
+    /**
+     * Gets my id.
+     *
+     * @return My id.
+     */
+    public String getId() {
+
+        return this.id;
+    }
+
+    /**
+     * Gets run mode.
+     *
+     * @return Run mode.
+     */
+    public RunMode getRunMode() {
+
+        return this.runMode;
+    }
+
+    /**
+     * Sets run mode. Takes effect at next start up.
+     *
+     * @param runMode Run mode.
+     */
+    public void setRunMode(final RunMode runMode) {
+
+        this.runMode = runMode;
+    }
+
+    /**
+     * Gets worker thread mode.
+     *
+     * @return Worker thread mode.
+     */
+    public ThreadMode getWorkerThreadMode() {
+
+        return this.workerThreadMode;
+    }
+
+    /**
+     * Sets worker thread mode. Takes effect at next start up.
+     *
+     * @param workerThreadMode Worker thread mode.
+     */
+    public void setWorkerThreadMode(final ThreadMode workerThreadMode) {
+
+        this.workerThreadMode = workerThreadMode;
+    }
+
+    /**
+     * Gets memory layout.
+     *
+     * @return Memory layout.
+     */
+    public MemoryLayout getMemoryLayout() {
+
+        return this.memoryLayout;
+    }
+
+    /**
+     * Sets memory layout, for worker and shared state. Takes effect at next start up.
+     *
+     * @param memoryLayout Memory layout.
+     */
+    public void setMemoryLayout(final MemoryLayout memoryLayout) {
+
+        this.memoryLayout = memoryLayout;
+    }
+
+    /**
+     * Gets wait strategy.
+     *
+     * @return Wait strategy.
+     */
+    public WaitStrategy getWaitStrategy() {
+
+        return this.waitStrategy;
+    }
+
+    /**
+     * Sets wait strategy, between lockstep iterations. Takes effect at next start up.
+     *
+     * @param waitStrategy Wait strategy.
+     */
+    public void setWaitStrategy(final WaitStrategy waitStrategy) {
+
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Gets work barrier kind.
+     *
+     * @return Work barrier kind.
+     */
+    public WorkBarrier.Kind getWorkBarrierKind() {
+
+        return this.workBarrierKind;
+    }
+
+    /**
+     * Sets work barrier kind (lockstep mode). Takes effect at next start up.
+     *
+     * @param workBarrierKind Work barrier kind.
+     */
+    public void setWorkBarrierKind(final WorkBarrier.Kind workBarrierKind) {
+
+        this.workBarrierKind = workBarrierKind;
+    }
+
+    /**
+     * Gets runImpl() JFR sample interval.
+     *
+     * @return runImpl() calls per event, per worker, or 0 if not sampling.
+     */
+    public int getRunImplSampleInterval() {
+
+        return this.runImplSampleInterval;
+    }
+
+    /**
+     * Sets runImpl() JFR sample interval. Takes effect at next start up.
+     * <p/>
+     * Every Nth runImpl() call per worker is timed as a JFR RunImpl event (if
+     * that event is enabled in the recording).
+     *
+     * @param runImplSampleInterval runImpl() calls per event, per worker, or 0 if not sampling.
+     */
+    public void setRunImplSampleInterval(final int runImplSampleInterval) {
+
+        if (runImplSampleInterval < 0) {
+
+            throw new IllegalArgumentException(String.format(
+                    "Invalid runImpl() sample interval (runImplSampleInterval=%d).", runImplSampleInterval));
+        }
+
+        this.runImplSampleInterval = runImplSampleInterval;
+    }
+
+    /**
+     * Gets stopping rule.
+     *
+     * @return Stopping rule, or null if none.
+     */
+    public StoppingRule getStoppingRule() {
+
+        return this.stoppingRule;
+    }
+
+    /**
+     * Sets stopping rule. Takes effect at next start up.
+     *
+     * @param stoppingRule Stopping rule, or null if none.
+     */
+    public void setStoppingRule(final StoppingRule stoppingRule) {
+
+        this.stoppingRule = stoppingRule;
+    }
+
+    /**
+     * Gets completion: completes with why I stopped, on violation, stopping rule,
+     * timeout (see awaitStop()) or clean up, whichever comes first.
+     *
+     * @return Completion (a copy; completing it has no effect on me).
+     */
+    public CompletableFuture<StopReason> getCompletion() {
+
+        return this.completion.copy();
+    }
+
+    /**
+     * Gets why I stopped.
+     *
+     * @return Stop reason, or null if not stopped.
+     */
+    public StopReason getStopReason() {
+
+        return this.completion.getNow(null);
+    }
+
+    /**
+     * Gets checks (barrier trips, or verifier passes) without violations.
+     *
+     * @return Clean check count.
+     */
+    public long getCleanCheckCount() {
+
+        return this.cleanCheckCount;
+    }
+
+    /**
+     * Stops workers, if not already stopped; clean up still required.
+     * <p/>
+     * Safe from any thread, including workers and the verifier.
+     *
+     * @param stopReason Why.
+     */
+    public void stop(final StopReason stopReason) {
+
+        if (this.completion.complete(stopReason)) {
+
+            final List<Thread> workerThreads = this.workerThreads;
+            final Thread verifierThread = this.verifierThread;
+
+            if (workerThreads != null) {
+
+                for (final Thread item : workerThreads) {
+
+                    item.interrupt();
+                }
+            }
+
+            if (verifierThread != null) {
+
+                verifierThread.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Awaits stop, stopping on timeout.
+     *
+     * @param timeoutInMs Timeout in MS (e.g., test length).
+     * @return Why I stopped.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public StopReason awaitStop(final long timeoutInMs) throws InterruptedException {
+
+        try {
+
+            return this.completion.get(timeoutInMs, TimeUnit.MILLISECONDS);
+
+        } catch (final TimeoutException ex) {
+
+            this.stop(StopReason.TIMEOUT);
+            return this.completion.join();
+
+        } catch (final ExecutionException ex) {
+
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Gets sample journal capacity per worker.
+     *
+     * @return Journal capacity, or 0 if not journaling.
+     */
+    public int getJournalCapacity() {
+
+        return this.journalCapacity;
+    }
+
+    /**
+     * Sets sample journaling. Takes effect at next start up.
+     * <p/>
+     * Each worker records its samples, timestamped, into its own ring buffer;
+     * the buffers are dumped to one file in the directory at clean up, or, best
+     * effort, by a shutdown hook if the JVM exits (e.g., is interrupted) mid-run.
+     *
+     * @param journalCapacity  Journal capacity per worker, in samples, or 0 if not journaling.
+     * @param journalDirectory Journal dump directory.
+     */
+    public void setJournal(final int journalCapacity,
+                           final Path journalDirectory) {
+
+        if ((journalCapacity < 0) ||
+                ((journalCapacity > 0) && (journalDirectory == null))) {
+
+            throw new IllegalArgumentException(String.format(
+                    "Invalid journal (capacity=%d, directory=%s).", journalCapacity, journalDirectory));
+        }
+
+        this.journalCapacity = journalCapacity;
+        this.journalDirectory = journalDirectory;
+    }
+
+    /**
+     * Gets last sample journal dump.
+     *
+     * @return Journal file, or null if none.
+     */
+    public Path getJournalFile() {
+
+        return this.journalFile;
+    }
+
+    /**
+     * Gets violations detected.
+     *
+     * @return Violation count.
+     */
+    public int getViolationCount() {
+
+        return this.violationCount.get();
+    }
+
+    /**
+     * Gets completed worker operations, totaled at clean up.
+     *
+     * @return Total ops.
+     */
+    public long getTotalOps() {
+
+        return this.totalOps;
+    }
+
+    /**
+     * Gets work barrier trips (lockstep mode). Safe to read after clean up.
+     *
+     * @return Barrier trip count.
+     */
+    public long getBarrierTripCount() {
+
+        return this.barrierTripCount;
+    }
+
+    @Override
+    public long getOpCount() {
+
+        if (this.isRunning) {
+
+            long result = 0L;
+
+            for (final W item : this.allWorkers) {
+
+                result += item.getOpCount();
+            }
+
+            return result;
+        }
+
+        return this.totalOps;
+    }
+
+    @Override
+    public double getOpsPerSec() {
+
+        final long elapsedTimeInMs = this.getElapsedTimeInMs();
+
+        return ((elapsedTimeInMs > 0L) ? ((this.getOpCount() * 1000.0) / elapsedTimeInMs) : 0.0);
+    }
+
+    @Override
+    public double getTripsPerSec() {
+
+        final long elapsedTimeInMs = this.getElapsedTimeInMs();
+
+        return ((elapsedTimeInMs > 0L) ? ((this.barrierTripCount * 1000.0) / elapsedTimeInMs) : 0.0);
+    }
+
+    @Override
+    public int getActiveWorkerCount() {
+
+        final List<Thread> workerThreads = this.workerThreads;
+        int result = 0;
+
+        if (workerThreads != null) {
+
+            for (final Thread item : workerThreads) {
+
+                if (item.isAlive()) {
+
+                    result++;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public long getElapsedTimeInMs() {
+
+        return ((this.isRunning ? (System.nanoTime() - this.startTimeInNs) : this.runTimeInNs) / 1000000L);
+    }
+
+    /**
+     * Sets worker counts. Takes effect at next run.
+     *
+     * @param readerWorkerCount Reader workers.
+     * @param writerWorkerCount Writer workers.
+     */
+    public void setWorkerCounts(final int readerWorkerCount,
+                                final int writerWorkerCount) {
+
+        if ((readerWorkerCount < 0) ||
+                (writerWorkerCount < 1)) {
+
+            throw new IllegalArgumentException(String.format(
+                    "Invalid worker counts (readers=%d, writers=%d).", readerWorkerCount, writerWorkerCount));
+        }
+
+        this.readerWorkerCount = readerWorkerCount;
+        this.writerWorkerCount = writerWorkerCount;
+    }
+
+    /**
+     * Gets reader worker count.
+     *
+     * @return Reader workers.
+     */
+    public int getReaderWorkerCount() {
+
+        return this.readerWorkerCount;
+    }
+
+    /**
+     * Gets writer worker count.
+     *
+     * @return Writer workers.
+     */
+    public int getWriterWorkerCount() {
+
+        return this.writerWorkerCount;
+    }
+
+    /**
+     * Gets start time in NS (System.nanoTime()), set at start up.
+     *
+     * @return Start time in NS.
+     */
+    public long getStartTimeInNs() {
+
+        return this.startTimeInNs;
+    }
+
+    /**
+     * Gets run time in NS, set at clean up.
+     *
+     * @return Run time in NS.
+     */
+    public long getRunTimeInNs() {
+
+        return this.runTimeInNs;
+    }
+
+    /**
+     * Gets recording latency flag.
+     *
+     * @return True if recording latency, false otherwise.
+     */
+    public boolean isRecordingLatency() {
+
+        return this.isRecordingLatency;
+    }
+
+    /**
+     * Sets recording latency flag. Takes effect at next start up.
+     *
+     * @param isRecordingLatency True if recording latency, false otherwise.
+     */
+    public void setRecordingLatency(final boolean isRecordingLatency) {
+
+        this.isRecordingLatency = isRecordingLatency;
+    }
+
+    /**
+     * Gets reader runImpl() latency (ns), merged at clean up.
+     *
+     * @return Reader run latency.
+     */
+    public LatencyHistogram getReaderRunLatency() {
+
+        return this.readerRunLatency;
+    }
+
+    /**
+     * Gets reader barrier wait latency (ns), merged at clean up.
+     *
+     * @return Reader wait latency.
+     */
+    public LatencyHistogram getReaderWaitLatency() {
+
+        return this.readerWaitLatency;
+    }
+
+    /**
+     * Gets writer runImpl() latency (ns), merged at clean up.
+     *
+     * @return Writer run latency.
+     */
+    public LatencyHistogram getWriterRunLatency() {
+
+        return this.writerRunLatency;
+    }
+
+    /**
+     * Gets writer barrier wait latency (ns), merged at clean up.
+     *
+     * @return Writer wait latency.
+     */
+    public LatencyHistogram getWriterWaitLatency() {
+
+        return this.writerWaitLatency;
+    }
+
+    /**
+     * Gets recording staleness flag.
+     *
+     * @return True if recording reader staleness, false otherwise.
+     */
+    public boolean isRecordingStaleness() {
+
+        return this.isRecordingStaleness;
+    }
+
+    /**
+     * Sets recording staleness flag. Takes effect at next start up.
+     * <p/>
+     * At each barrier trip (lockstep mode), each reader's sample is compared with
+     * the writes that preceded it: how many writes it missed, and for how long the
+     * first of them had been written.
+     *
+     * @param isRecordingStaleness True if recording reader staleness, false otherwise.
+     */
+    public void setRecordingStaleness(final boolean isRecordingStaleness) {
+
+        this.isRecordingStaleness = isRecordingStaleness;
+    }
+
+    /**
+     * Gets reader staleness, in writes missed, merged at clean up.
+     *
+     * @return Reader value lag.
+     */
+    public LatencyHistogram getReaderValueLag() {
+
+        return this.readerValueLag;
+    }
+
+    /**
+     * Gets reader staleness, in ns since the first missed write, merged at clean up.
+     *
+     * @return Reader time lag.
+     */
+    public LatencyHistogram getReaderTimeLag() {
+
+        return this.readerTimeLag;
+    }
+
+    /**
+     * Gets profiling contention flag.
+     *
+     * @return True if profiling contention, false otherwise.
+     */
+    public boolean isProfilingContention() {
+
+        return this.isProfilingContention;
+    }
+
+    /**
+     * Sets profiling contention flag. Takes effect at next start up.
+     * <p/>
+     * Enables JVM-wide thread contention monitoring, then each worker's blocked and
+     * waited figures (and CAS retries, where counted) are taken over its run, then
+     * printed per worker and merged at clean up.
+     *
+     * @param isProfilingContention True if profiling contention, false otherwise.
+     */
+    public void setProfilingContention(final boolean isProfilingContention) {
+
+        this.isProfilingContention = isProfilingContention;
+    }
+
+    /**
+     * Gets reader contention, merged at clean up.
+     *
+     * @return Reader contention.
+     */
+    public ContentionProfile getReaderContention() {
+
+        return this.readerContention;
+    }
+
+    /**
+     * Gets writer contention, merged at clean up.
+     *
+     * @return Writer contention.
+     */
+    public ContentionProfile getWriterContention() {
+
+        return this.writerContention;
+    }
+
+    /**
+     * Gets profiling allocation flag.
+     *
+     * @return True if profiling allocation, false otherwise.
+     */
+    public boolean isProfilingAllocation() {
+
+        return this.isProfilingAllocation;
+    }
+
+    /**
+     * Sets profiling allocation flag. Takes effect at next start up.
+     * <p/>
+     * Enables JVM-wide thread allocation counting, then bytes allocated are taken
+     * around each worker's runImpl() and each check (barrier action or verifier
+     * pass), and merged at clean up.
+     *
+     * @param isProfilingAllocation True if profiling allocation, false otherwise.
+     */
+    public void setProfilingAllocation(final boolean isProfilingAllocation) {
+
+        this.isProfilingAllocation = isProfilingAllocation;
+    }
+
+    /**
+     * Gets reader runImpl() allocation, merged at clean up.
+     *
+     * @return Reader allocation.
+     */
+    public AllocationProfile getReaderAllocation() {
+
+        return this.readerAllocation;
+    }
+
+    /**
+     * Gets writer runImpl() allocation, merged at clean up.
+     *
+     * @return Writer allocation.
+     */
+    public AllocationProfile getWriterAllocation() {
+
+        return this.writerAllocation;
+    }
+
+    /**
+     * Gets check (barrier action or verifier pass) allocation.
+     *
+     * @return Check allocation.
+     */
+    public AllocationProfile getCheckAllocation() {
+
+        return this.checkAllocation;
+    }
+
+    /**
+     * Start up.
+     *
+     * @param readerWorkers Readers.
+     * @param writerWorkers Writers.
+     */
+    public void startUp(final List<W> readerWorkers,
+                        final List<W> writerWorkers) {
+
+        if (this.workerThreads == null) {
+
+            if (this.completion.isDone()) {
+
+                this.completion = new CompletableFuture<>();
+            }
+
+            this.cleanCheckCount = 0L;
+            this.readerWorkers = readerWorkers;
+            this.writerWorkers = writerWorkers;
+
+            final List<W> allWorkers = new ArrayList<>(readerWorkers.size() + writerWorkers.size());
+
+            allWorkers.addAll(writerWorkers);
+            allWorkers.addAll(readerWorkers);
+
+            this.allWorkers = Collections.unmodifiableList(allWorkers);
+
+            final int totalWorkers = allWorkers.size();
+
+            this.violationReport = new ViolationReport(this.id, totalWorkers);
+            final boolean isFreeRunning = (this.runMode == RunMode.FREE_RUNNING);
+
+            final CountDownLatch startUpLatch = new CountDownLatch(totalWorkers + 1);
+            final WorkBarrier workerBarrier = (isFreeRunning ? null : this.workBarrierKind.build(totalWorkers,
+                    this::reduceBarrierValues, new Runnable() {
+
+                        @Override
+                        public void run() {
+
+                            AbstractReaderWriterBase.this.tripBarrier();
+                        }
+                    }));
+
+            this.workBarrier = workerBarrier;
+
+            final ThreadFactory workerThreadFactory = this.workerThreadMode.newThreadFactory();
+
+            if (this.isProfilingContention) {
+
+                ContentionProfile.enableMonitoring();
+            }
+
+            if (this.isProfilingAllocation) {
+
+                AllocationProfile.enableMonitoring();
+            }
+
+            this.workerThreads = new ArrayList<>();
+
+            int participant = 0;
+
+            for (final W item : readerWorkers) {
+
+                item.setStartUpLatch(startUpLatch);
+                item.setWorkBarrier(workerBarrier, participant++);
+                item.setFreeRunning(isFreeRunning);
+                item.setRecordingLatency(this.isRecordingLatency);
+                item.setRecordingStaleness(this.isRecordingStaleness);
+                item.setProfilingContention(this.isProfilingContention);
+                item.setProfilingAllocation(this.isProfilingAllocation);
+                item.setMemoryLayout(this.memoryLayout);
+                item.setWaitStrategy(this.waitStrategy);
+                item.setJournalCapacity(this.journalCapacity);
+                item.setRunImplSampleInterval(this.runImplSampleInterval);
+
+                final Thread readerThread = workerThreadFactory.newThread(item);
+
+                readerThread.start();
+
+                this.workerThreads.add(readerThread);
+            }
+
+            for (final W item : writerWorkers) {
+
+                item.setStartUpLatch(startUpLatch);
+                item.setWorkBarrier(workerBarrier, participant++);
+                item.setFreeRunning(isFreeRunning);
+                item.setRecordingLatency(this.isRecordingLatency);
+                item.setRecordingStaleness(this.isRecordingStaleness);
+                item.setProfilingContention(this.isProfilingContention);
+                item.setProfilingAllocation(this.isProfilingAllocation);
+                item.setMemoryLayout(this.memoryLayout);
+                item.setWaitStrategy(this.waitStrategy);
+                item.setJournalCapacity(this.journalCapacity);
+                item.setRunImplSampleInterval(this.runImplSampleInterval);
+
+                final Thread writerThread = workerThreadFactory.newThread(item);
+
+                writerThread.start();
+
+                this.workerThreads.add(writerThread);
+            }
+
+            if (isFreeRunning) {
+
+                this.verifierThread = new Thread(new Runnable() {
+
+                    @Override
+                    public void run() {
+
+                        try {
+
+                            while (!Thread.interrupted()) {
+
+                                Thread.sleep(AbstractReaderWriterBase.VERIFY_INTERVAL_IN_MS);
+                                AbstractReaderWriterBase.this.verifyPass();
+                            }
+
+                        } catch (final InterruptedException ex) {
+
+                            // ignore;
+                        }
+                    }
+                });
+
+                this.verifierThread.setDaemon(true);
+                this.verifierThread.start();
+            }
+
+            this.startTimeInNs = System.nanoTime();
+            this.isRunning = true;
+
+            if (this.journalCapacity > 0) {
+
+                this.journalShutdownHook = new Thread(new Runnable() {
+
+                    @Override
+                    public void run() {
+
+                        AbstractReaderWriterBase.this.writeJournal();
+
+                        // violations already print the dump;
+                        if ((AbstractReaderWriterBase.this.journalFile != null) &&
+                                (AbstractReaderWriterBase.this.violationCount.get() == 0)) {
+
+                            System.out.println(String.format("%s - journal (at exit): %s",
+                                    AbstractReaderWriterBase.this.id, AbstractReaderWriterBase.this.journalFile));
+                        }
+                    }
+                }, (this.id + "-journal"));
+
+                Runtime.getRuntime().addShutdownHook(this.journalShutdownHook);
+            }
+            this.objectName = ManagementSupport.register("Test", this.id, this);
+
+            startUpLatch.countDown();
+        }
+    }
+
+    /**
+     * Barrier action: counts the trip and checks workers (lockstep mode).
+     */
+    private void tripBarrier() {
+
+        final BarrierTripEvent event = new BarrierTripEvent();
+        final int prevViolationCount = this.violationCount.get();
+        final long startBytes = (this.isProfilingAllocation ? AllocationProfile.currentThreadAllocatedBytes() : -1L);
+
+        event.begin();
+
+        try {
+
+            this.barrierTripCount++;
+            this.checkWorkers();
+            this.countCheck(prevViolationCount);
+
+        } catch (final InterruptedException ex) {
+
+            // ignore;
+
+        } finally {
+
+            if (this.isProfilingAllocation) {
+
+                this.checkAllocation.record(startBytes, AllocationProfile.currentThreadAllocatedBytes());
+            }
+
+            if (event.shouldCommit()) {
+
+                event.testId = this.id;
+                event.tripCount = this.barrierTripCount;
+                event.isViolation = (this.violationCount.get() != prevViolationCount);
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Verifier pass over workers (free-running mode).
+     */
+    private void verifyPass() throws InterruptedException {
+
+        final VerifyWorkersEvent event = new VerifyWorkersEvent();
+        final int prevViolationCount = this.violationCount.get();
+        final long startBytes = (this.isProfilingAllocation ? AllocationProfile.currentThreadAllocatedBytes() : -1L);
+
+        event.begin();
+
+        try {
+
+            this.verifyWorkers();
+            this.countCheck(prevViolationCount);
+
+        } finally {
+
+            if (this.isProfilingAllocation) {
+
+                this.checkAllocation.record(startBytes, AllocationProfile.currentThreadAllocatedBytes());
+            }
+
+            if (event.shouldCommit()) {
+
+                event.testId = this.id;
+                event.isViolation = (this.violationCount.get() != prevViolationCount);
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Counts a completed check, stopping if it was clean and satisfies the stopping rule.
+     *
+     * @param prevViolationCount Violation count before the check.
+     */
+    private void countCheck(final int prevViolationCount) {
+
+        if (this.violationCount.get() == prevViolationCount) {
+
+            this.cleanCheckCount++;
+
+            if ((this.stoppingRule != null) &&
+                    this.stoppingRule.isSatisfied(this.cleanCheckCount)) {
+
+                this.stop(StopReason.STOPPING_RULE);
+            }
+        }
+    }
+
+    /**
+     * Checks workers, while all are held at the work barrier (lockstep mode).
+     */
+    protected abstract void checkWorkers() throws InterruptedException;
+
+    /**
+     * Reduces two workers' barrier values (see AbstractReaderWriterWorker.getBarrierValue()),
+     * as they arrive at the work barrier.
+     *
+     * @param left  Left value.
+     * @param right Right value.
+     * @return Reduced value (default: the higher).
+     */
+    protected long reduceBarrierValues(final long left,
+                                       final long right) {
+
+        return Math.max(left, right);
+    }
+
+    /**
+     * Gets workers' reduced barrier values, this trip (checkWorkers() only).
+     *
+     * @return Reduced value, or WorkBarrier.NO_VALUE if none.
+     */
+    protected long getBarrierValue() {
+
+        return this.workBarrier.getReducedValue();
+    }
+
+    /**
+     * Verifies workers without stopping them (free-running mode).
+     * <p/>
+     * Each worker's latest published sample is compared with the one seen on the
+     * previous pass; as the shared value only ever increases, a lower sample means
+     * that worker saw it go backwards.
+     */
+    protected abstract void verifyWorkers() throws InterruptedException;
+
+    /**
+     * Checks writer totals once workers have stopped (free-running mode).
+     * <p/>
+     * Every write is one increment, so the highest value written must match
+     * the total number of writes; any shortfall is lost updates.
+     */
+    protected abstract void checkWriterTotals();
+
+    /**
+     * Claims my violation report, for the checking thread to fill and submit to
+     * ViolationReporter.
+     *
+     * @param kind     Kind.
+     * @param workTime Check time in NS.
+     * @return Claimed report, or null if an earlier one is still pending (dropped).
+     */
+    ViolationReport claimViolationReport(final ViolationReport.Kind kind,
+                                         final long workTime) {
+
+        final ViolationReport report = this.violationReport;
+
+        if ((report != null) &&
+                report.tryClaim(kind, workTime)) {
+
+            return report;
+        }
+
+        ViolationReporter.countDropped();
+        return null;
+    }
+
+    /**
+     * Awaits my pending violation report, if any, so output stays in order.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private void awaitViolationReport() throws InterruptedException {
+
+        if (this.violationReport != null) {
+
+            this.violationReport.awaitRelease();
+        }
+    }
+
+    /**
+     * Records a detected violation, and stops. Values are primitives, so nothing is
+     * built unless the event is recorded.
+     *
+     * @param kind          Violation kind (e.g., "WRITERS OUT OF ORDER").
+     * @param expectedValue Expected value.
+     * @param actualValue   Actual value.
+     */
+    protected void recordViolation(final String kind,
+                                   final long expectedValue,
+                                   final long actualValue) {
+
+        this.violationCount.incrementAndGet();
+        this.stop(StopReason.VIOLATION);
+
+        final ViolationEvent event = new ViolationEvent();
+
+        if (event.shouldCommit()) {
+
+            event.testId = this.id;
+            event.kind = kind;
+            event.expectedValue = expectedValue;
+            event.actualValue = actualValue;
+            event.commit();
+        }
+    }
+
+    /**
+     * Clean up.
+     */
+    public void cleanUp() throws InterruptedException {
+
+        if (this.workerThreads != null) {
+
+            this.stop(StopReason.CLEAN_UP);
+
+            for (final Thread item : this.workerThreads) {
+
+                item.interrupt();
+            }
+
+            for (final Thread item : this.workerThreads) {
+
+                item.join();
+            }
+
+            this.workerThreads = null;
+            this.runTimeInNs = (System.nanoTime() - this.startTimeInNs);
+
+            for (final W item : this.allWorkers) {
+
+                this.totalOps += item.getOpCount();
+            }
+
+            this.isRunning = false;
+            this.mergeLatency();
+            this.mergeContention();
+            this.mergeAllocation();
+
+            if (this.verifierThread != null) {
+
+                this.verifierThread.interrupt();
+
+                if (this.verifierThread != Thread.currentThread()) {
+
+                    this.verifierThread.join();
+                }
+
+                this.verifierThread = null;
+                this.awaitViolationReport();
+                this.checkWriterTotals();
+            }
+
+            this.awaitViolationReport();
+
+            if (this.removeJournalShutdownHook()) {
+
+                this.writeJournal();
+            }
+
+            ManagementSupport.unregister(this.objectName);
+            this.objectName = null;
+        }
+    }
+
+    /**
+     * Removes journal shutdown hook, if any.
+     *
+     * @return True if removed (or none), false if the JVM is shutting down, so the hook
+     * dumps journals instead.
+     */
+    private boolean removeJournalShutdownHook() {
+
+        if (this.journalShutdownHook != null) {
+
+            try {
+
+                Runtime.getRuntime().removeShutdownHook(this.journalShutdownHook);
+
+            } catch (final IllegalStateException ex) {
+
+                return false;
+
+            } finally {
+
+                this.journalShutdownHook = null;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Dumps worker sample journals, if journaling (workers should be stopped; if
+     * not, as in the shutdown hook, their latest samples may be torn or missing).
+     */
+    private void writeJournal() {
+
+        if (this.journalCapacity > 0) {
+
+            try {
+
+                this.journalFile = SampleJournalFile.write(this.journalDirectory,
+                        this.id, this.startTimeInNs, this.allWorkers);
+
+                if (this.violationCount.get() > 0) {
+
+                    synchronized (System.out) {
+
+                        System.out.println(String.format("%s - journal: %s", this.id, this.journalFile));
+                    }
+                }
+
+            } catch (final IOException ex) {
+
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Merges worker latency into my histograms (workers must be stopped).
+     */
+    private void mergeLatency() {
+
+        if (this.isRecordingLatency) {
+
+            for (final W item : this.allWorkers) {
+
+                if (item.isReader()) {
+
+                    this.readerRunLatency.add(item.getRunLatency());
+                    this.readerWaitLatency.add(item.getWaitLatency());
+
+                } else {
+
+                    this.writerRunLatency.add(item.getRunLatency());
+                    this.writerWaitLatency.add(item.getWaitLatency());
+                }
+            }
+        }
+
+        if (this.isRecordingStaleness) {
+
+            for (final W item : this.readerWorkers) {
+
+                this.readerValueLag.add(item.getValueLag());
+                this.readerTimeLag.add(item.getTimeLag());
+            }
+        }
+    }
+
+    /**
+     * Merges worker allocation into my profiles (workers must be stopped).
+     */
+    private void mergeAllocation() {
+
+        if (this.isProfilingAllocation) {
+
+            for (final W item : this.allWorkers) {
+
+                if (item.isReader()) {
+
+                    this.readerAllocation.add(item.getAllocation());
+
+                } else {
+
+                    this.writerAllocation.add(item.getAllocation());
+                }
+            }
+        }
+    }
+
+    /**
+     * Prints each worker's contention, then merges it into my profiles (workers
+     * must be stopped).
+     */
+    private void mergeContention() {
+
+        if (this.isProfilingContention) {
+
+            final StringBuilder report = new StringBuilder();
+            int readerCtr = 0;
+            int writerCtr = 0;
+
+            report.append(String.format("%s - contention:\n", this.id));
+            report.append(ContentionProfile.formatHeader("Worker")).append('\n');
+
+            for (final W item : this.allWorkers) {
+
+                if (item.isReader()) {
+
+                    this.readerContention.add(item.getContention());
+                    report.append(item.getContention().format(String.format("READER #%d", ++readerCtr)));
+
+                } else {
+
+                    this.writerContention.add(item.getContention());
+                    report.append(item.getContention().format(String.format("WRITER #%d", ++writerCtr)));
+                }
+
+                report.append('\n');
+            }
+
+            synchronized (System.out) {
+
+                System.out.print(report);
+            }
+        }
+    }
+
+    /**
+     * Gets reader workers.
+     *
+     * @return Reader workers.
+     */
+    protected List<W> getReaderWorkers() {
+
+        return this.readerWorkers;
+    }
+
+    /**
+     * Gets writer workers.
+     *
+     * @return Writer workers.
+     */
+    protected List<W> getWriterWorkers() {
+
+        return this.writerWorkers;
+    }
+
+    /**
+     * Gets all workers (writers, then readers).
+     *
+     * @return All workers.
+     */
+    protected List<W> getAllWorkers() {
+
+        return this.allWorkers;
+    }
+
+    /**
+     * Base worker class.
+     */
+    public abstract static class AbstractReaderWriterWorker implements Runnable {
+
+        /**
+         * True if reader, false otherwise.
+         */
+        private final boolean isReader;
+
+        /**
+         * Start up latch.
+         */
+        private CountDownLatch startUpLatch;
+
+        /**
+         * Work barrier
+         */
+        private WorkBarrier workBarrier;
+
+        /**
+         * Work barrier participant.
+         */
+        private int participant;
+
+        /**
+         * True if free-running, false otherwise.
+         */
+        private boolean isFreeRunning;
+
+        /**
+         * Wait strategy, between lockstep iterations.
+         */
+        private WaitStrategy waitStrategy;
+
+        /**
+         * Consecutive iterations I arrived at the work barrier ahead of others.
+         */
+        private int idleCount;
+
+        /**
+         * runImpl() calls per JFR RunImpl event, or 0 if not sampling.
+         */
+        private int runImplSampleInterval;
+
+        /**
+         * runImpl() calls until the next JFR RunImpl event.
+         */
+        private int runImplSampleCountdown;
+
+        /**
+         * runImpl() latency, or null if not recording.
+         */
+        private LatencyHistogram runLatency;
+
+        /**
+         * Barrier wait latency, or null if not recording.
+         */
+        private LatencyHistogram waitLatency;
+
+        /**
+         * Sample journal, or null if not journaling.
+         */
+        private SampleJournal journal;
+
+        /**
+         * True if recording staleness, false otherwise.
+         */
+        private boolean isRecordingStaleness;
+
+        /**
+         * Staleness in writes missed, or null if not recording (readers only).
+         */
+        private LatencyHistogram valueLag;
+
+        /**
+         * Staleness in ns since the first missed write, or null if not recording (readers only).
+         */
+        private LatencyHistogram timeLag;
+
+        /**
+         * Contention, or null if not profiling.
+         */
+        private ContentionProfile contention;
+
+        /**
+         * runImpl() allocation, or null if not profiling.
+         */
+        private AllocationProfile allocation;
+
+        /**
+         * Basic ctor.
+         *
+         * @param isReader True if reader, false otherwise.
+         */
+        public AbstractReaderWriterWorker(final boolean isReader) {
+
+            this.isReader = isReader;
+            this.waitStrategy = WaitStrategy.Kind.SLEEP.build(WaitStrategy.DEFAULT_PERIOD_IN_NS);
+        }
+
+        @Override
+        public void run() {
+
+            try {
+
+                this.startUpLatch.countDown();
+                this.startUpLatch.await();
+
+                if (this.contention != null) {
+
+                    this.contention.start();
+                }
+
+                if (this.isFreeRunning) {
+
+                    while (!Thread.interrupted()) {
+
+                        this.runTimed();
+                        this.countOp();
+                    }
+
+                } else {
+
+                    while (!Thread.interrupted()) {
+
+                        if (this.awaitTimed() == 0) {
+
+                            this.idleCount = 0;
+
+                        } else {
+
+                            this.idleCount++;
+                        }
+
+                        this.runTimed();
+                        this.countOp();
+
+                        this.pauseTimed();
+                    }
+                }
+
+            } catch (final InterruptedException |
+                    BrokenBarrierException ex) {
+
+                // ignore;
+
+            } catch (final Exception ex) {
+
+                ex.printStackTrace();
+
+            } finally {
+
+                if (this.contention != null) {
+
+                    this.contention.stop();
+                }
+            }
+        }
+
+        /**
+         * Runs implementation, recording latency and sampling JFR events if enabled.
+         */
+        private void runTimed() {
+
+            if ((this.runImplSampleInterval > 0) &&
+                    (--this.runImplSampleCountdown <= 0)) {
+
+                final RunImplEvent event = new RunImplEvent();
+
+                this.runImplSampleCountdown = this.runImplSampleInterval;
+                event.begin();
+
+                this.runRecorded();
+
+                if (event.shouldCommit()) {
+
+                    event.isReader = this.isReader;
+                    event.opCount = this.getOpCount();
+                    event.commit();
+                }
+
+            } else {
+
+                this.runRecorded();
+            }
+        }
+
+        /**
+         * Runs implementation, recording latency and allocation if enabled.
+         */
+        private void runRecorded() {
+
+            if ((this.runLatency == null) &&
+                    (this.allocation == null)) {
+
+                this.runImpl();
+
+            } else {
+
+                final long startBytes = ((this.allocation == null) ? -1L : AllocationProfile.currentThreadAllocatedBytes());
+                final long startTime = System.nanoTime();
+
+                this.runImpl();
+
+                final long endTime = System.nanoTime();
+
+                if (this.runLatency != null) {
+
+                    this.runLatency.record(endTime - startTime);
+                }
+
+                if (this.allocation != null) {
+
+                    this.allocation.record(startBytes, AllocationProfile.currentThreadAllocatedBytes());
+                }
+            }
+        }
+
+        /**
+         * Pauses per wait strategy, timing the pause if profiling contention and it
+         * blocked (so waited time can exclude it; spins and yields never count as
+         * waited).
+         */
+        private void pauseTimed() throws InterruptedException {
+
+            if (this.contention == null) {
+
+                this.waitStrategy.pause(this.idleCount);
+
+            } else {
+
+                final long startTime = System.nanoTime();
+
+                if (this.waitStrategy.pause(this.idleCount)) {
+
+                    this.contention.addPause(System.nanoTime() - startTime);
+                }
+            }
+        }
+
+        /**
+         * Awaits work barrier, recording latency if enabled.
+         *
+         * @return 0 if last to arrive, positive otherwise.
+         */
+        private int awaitTimed() throws InterruptedException, BrokenBarrierException {
+
+            if (this.waitLatency == null) {
+
+                return this.workBarrier.await(this.participant, this.getBarrierValue());
+
+            } else {
+
+                final long startTime = System.nanoTime();
+                final int arrivalIndex = this.workBarrier.await(this.participant, this.getBarrierValue());
+
+                this.waitLatency.record(System.nanoTime() - startTime);
+                return arrivalIndex;
+            }
+        }
+
+        /**
+         * Runs a single iteration, outside the latch/barrier loop.
+         * <p/>
+         * Used by benchmarks to measure the cost of runImpl() alone.
+         */
+        public void runOnce() {
+
+            this.runImpl();
+        }
+
+        /**
+         * Run implementation.
+         */
+        protected abstract void runImpl();
+
+        /**
+         * Gets is reader flag.
+         *
+         * @return True if reader, false otherwise.
+         */
+        public boolean isReader() {
+
+            return this.isReader;
+        }
+
+        /**
+         * Sets startup latch.
+         *
+         * @param startUpLatch Startup latch.
+         */
+        public void setStartUpLatch(final CountDownLatch startUpLatch) {
+
+            this.startUpLatch = startUpLatch;
+        }
+
+        /**
+         * Sets work barrier.
+         *
+         * @param workBarrier Work barrier.
+         * @param participant Work barrier participant.
+         */
+        public void setWorkBarrier(final WorkBarrier workBarrier,
+                                   final int participant) {
+
+            this.workBarrier = workBarrier;
+            this.participant = participant;
+        }
+
+        /**
+         * Gets value to contribute at the work barrier, for reduction (see
+         * reduceBarrierValues()).
+         *
+         * @return Value, or WorkBarrier.NO_VALUE if none (default).
+         */
+        protected long getBarrierValue() {
+
+            return WorkBarrier.NO_VALUE;
+        }
+
+        /**
+         * Counts a completed operation.
+         */
+        protected abstract void countOp();
+
+        /**
+         * Gets completed operation count.
+         *
+         * @return Op count.
+         */
+        public abstract long getOpCount();
+
+        /**
+         * Sets memory layout for my per-operation state. Default: ignored.
+         *
+         * @param memoryLayout Memory layout.
+         */
+        public void setMemoryLayout(final MemoryLayout memoryLayout) {
+
+            // ignore;
+        }
+
+        /**
+         * Gets free-running flag.
+         *
+         * @return True if free-running, false otherwise.
+         */
+        public boolean isFreeRunning() {
+
+            return this.isFreeRunning;
+        }
+
+        /**
+         * Sets recording latency flag, resetting any recorded latency.
+         *
+         * @param isRecordingLatency True if recording latency, false otherwise.
+         */
+        public void setRecordingLatency(final boolean isRecordingLatency) {
+
+            this.runLatency = (isRecordingLatency ? new LatencyHistogram() : null);
+            this.waitLatency = (isRecordingLatency ? new LatencyHistogram() : null);
+        }
+
+        /**
+         * Gets runImpl() latency (ns).
+         *
+         * @return Run latency, or null if not recording.
+         */
+        public LatencyHistogram getRunLatency() {
+
+            return this.runLatency;
+        }
+
+        /**
+         * Gets barrier wait latency (ns).
+         *
+         * @return Wait latency, or null if not recording.
+         */
+        public LatencyHistogram getWaitLatency() {
+
+            return this.waitLatency;
+        }
+
+        /**
+         * Sets profiling contention flag, resetting any profiled contention.
+         *
+         * @param isProfilingContention True if profiling contention, false otherwise.
+         */
+        public void setProfilingContention(final boolean isProfilingContention) {
+
+            this.contention = (isProfilingContention ? new ContentionProfile() : null);
+        }
+
+        /**
+         * Gets profiling contention flag.
+         *
+         * @return True if profiling contention (so retries are counted), false otherwise.
+         */
+        public boolean isProfilingContention() {
+
+            return (this.contention != null);
+        }
+
+        /**
+         * Gets contention.
+         *
+         * @return Contention, or null if not profiling.
+         */
+        public ContentionProfile getContention() {
+
+            return this.contention;
+        }
+
+        /**
+         * Sets profiling allocation flag, resetting any profiled allocation.
+         *
+         * @param isProfilingAllocation True if profiling allocation, false otherwise.
+         */
+        public void setProfilingAllocation(final boolean isProfilingAllocation) {
+
+            this.allocation = (isProfilingAllocation ? new AllocationProfile() : null);
+        }
+
+        /**
+         * Gets runImpl() allocation.
+         *
+         * @return Allocation, or null if not profiling.
+         */
+        public AllocationProfile getAllocation() {
+
+            return this.allocation;
+        }
+
+        /**
+         * Counts CAS (or optimistic read) retries, if profiling contention.
+         *
+         * @param retries Retries.
+         */
+        public void addRetries(final int retries) {
+
+            if (this.contention != null) {
+
+                this.contention.addRetries(retries);
+            }
+        }
+
+        /**
+         * Sets runImpl() JFR sample interval.
+         *
+         * @param runImplSampleInterval runImpl() calls per event, or 0 if not sampling.
+         */
+        public void setRunImplSampleInterval(final int runImplSampleInterval) {
+
+            this.runImplSampleInterval = runImplSampleInterval;
+            this.runImplSampleCountdown = runImplSampleInterval;
+        }
+
+        /**
+         * Sets recording staleness flag, resetting any recorded staleness.
+         *
+         * @param isRecordingStaleness True if recording staleness, false otherwise.
+         */
+        public void setRecordingStaleness(final boolean isRecordingStaleness) {
+
+            this.isRecordingStaleness = isRecordingStaleness;
+            this.valueLag = ((isRecordingStaleness && this.isReader) ? new LatencyHistogram() : null);
+            this.timeLag = ((isRecordingStaleness && this.isReader) ? new LatencyHistogram() : null);
+        }
+
+        /**
+         * Gets recording staleness flag.
+         *
+         * @return True if recording staleness (so samples are timestamped), false otherwise.
+         */
+        public boolean isRecordingStaleness() {
+
+            return this.isRecordingStaleness;
+        }
+
+        /**
+         * Records staleness of my last sample (checking thread only, while I'm held
+         * at the work barrier).
+         *
+         * @param writesMissed Writes missed.
+         * @param timeInNs     Time since the first missed write, in ns.
+         */
+        void recordStaleness(final long writesMissed, final long timeInNs) {
+
+            this.valueLag.record(writesMissed);
+            this.timeLag.record(timeInNs);
+        }
+
+        /**
+         * Gets staleness in writes missed.
+         *
+         * @return Value lag, or null if not recording (or a writer).
+         */
+        public LatencyHistogram getValueLag() {
+
+            return this.valueLag;
+        }
+
+        /**
+         * Gets staleness in ns since the first missed write.
+         *
+         * @return Time lag, or null if not recording (or a writer).
+         */
+        public LatencyHistogram getTimeLag() {
+
+            return this.timeLag;
+        }
+
+        /**
+         * Sets sample journal capacity, replacing any journal.
+         *
+         * @param journalCapacity Journal capacity, in samples, or 0 if not journaling.
+         */
+        public void setJournalCapacity(final int journalCapacity) {
+
+            this.journal = ((journalCapacity > 0) ? new SampleJournal(journalCapacity) : null);
+        }
+
+        /**
+         * Gets sample journal.
+         *
+         * @return Journal, or null if not journaling.
+         */
+        public SampleJournal getJournal() {
+
+            return this.journal;
+        }
+
+        /**
+         * Journals sample, if journaling.
+         *
+         * @param value Sample value.
+         */
+        protected final void journalSample(final long value) {
+
+            final SampleJournal journal = this.journal;
+
+            if (journal != null) {
+
+                journal.record(System.nanoTime(), value);
+            }
+        }
+
+        /**
+         * Sets free-running flag.
+         *
+         * @param isFreeRunning True if free-running, false otherwise.
+         */
+        public void setFreeRunning(final boolean isFreeRunning) {
+
+            this.isFreeRunning = isFreeRunning;
+        }
+
+        /**
+         * Sets wait strategy, between lockstep iterations.
+         *
+         * @param waitStrategy Wait strategy.
+         */
+        public void setWaitStrategy(final WaitStrategy waitStrategy) {
+
+            this.waitStrategy = waitStrategy;
+            this.idleCount = 0;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.opsysinc.learning.cert.examples.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Allocation profile: bytes allocated over a count of operations, from per-thread
+ * allocation counters (com.sun.management.ThreadMXBean), read before and after each.
+ * <p/>
+ * As with LatencyHistogram, each instance has a single writer at a time, and is read
+ * or merged only once that writer has stopped. Where the JVM doesn't count
+ * allocation (or not for the thread, e.g., some virtual threads), nothing is recorded.
+ */
+public final class AllocationProfile {
+
+    /**
+     * Thread management bean, if it counts allocation, or null otherwise.
+     */
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = AllocationProfile.getThreadBean();
+
+    /**
+     * Operations recorded.
+     */
+    private long opCount;
+
+    /**
+     * Bytes allocated.
+     */
+    private long allocatedBytes;
+
+    /**
+     * Enables JVM-wide thread allocation counting, if supported.
+     *
+     * @return True if enabled, false otherwise.
+     */
+    public static boolean enableMonitoring() {
+
+        if ((AllocationProfile.THREAD_BEAN == null) ||
+                !AllocationProfile.THREAD_BEAN.isThreadAllocatedMemorySupported()) {
+
+            return false;
+        }
+
+        if (!AllocationProfile.THREAD_BEAN.isThreadAllocatedMemoryEnabled()) {
+
+            AllocationProfile.THREAD_BEAN.setThreadAllocatedMemoryEnabled(true);
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets bytes allocated so far by current thread.
+     *
+     * @return Allocated bytes, or -1 if not available.
+     */
+    public static long currentThreadAllocatedBytes() {
+
+        return ((AllocationProfile.THREAD_BEAN == null) ?
+                -1L : AllocationProfile.THREAD_BEAN.getCurrentThreadAllocatedBytes());
+    }
+
+    /**
+     * Records an operation, from current thread's allocated bytes before and after.
+     *
+     * @param startBytes Allocated bytes before (see currentThreadAllocatedBytes()).
+     * @param endBytes   Allocated bytes after.
+     */
+    public void record(final long startBytes,
+                       final long endBytes) {
+
+        if ((startBytes >= 0L) &&
+                (endBytes >= startBytes)) {
+
+            this.opCount++;
+            this.allocatedBytes += (endBytes - startBytes);
+        }
+    }
+
+    /**
+     * Adds another profile's figures to mine.
+     *
+     * @param other Other profile (may be null).
+     */
+    public void add(final AllocationProfile other) {
+
+        if (other != null) {
+
+            this.opCount += other.opCount;
+            this.allocatedBytes += other.allocatedBytes;
+        }
+    }
+
+    /**
+     * Gets operations recorded.
+     *
+     * @return Op count.
+     */
+    public long getOpCount() {
+
+        return this.opCount;
+    }
+
+    /**
+     * Gets bytes allocated.
+     *
+     * @return Allocated bytes.
+     */
+    public long getAllocatedBytes() {
+
+        return this.allocatedBytes;
+    }
+
+    /**
+     * Gets mean bytes allocated per operation.
+     *
+     * @return Bytes/op.
+     */
+    public double getBytesPerOp() {
+
+        return ((this.opCount > 0L) ? ((double) this.allocatedBytes / this.opCount) : 0.0);
+    }
+
+    /**
+     * Formats summary line.
+     *
+     * @param label Line label.
+     * @return Summary line.
+     */
+    public String format(final String label) {
+
+        return String.format("%-28s %14d %16d %12.1f",
+                label,
+                this.opCount,
+                this.allocatedBytes,
+                this.getBytesPerOp());
+    }
+
+    /**
+     * Formats header line matching format().
+     *
+     * @param label Header label.
+     * @return Header line.
+     */
+    public static String formatHeader(final String label) {
+
+        return String.format("%-28s %14s %16s %12s",
+                label, "ops", "bytes", "bytes/op");
+    }
+
+    /**
+     * Gets thread management bean, if it counts allocation.
+     *
+     * @return Bean, or null if not available.
+     */
+    private static com.sun.management.ThreadMXBean getThreadBean() {
+
+        final ThreadMXBean result = ManagementFactory.getThreadMXBean();
+
+        return ((result instanceof com.sun.management.ThreadMXBean) ?
+                (com.sun.management.ThreadMXBean) result : null);
+    }
+}
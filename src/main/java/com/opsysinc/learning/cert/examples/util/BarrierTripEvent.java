@@ -0,0 +1,37 @@
+package com.opsysinc.learning.cert.examples.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event: work barrier tripped (lockstep mode); its duration is the check of
+ * all workers, run as the barrier action.
+ */
+@Name("cert.examples.BarrierTrip")
+@Label("Barrier Trip")
+@Category("CERT Examples")
+@Description("Work barrier tripped; duration covers the worker check run as the barrier action.")
+@StackTrace(false)
+final class BarrierTripEvent extends jdk.jfr.Event {
+
+    /**
+     * Test id.
+     */
+    @Label("Test")
+    String testId;
+
+    /**
+     * Trip count, including this trip.
+     */
+    @Label("Trip Count")
+    long tripCount;
+
+    /**
+     * True if the check found a violation, false otherwise.
+     */
+    @Label("Violation")
+    boolean isViolation;
+}
@@ -0,0 +1,276 @@
+package com.opsysinc.learning.cert.examples.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Contention profile: time and count blocked (entering monitors) and waiting
+ * (parked, e.g., in locks or at the work barrier), from ThreadMXBean contention
+ * monitoring, plus CAS (or optimistic read) retries, counted by workers.
+ * <p/>
+ * ThreadMXBean's waited figures also cover the wait strategy's own sleeps and parks
+ * between iterations (idle policy, not contention), so workers time each pause that
+ * blocked, and waited time is reported net of it, with pause time alongside. Spins
+ * and yields are never counted as waited, so aren't recorded. Waited counts still
+ * include pauses that slept or parked.
+ * <p/>
+ * As with LatencyHistogram, each instance has a single writer (its worker's thread),
+ * and is read or merged only once that writer has stopped. Thread figures aren't
+ * available for virtual threads, so only retries are counted for those.
+ */
+public final class ContentionProfile {
+
+    /**
+     * Thread management bean.
+     */
+    private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Threads profiled (with thread figures).
+     */
+    private long threadCount;
+
+    /**
+     * Times blocked.
+     */
+    private long blockedCount;
+
+    /**
+     * Time blocked in MS.
+     */
+    private long blockedTimeInMs;
+
+    /**
+     * Times waited.
+     */
+    private long waitedCount;
+
+    /**
+     * Time waited in MS.
+     */
+    private long waitedTimeInMs;
+
+    /**
+     * CAS (or optimistic read) retries.
+     */
+    private long retryCount;
+
+    /**
+     * Wait strategy pauses that blocked.
+     */
+    private long pauseCount;
+
+    /**
+     * Time in wait strategy pauses that blocked, in NS.
+     */
+    private long pauseTimeInNs;
+
+    /**
+     * Thread info at start, or null if not available.
+     */
+    private ThreadInfo startInfo;
+
+    /**
+     * Enables JVM-wide thread contention monitoring, if supported.
+     *
+     * @return True if enabled, false otherwise.
+     */
+    public static boolean enableMonitoring() {
+
+        if (!ContentionProfile.THREAD_BEAN.isThreadContentionMonitoringSupported()) {
+
+            return false;
+        }
+
+        if (!ContentionProfile.THREAD_BEAN.isThreadContentionMonitoringEnabled()) {
+
+            ContentionProfile.THREAD_BEAN.setThreadContentionMonitoringEnabled(true);
+        }
+
+        return true;
+    }
+
+    /**
+     * Starts profiling current thread.
+     */
+    public void start() {
+
+        this.startInfo = ContentionProfile.currentThreadInfo();
+    }
+
+    /**
+     * Stops profiling current thread, adding its figures since start.
+     */
+    public void stop() {
+
+        final ThreadInfo stopInfo = ContentionProfile.currentThreadInfo();
+
+        if ((this.startInfo != null) &&
+                (stopInfo != null) &&
+                (stopInfo.getBlockedTime() >= 0L)) {
+
+            this.threadCount++;
+            this.blockedCount += (stopInfo.getBlockedCount() - this.startInfo.getBlockedCount());
+            this.blockedTimeInMs += (stopInfo.getBlockedTime() - this.startInfo.getBlockedTime());
+            this.waitedCount += (stopInfo.getWaitedCount() - this.startInfo.getWaitedCount());
+            this.waitedTimeInMs += (stopInfo.getWaitedTime() - this.startInfo.getWaitedTime());
+        }
+
+        this.startInfo = null;
+    }
+
+    /**
+     * Adds CAS (or optimistic read) retries.
+     *
+     * @param retries Retries.
+     */
+    public void addRetries(final long retries) {
+
+        this.retryCount += retries;
+    }
+
+    /**
+     * Adds a wait strategy pause that blocked (slept or parked).
+     *
+     * @param pauseTimeInNs Pause time in NS.
+     */
+    public void addPause(final long pauseTimeInNs) {
+
+        this.pauseCount++;
+        this.pauseTimeInNs += pauseTimeInNs;
+    }
+
+    /**
+     * Adds another profile's figures to mine.
+     *
+     * @param other Other profile (may be null).
+     */
+    public void add(final ContentionProfile other) {
+
+        if (other != null) {
+
+            this.threadCount += other.threadCount;
+            this.blockedCount += other.blockedCount;
+            this.blockedTimeInMs += other.blockedTimeInMs;
+            this.waitedCount += other.waitedCount;
+            this.waitedTimeInMs += other.waitedTimeInMs;
+            this.retryCount += other.retryCount;
+            this.pauseCount += other.pauseCount;
+            this.pauseTimeInNs += other.pauseTimeInNs;
+        }
+    }
+
+    /**
+     * Gets times blocked.
+     *
+     * @return Blocked count.
+     */
+    public long getBlockedCount() {
+
+        return this.blockedCount;
+    }
+
+    /**
+     * Gets time blocked in MS.
+     *
+     * @return Blocked time in MS.
+     */
+    public long getBlockedTimeInMs() {
+
+        return this.blockedTimeInMs;
+    }
+
+    /**
+     * Gets times waited.
+     *
+     * @return Waited count.
+     */
+    public long getWaitedCount() {
+
+        return this.waitedCount;
+    }
+
+    /**
+     * Gets time waited in MS, net of wait strategy pauses.
+     *
+     * @return Waited time in MS.
+     */
+    public long getWaitedTimeInMs() {
+
+        return Math.max(0L, (this.waitedTimeInMs - this.getPauseTimeInMs()));
+    }
+
+    /**
+     * Gets wait strategy pauses that blocked.
+     *
+     * @return Pause count.
+     */
+    public long getPauseCount() {
+
+        return this.pauseCount;
+    }
+
+    /**
+     * Gets time in wait strategy pauses that blocked, in MS.
+     *
+     * @return Pause time in MS.
+     */
+    public long getPauseTimeInMs() {
+
+        return (this.pauseTimeInNs / 1000000L);
+    }
+
+    /**
+     * Gets CAS (or optimistic read) retries.
+     *
+     * @return Retry count.
+     */
+    public long getRetryCount() {
+
+        return this.retryCount;
+    }
+
+    /**
+     * Formats summary line.
+     *
+     * @param label Line label.
+     * @return Summary line.
+     */
+    public String format(final String label) {
+
+        return String.format("%-28s %8d %12d %14d %12d %14d %12d %12d %14d",
+                label,
+                this.threadCount,
+                this.blockedCount,
+                this.blockedTimeInMs,
+                this.waitedCount,
+                this.getWaitedTimeInMs(),
+                this.retryCount,
+                this.pauseCount,
+                this.getPauseTimeInMs());
+    }
+
+    /**
+     * Formats header line matching format().
+     *
+     * @param label Header label.
+     * @return Header line.
+     */
+    public static String formatHeader(final String label) {
+
+        return String.format("%-28s %8s %12s %14s %12s %14s %12s %12s %14s",
+                label, "threads", "blocked", "blocked (ms)", "waited", "waited (ms)", "retries",
+                "paused", "paused (ms)");
+    }
+
+    /**
+     * Gets current thread's info.
+     *
+     * @return Thread info, or null if not available (e.g., virtual threads).
+     */
+    private static ThreadInfo currentThreadInfo() {
+
+        return ContentionProfile.THREAD_BEAN.getThreadInfo(Thread.currentThread().getId());
+    }
+}
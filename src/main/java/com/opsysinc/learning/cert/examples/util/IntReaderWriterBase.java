@@ -0,0 +1,547 @@
+package com.opsysinc.learning.cert.examples.util;
+
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reader/writer base class, specialized for int samples.
+ * <p/>
+ * Samples are stored and checked as primitives, so the sampling and checking
+ * paths don't allocate. Comparisons use subtraction, so they stay correct
+ * when the shared value wraps past Integer.MAX_VALUE.
+ */
+public abstract class IntReaderWriterBase
+        extends AbstractReaderWriterBase<IntReaderWriterBase.IntReaderWriterWorker> {
+
+    /**
+     * Writer sample times, sorted (staleness checks only).
+     */
+    private long[] writeTimes;
+
+    /**
+     * Latest expected value (volatile for JMX readers).
+     */
+    private volatile int lastExpectedValue;
+
+    /**
+     * True once an expected value is set, false otherwise.
+     */
+    private volatile boolean hasExpectedValue;
+
+    /**
+     * Basic ctor.
+     *
+     * @param id My id.
+     */
+    public IntReaderWriterBase(final String id) {
+
+        super(id);
+    }
+
+    @Override
+    protected void checkWorkers() throws InterruptedException {
+
+        final long workTime = System.nanoTime();
+
+        final int expectedValue = this.nextExpectedValue();
+
+        this.setLastExpectedValue(expectedValue);
+
+        // writers' highest value, reduced as they arrived at the work barrier;
+        final long barrierValue = this.getBarrierValue();
+        final boolean hasWriterValue = (barrierValue != WorkBarrier.NO_VALUE);
+        final int highestWriterValue = (int) barrierValue;
+
+        final int settledValue = (hasWriterValue ? this.settledValue(highestWriterValue) : 0);
+
+        if (hasWriterValue &&
+                this.isRecordingStaleness()) {
+
+            this.checkStaleness(expectedValue - this.getWriterWorkers().size());
+        }
+
+        if (hasWriterValue &&
+                (expectedValue != settledValue)) {
+
+            this.recordViolation("WRITERS OUT OF ORDER", expectedValue, settledValue);
+
+            final ViolationReport report = this.claimViolationReport(
+                    ViolationReport.Kind.WRITERS_OUT_OF_ORDER, workTime);
+
+            if (report != null) {
+
+                final List<IntReaderWriterBase.IntReaderWriterWorker> allWorkers = this.getAllWorkers();
+
+                report.setValues(0L, expectedValue, settledValue);
+
+                for (int ctr = 0; ctr < allWorkers.size(); ctr++) {
+
+                    final IntReaderWriterBase.IntReaderWriterWorker workerItem = allWorkers.get(ctr);
+
+                    if (workerItem.hasData()) {
+
+                        final int prevValue = workerItem.getPrevData();
+
+                        report.addRow(workerItem.isReader(), false, 0L, prevValue,
+                                (!workerItem.isReader() && (prevValue != expectedValue)));
+                    }
+                }
+
+                ViolationReporter.submit(report);
+            }
+        }
+    }
+
+    /**
+     * Checks reader staleness, while all workers are held at the work barrier.
+     * <p/>
+     * Each writer wrote once since the last trip, so the writes, sorted by time, took
+     * the shared value from the base value up one at a time. A reader that read before
+     * the k-th write should have seen at least base + k; any shortfall is writes
+     * missed, and the time since the first of them is how long the reader lagged.
+     *
+     * @param baseValue Value before this round of writes.
+     */
+    private void checkStaleness(final int baseValue) {
+
+        final List<IntReaderWriterBase.IntReaderWriterWorker> writerWorkers = this.getWriterWorkers();
+        final List<IntReaderWriterBase.IntReaderWriterWorker> readerWorkers = this.getReaderWorkers();
+
+        if ((this.writeTimes == null) ||
+                (this.writeTimes.length != writerWorkers.size())) {
+
+            this.writeTimes = new long[writerWorkers.size()];
+        }
+
+        int writeCount = 0;
+
+        for (int ctr = 0; ctr < writerWorkers.size(); ctr++) {
+
+            final IntReaderWriterBase.IntReaderWriterWorker workerItem = writerWorkers.get(ctr);
+
+            if (workerItem.hasData()) {
+
+                this.writeTimes[writeCount++] = workerItem.getPrevTime();
+            }
+        }
+
+        Arrays.sort(this.writeTimes, 0, writeCount);
+
+        for (int ctr = 0; ctr < readerWorkers.size(); ctr++) {
+
+            final IntReaderWriterBase.IntReaderWriterWorker workerItem = readerWorkers.get(ctr);
+
+            if (workerItem.hasData()) {
+
+                final long readTime = workerItem.getPrevTime();
+                final int readValue = workerItem.getPrevData();
+                int writesSeen = 0;
+
+                while ((writesSeen < writeCount) &&
+                        ((this.writeTimes[writesSeen] - readTime) <= 0L)) {
+
+                    writesSeen++;
+                }
+
+                final long writesMissed = ((baseValue + writesSeen) - readValue);
+
+                if (writesMissed > 0L) {
+
+                    final int firstMissed = (int) Math.max(0L, (readValue - baseValue));
+
+                    workerItem.recordStaleness(writesMissed, (readTime - this.writeTimes[firstMissed]));
+
+                } else {
+
+                    workerItem.recordStaleness(0L, 0L);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void verifyWorkers() throws InterruptedException {
+
+        final List<IntReaderWriterBase.IntReaderWriterWorker> allWorkers = this.getAllWorkers();
+        boolean isOutOfOrder = false;
+
+        for (int ctr = 0; ctr < allWorkers.size(); ctr++) {
+
+            if (!allWorkers.get(ctr).sample()) {
+
+                isOutOfOrder = true;
+            }
+        }
+
+        if (isOutOfOrder) {
+
+            final IntReaderWriterBase.IntReaderWriterWorker firstItem = this.firstSampledOutOfOrder(allWorkers);
+
+            this.recordViolation("WORKERS OUT OF ORDER",
+                    ((firstItem == null) ? 0L : firstItem.getVerifiedData()),
+                    ((firstItem == null) ? 0L : firstItem.getSampledData()));
+
+            final ViolationReport report = this.claimViolationReport(
+                    ViolationReport.Kind.WORKERS_OUT_OF_ORDER, System.nanoTime());
+
+            if (report != null) {
+
+                for (int ctr = 0; ctr < allWorkers.size(); ctr++) {
+
+                    final IntReaderWriterBase.IntReaderWriterWorker workerItem = allWorkers.get(ctr);
+
+                    if (workerItem.hasSampledData()) {
+
+                        report.addRow(workerItem.isReader(), workerItem.hasVerifiedData(),
+                                workerItem.getVerifiedData(), workerItem.getSampledData(),
+                                workerItem.isSampledOutOfOrder());
+                    }
+                }
+
+                ViolationReporter.submit(report);
+            }
+
+        } else {
+
+            for (int ctr = 0; ctr < allWorkers.size(); ctr++) {
+
+                allWorkers.get(ctr).acceptSample();
+            }
+        }
+    }
+
+    /**
+     * Sets latest expected value.
+     *
+     * @param expectedValue Expected value.
+     */
+    private void setLastExpectedValue(final int expectedValue) {
+
+        this.lastExpectedValue = expectedValue;
+
+        if (!this.hasExpectedValue) {
+
+            this.hasExpectedValue = true;
+        }
+    }
+
+    @Override
+    public String getExpectedValue() {
+
+        return (this.hasExpectedValue ? String.valueOf(this.lastExpectedValue) : "");
+    }
+
+    /**
+     * Gets first worker whose sample is out of order (verifier thread only).
+     *
+     * @param allWorkers All workers.
+     * @return First out of order worker, or null if none.
+     */
+    private IntReaderWriterBase.IntReaderWriterWorker firstSampledOutOfOrder(
+            final List<IntReaderWriterBase.IntReaderWriterWorker> allWorkers) {
+
+        for (int ctr = 0; ctr < allWorkers.size(); ctr++) {
+
+            if (allWorkers.get(ctr).isSampledOutOfOrder()) {
+
+                return allWorkers.get(ctr);
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    protected void checkWriterTotals() {
+
+        final List<IntReaderWriterBase.IntReaderWriterWorker> writerWorkers = this.getWriterWorkers();
+
+        long totalWrites = 0L;
+        int highestWriterValue = 0;
+        boolean hasWriterValue = false;
+
+        for (int ctr = 0; ctr < writerWorkers.size(); ctr++) {
+
+            final IntReaderWriterBase.IntReaderWriterWorker workerItem = writerWorkers.get(ctr);
+
+            totalWrites += workerItem.getOpCount();
+
+            if (workerItem.hasData() &&
+                    (!hasWriterValue ||
+                            ((workerItem.getPrevData() - highestWriterValue) > 0))) {
+
+                highestWriterValue = workerItem.getPrevData();
+                hasWriterValue = true;
+            }
+        }
+
+        final int expectedValue = this.expectedValueAfter(totalWrites);
+
+        this.setLastExpectedValue(expectedValue);
+
+        final int settledValue = (hasWriterValue ? this.settledValue(highestWriterValue) : 0);
+
+        if (hasWriterValue &&
+                (expectedValue != settledValue)) {
+
+            this.recordViolation("WRITERS LOST UPDATES", expectedValue, settledValue);
+
+            final ViolationReport report = this.claimViolationReport(
+                    ViolationReport.Kind.WRITERS_LOST_UPDATES, System.nanoTime());
+
+            if (report != null) {
+
+                report.setValues(totalWrites, expectedValue, settledValue);
+                ViolationReporter.submit(report);
+            }
+        }
+    }
+
+    @Override
+    protected long reduceBarrierValues(final long left,
+                                       final long right) {
+
+        return ((((int) right - (int) left) > 0) ? right : left);
+    }
+
+    /**
+     * Gets next expected value.
+     *
+     * @return Next expected value.
+     */
+    protected abstract int nextExpectedValue();
+
+    /**
+     * Gets expected value after a given number of writes (free-running mode).
+     *
+     * @param totalWrites Total writes.
+     * @return Expected value.
+     */
+    protected abstract int expectedValueAfter(long totalWrites);
+
+    /**
+     * Gets the value checked against the expected value, read while no writer is
+     * running (at the work barrier, or once workers have stopped).
+     * <p/>
+     * Defaults to the highest value any writer logged. Variants whose writers can't
+     * see the total (e.g., striped counters) return a snapshot of shared state instead.
+     *
+     * @param highestWriterValue Highest value logged by any writer.
+     * @return Settled value.
+     */
+    protected int settledValue(final int highestWriterValue) {
+
+        return highestWriterValue;
+    }
+
+    /**
+     * Base worker class, specialized for int samples.
+     */
+    public abstract static class IntReaderWriterWorker extends AbstractReaderWriterBase.AbstractReaderWriterWorker {
+
+        /**
+         * Hot state, written on every operation.
+         */
+        private IntSampleSlot slot;
+
+        /**
+         * Data from the verifier's current pass (free-running mode).
+         */
+        private int sampledData;
+
+        /**
+         * True if sampled data present, false otherwise.
+         */
+        private boolean hasSampledData;
+
+        /**
+         * Data accepted on the verifier's previous pass (free-running mode).
+         */
+        private int verifiedData;
+
+        /**
+         * True if verified data present, false otherwise.
+         */
+        private boolean hasVerifiedData;
+
+        /**
+         * Basic ctor.
+         *
+         * @param isReader True if reader, false otherwise.
+         */
+        public IntReaderWriterWorker(final boolean isReader) {
+
+            super(isReader);
+
+            this.slot = IntSampleSlot.newSlot(MemoryLayout.COMPACT);
+        }
+
+        @Override
+        public void setMemoryLayout(final MemoryLayout memoryLayout) {
+
+            this.slot = IntSampleSlot.newSlot(memoryLayout);
+        }
+
+        @Override
+        protected void countOp() {
+
+            this.slot.opCount++;
+        }
+
+        @Override
+        public long getOpCount() {
+
+            return this.slot.opCount;
+        }
+
+        /**
+         * Log sample.
+         *
+         * @param data Sample data.
+         */
+        public void logSample(final int data) {
+
+            final IntSampleSlot slot = this.slot;
+
+            slot.prevData = data;
+
+            if (this.isRecordingStaleness()) {
+
+                slot.prevTime = System.nanoTime();
+            }
+
+            if (this.isFreeRunning()) {
+
+                IntSampleSlot.PUBLISHED_DATA_UPDATER.lazySet(slot, data);
+
+                if (!slot.hasData) {
+
+                    slot.isPublished = true;
+                }
+            }
+
+            slot.hasData = true;
+
+            this.journalSample(data);
+        }
+
+        @Override
+        protected long getBarrierValue() {
+
+            return ((!this.isReader() && this.hasData()) ? this.getPrevData() : WorkBarrier.NO_VALUE);
+        }
+
+        /**
+         * Gets has data flag.
+         *
+         * @return True if any data logged, false otherwise.
+         */
+        public boolean hasData() {
+
+            return this.slot.hasData;
+        }
+
+        /**
+         * Gets prev data.
+         *
+         * @return Prev data.
+         */
+        public int getPrevData() {
+
+            return this.slot.prevData;
+        }
+
+        /**
+         * Gets prev data time, if recording staleness.
+         *
+         * @return Prev data time (System.nanoTime()).
+         */
+        public long getPrevTime() {
+
+            return this.slot.prevTime;
+        }
+
+        /**
+         * Samples published data (verifier thread only).
+         *
+         * @return True if in order with the previous pass, false otherwise.
+         */
+        boolean sample() {
+
+            final IntSampleSlot slot = this.slot;
+
+            if (slot.isPublished) {
+
+                this.sampledData = slot.publishedData;
+                this.hasSampledData = true;
+            }
+
+            return !this.isSampledOutOfOrder();
+        }
+
+        /**
+         * Accepts sampled data as verified (verifier thread only).
+         */
+        void acceptSample() {
+
+            if (this.hasSampledData) {
+
+                this.verifiedData = this.sampledData;
+                this.hasVerifiedData = true;
+            }
+        }
+
+        /**
+         * Gets sampled out of order flag.
+         *
+         * @return True if sampled data is behind verified data, false otherwise.
+         */
+        public boolean isSampledOutOfOrder() {
+
+            return (this.hasSampledData &&
+                    this.hasVerifiedData &&
+                    ((this.sampledData - this.verifiedData) < 0));
+        }
+
+        /**
+         * Gets has sampled data flag.
+         *
+         * @return True if sampled data present, false otherwise.
+         */
+        public boolean hasSampledData() {
+
+            return this.hasSampledData;
+        }
+
+        /**
+         * Gets sampled data.
+         *
+         * @return Sampled data.
+         */
+        public int getSampledData() {
+
+            return this.sampledData;
+        }
+
+        /**
+         * Gets has verified data flag.
+         *
+         * @return True if verified data present, false otherwise.
+         */
+        public boolean hasVerifiedData() {
+
+            return this.hasVerifiedData;
+        }
+
+        /**
+         * Gets verified data.
+         *
+         * @return Verified data.
+         */
+        public int getVerifiedData() {
+
+            return this.verifiedData;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.opsysinc.learning.cert.examples.util;
+
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Hot, per-worker state for IntReaderWriterWorker, written on every operation.
+ * <p/>
+ * Kept apart from the worker so its layout can be chosen at start up (see
+ * PaddedIntSampleSlot).
+ */
+class IntSampleSlot {
+
+    /**
+     * Published data updater.
+     */
+    static final AtomicIntegerFieldUpdater<IntSampleSlot> PUBLISHED_DATA_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(IntSampleSlot.class, "publishedData");
+
+    /**
+     * Completed operations.
+     */
+    long opCount;
+
+    /**
+     * Last data.
+     */
+    int prevData;
+
+    /**
+     * Last data time (System.nanoTime()), if recording staleness.
+     */
+    long prevTime;
+
+    /**
+     * True if any data logged, false otherwise.
+     */
+    boolean hasData;
+
+    /**
+     * Last data, published for the verifier (free-running mode).
+     */
+    volatile int publishedData;
+
+    /**
+     * True once data has been published, false otherwise (free-running mode).
+     */
+    volatile boolean isPublished;
+
+    /**
+     * Builds slot for layout.
+     *
+     * @param memoryLayout Memory layout.
+     * @return Slot.
+     */
+    static IntSampleSlot newSlot(final MemoryLayout memoryLayout) {
+
+        return ((memoryLayout == MemoryLayout.PADDED) ?
+                new PaddedIntSampleSlot() : new IntSampleSlot());
+    }
+}
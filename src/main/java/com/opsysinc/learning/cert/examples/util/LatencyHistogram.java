@@ -0,0 +1,235 @@
+package com.opsysinc.learning.cert.examples.util;
+
+
+/**
+ * Log-linear latency histogram.
+ * <p/>
+ * Values below 64 are counted exactly; above that, each power of two is split into
+ * 32 buckets, so a reported percentile is within ~3% of the recorded value. Recording
+ * doesn't allocate or synchronize: each instance has a single writer, and is read or
+ * merged only once that writer has stopped.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Mantissa bits kept above the leading bit.
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /**
+     * Sub-buckets per power of two.
+     */
+    private static final int SUB_BUCKET_COUNT = (1 << LatencyHistogram.SUB_BUCKET_BITS);
+
+    /**
+     * Values below this are counted exactly.
+     */
+    private static final int LINEAR_LIMIT = (LatencyHistogram.SUB_BUCKET_COUNT * 2);
+
+    /**
+     * Exponent of the linear limit.
+     */
+    private static final int LINEAR_LIMIT_BITS = (LatencyHistogram.SUB_BUCKET_BITS + 1);
+
+    /**
+     * Bucket count (covers all non-negative longs).
+     */
+    private static final int BUCKET_COUNT = (LatencyHistogram.LINEAR_LIMIT +
+            ((63 - LatencyHistogram.LINEAR_LIMIT_BITS) * LatencyHistogram.SUB_BUCKET_COUNT));
+
+    /**
+     * Bucket counts.
+     */
+    private final long[] counts;
+
+    /**
+     * Total count.
+     */
+    private long totalCount;
+
+    /**
+     * Total of recorded values.
+     */
+    private long totalValue;
+
+    /**
+     * Max recorded value.
+     */
+    private long maxValue;
+
+    /**
+     * Basic ctor.
+     */
+    public LatencyHistogram() {
+
+        this.counts = new long[LatencyHistogram.BUCKET_COUNT];
+    }
+
+    /**
+     * Records value.
+     *
+     * @param value Value (negative values are recorded as zero).
+     */
+    public void record(final long value) {
+
+        final long boundedValue = Math.max(0L, value);
+
+        this.counts[LatencyHistogram.indexOf(boundedValue)]++;
+        this.totalCount++;
+        this.totalValue += boundedValue;
+
+        if (boundedValue > this.maxValue) {
+
+            this.maxValue = boundedValue;
+        }
+    }
+
+    /**
+     * Adds another histogram's counts to mine.
+     *
+     * @param other Other histogram.
+     */
+    public void add(final LatencyHistogram other) {
+
+        for (int ctr = 0; ctr < this.counts.length; ctr++) {
+
+            this.counts[ctr] += other.counts[ctr];
+        }
+
+        this.totalCount += other.totalCount;
+        this.totalValue += other.totalValue;
+        this.maxValue = Math.max(this.maxValue, other.maxValue);
+    }
+
+    /**
+     * Gets total count.
+     *
+     * @return Total count.
+     */
+    public long getTotalCount() {
+
+        return this.totalCount;
+    }
+
+    /**
+     * Gets mean value.
+     *
+     * @return Mean value, or 0 if empty.
+     */
+    public double getMean() {
+
+        return ((this.totalCount == 0L) ? 0.0 :
+                ((double) this.totalValue / (double) this.totalCount));
+    }
+
+    /**
+     * Gets max value.
+     *
+     * @return Max value.
+     */
+    public long getMaxValue() {
+
+        return this.maxValue;
+    }
+
+    /**
+     * Gets value at percentile.
+     *
+     * @param percentile Percentile (0-100).
+     * @return Lower bound of bucket holding the percentile, or 0 if empty.
+     */
+    public long getValueAtPercentile(final double percentile) {
+
+        if (this.totalCount == 0L) {
+
+            return 0L;
+        }
+
+        final long targetCount = Math.max(1L,
+                (long) Math.ceil((percentile / 100.0) * (double) this.totalCount));
+        long runningCount = 0L;
+
+        for (int ctr = 0; ctr < this.counts.length; ctr++) {
+
+            runningCount += this.counts[ctr];
+
+            if (runningCount >= targetCount) {
+
+                return Math.min(LatencyHistogram.valueOf(ctr), this.maxValue);
+            }
+        }
+
+        return this.maxValue;
+    }
+
+    /**
+     * Formats summary line.
+     *
+     * @param label Line label.
+     * @return Summary line.
+     */
+    public String format(final String label) {
+
+        return String.format("%-28s %12d %10d %10d %10d %12d",
+                label,
+                this.totalCount,
+                this.getValueAtPercentile(50.0),
+                this.getValueAtPercentile(99.0),
+                this.getValueAtPercentile(99.9),
+                this.maxValue);
+    }
+
+    /**
+     * Formats header line matching format().
+     *
+     * @param label Header label.
+     * @return Header line.
+     */
+    public static String formatHeader(final String label) {
+
+        return String.format("%-28s %12s %10s %10s %10s %12s",
+                label, "count", "p50", "p99", "p99.9", "max");
+    }
+
+    /**
+     * Gets bucket index for value.
+     *
+     * @param value Non-negative value.
+     * @return Bucket index.
+     */
+    private static int indexOf(final long value) {
+
+        if (value < LatencyHistogram.LINEAR_LIMIT) {
+
+            return (int) value;
+        }
+
+        final int exponent = (63 - Long.numberOfLeadingZeros(value));
+        final int mantissa = (int) ((value >>> (exponent - LatencyHistogram.SUB_BUCKET_BITS)) &
+                (LatencyHistogram.SUB_BUCKET_COUNT - 1));
+
+        return (LatencyHistogram.LINEAR_LIMIT +
+                ((exponent - LatencyHistogram.LINEAR_LIMIT_BITS) * LatencyHistogram.SUB_BUCKET_COUNT) +
+                mantissa);
+    }
+
+    /**
+     * Gets lower bound value for bucket index.
+     *
+     * @param index Bucket index.
+     * @return Lower bound value.
+     */
+    private static long valueOf(final int index) {
+
+        if (index < LatencyHistogram.LINEAR_LIMIT) {
+
+            return index;
+        }
+
+        final int offset = (index - LatencyHistogram.LINEAR_LIMIT);
+        final int exponent = ((offset / LatencyHistogram.SUB_BUCKET_COUNT) + LatencyHistogram.LINEAR_LIMIT_BITS);
+        final long mantissa = (offset % LatencyHistogram.SUB_BUCKET_COUNT);
+
+        return ((1L << exponent) | (mantissa << (exponent - LatencyHistogram.SUB_BUCKET_BITS)));
+    }
+}
@@ -0,0 +1,279 @@
+package com.opsysinc.learning.cert.examples.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Batched litmus engine (after jcstress).
+ * <p/>
+ * Each round, every actor thread runs its action over one large, preallocated array
+ * of independent state instances, in order; the driving thread then classifies every
+ * instance's outcome into a count array and resets it. Threads hand rounds over
+ * through a round counter and a finished count, spinning (then yielding) rather
+ * than blocking.
+ * <p/>
+ * Left to run a whole batch freely, actors drift apart and rarely touch the same
+ * instance at the same time, so within a round, actors also meet at the start of
+ * each stride of STRIDE_SIZE instances (a spinning handoff on one arrival counter),
+ * keeping them within a stride of each other: close enough to race on each instance,
+ * while the handoff still costs little per instance.
+ *
+ * @param <S> State type.
+ */
+public final class LitmusEngine<S> {
+
+    /**
+     * Spins before yielding, while waiting for a handoff.
+     */
+    private static final int SPIN_LIMIT = 1000;
+
+    /**
+     * State instances per stride.
+     */
+    public static final int STRIDE_SIZE = 64;
+
+    /**
+     * Round counter value that stops actors.
+     */
+    private static final long STOP_ROUND = -1L;
+
+    /**
+     * Test.
+     */
+    private final LitmusTest<S> test;
+
+    /**
+     * State instances.
+     */
+    private final S[] states;
+
+    /**
+     * Actors' observed values, by actor, then instance.
+     */
+    private final long[][] actorResults;
+
+    /**
+     * Actor thread factory.
+     */
+    private final ThreadFactory threadFactory;
+
+    /**
+     * Actors finished with the current round.
+     */
+    private final AtomicInteger finishedCount;
+
+    /**
+     * Actor arrivals at strides, in the current round.
+     */
+    private final AtomicInteger strideArrivalCount;
+
+    /**
+     * Current round (published by the driving thread), or STOP_ROUND.
+     */
+    private volatile long round;
+
+    /**
+     * Basic ctor.
+     *
+     * @param test       Test.
+     * @param batchSize  State instances per round (at least one).
+     * @param threadMode Actor thread mode.
+     */
+    @SuppressWarnings("unchecked")
+    public LitmusEngine(final LitmusTest<S> test,
+                        final int batchSize,
+                        final ThreadMode threadMode) {
+
+        if (batchSize < 1) {
+
+            throw new IllegalArgumentException(String.format(
+                    "Invalid batch size (batchSize=%d).", batchSize));
+        }
+
+        this.test = test;
+        this.states = (S[]) new Object[batchSize];
+        this.actorResults = new long[test.getActorCount()][batchSize];
+        this.threadFactory = threadMode.newThreadFactory();
+        this.finishedCount = new AtomicInteger(0);
+        this.strideArrivalCount = new AtomicInteger(0);
+
+        for (int ctr = 0; ctr < batchSize; ctr++) {
+
+            this.states[ctr] = test.newState();
+        }
+    }
+
+    /**
+     * Runs rounds until run time elapses (at least one round).
+     *
+     * @param runTimeInMs Run time in MS.
+     * @return Result.
+     * @throws InterruptedException If interrupted while stopping actors.
+     */
+    public LitmusResult run(final long runTimeInMs) throws InterruptedException {
+
+        final int actorCount = this.test.getActorCount();
+        final long[] outcomeCounts = new long[this.test.getOutcomeCount()];
+        final long[] outcomeResults = new long[actorCount];
+        final List<Thread> actorThreads = new ArrayList<>(actorCount);
+
+        this.round = 0L;
+
+        for (int ctr = 0; ctr < actorCount; ctr++) {
+
+            final int actor = ctr;
+            final Thread actorThread = this.threadFactory.newThread(new Runnable() {
+
+                @Override
+                public void run() {
+
+                    LitmusEngine.this.runActor(actor);
+                }
+            });
+
+            actorThread.start();
+            actorThreads.add(actorThread);
+        }
+
+        final long startTimeInNs = System.nanoTime();
+        final long endTimeInNs = (startTimeInNs + (runTimeInMs * 1000000L));
+        long roundCount = 0L;
+
+        try {
+
+            do {
+
+                // all actors have finished, so none sees these resets before the next round;
+                this.finishedCount.set(0);
+                this.strideArrivalCount.set(0);
+                this.round = ++roundCount;
+
+                int spinCount = 0;
+
+                while (this.finishedCount.get() < actorCount) {
+
+                    spinCount = LitmusEngine.spinWait(spinCount);
+                }
+
+                this.tally(outcomeCounts, outcomeResults);
+
+            } while (System.nanoTime() < endTimeInNs);
+
+        } finally {
+
+            this.round = LitmusEngine.STOP_ROUND;
+
+            for (final Thread item : actorThreads) {
+
+                item.join();
+            }
+        }
+
+        return new LitmusResult(this.test, outcomeCounts, roundCount, (System.nanoTime() - startTimeInNs));
+    }
+
+    /**
+     * Runs actor's action over every instance, a stride at a time, once per round,
+     * until stopped (actor thread).
+     *
+     * @param actor Actor index.
+     */
+    private void runActor(final int actor) {
+
+        final long[] results = this.actorResults[actor];
+        final int actorCount = this.actorResults.length;
+        long prevRound = 0L;
+
+        while (true) {
+
+            long nextRound;
+            int spinCount = 0;
+
+            while ((nextRound = this.round) == prevRound) {
+
+                spinCount = LitmusEngine.spinWait(spinCount);
+            }
+
+            if (nextRound == LitmusEngine.STOP_ROUND) {
+
+                return;
+            }
+
+            int strideArrivalTarget = 0;
+
+            for (int strideStart = 0; strideStart < this.states.length; strideStart += LitmusEngine.STRIDE_SIZE) {
+
+                final int strideEnd = Math.min((strideStart + LitmusEngine.STRIDE_SIZE), this.states.length);
+
+                // arrivals only grow within a round, so each stride waits for its own total;
+                strideArrivalTarget += actorCount;
+                this.strideArrivalCount.incrementAndGet();
+                spinCount = 0;
+
+                while (this.strideArrivalCount.get() < strideArrivalTarget) {
+
+                    spinCount = LitmusEngine.spinWait(spinCount);
+                }
+
+                try {
+
+                    for (int ctr = strideStart; ctr < strideEnd; ctr++) {
+
+                        results[ctr] = this.test.act(actor, this.states[ctr]);
+                    }
+
+                } catch (final RuntimeException ex) {
+
+                    // keep arriving at strides, so other actors aren't held;
+                    ex.printStackTrace();
+                }
+            }
+
+            prevRound = nextRound;
+            this.finishedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Classifies and resets every instance (driving thread, between rounds).
+     *
+     * @param outcomeCounts  Outcome counts, to add to.
+     * @param outcomeResults Scratch, one slot per actor.
+     */
+    private void tally(final long[] outcomeCounts,
+                       final long[] outcomeResults) {
+
+        for (int ctr = 0; ctr < this.states.length; ctr++) {
+
+            for (int actorCtr = 0; actorCtr < outcomeResults.length; actorCtr++) {
+
+                outcomeResults[actorCtr] = this.actorResults[actorCtr][ctr];
+            }
+
+            outcomeCounts[this.test.outcomeOf(this.states[ctr], outcomeResults)]++;
+            this.test.reset(this.states[ctr]);
+        }
+    }
+
+    /**
+     * Waits briefly for a handoff: spins, then yields.
+     *
+     * @param spinCount Spins so far.
+     * @return Spins, including this one.
+     */
+    private static int spinWait(final int spinCount) {
+
+        if (spinCount < LitmusEngine.SPIN_LIMIT) {
+
+            Thread.onSpinWait();
+
+        } else {
+
+            Thread.yield();
+        }
+
+        return (spinCount + 1);
+    }
+}
@@ -0,0 +1,23 @@
+package com.opsysinc.learning.cert.examples.util;
+
+/**
+ * How a litmus test grades an outcome (after jcstress).
+ */
+public enum LitmusExpect {
+
+    /**
+     * Expected under any interleaving.
+     */
+    ACCEPTABLE,
+
+    /**
+     * Allowed by the access mode, but only seen when actors race (e.g., a lost update
+     * with non-atomic increments): evidence the race happened, not a violation.
+     */
+    ACCEPTABLE_INTERESTING,
+
+    /**
+     * Ruled out by the access mode: a violation.
+     */
+    FORBIDDEN
+}
@@ -0,0 +1,180 @@
+package com.opsysinc.learning.cert.examples.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome tallies of one litmus test run.
+ */
+public final class LitmusResult {
+
+    /**
+     * Test name.
+     */
+    private final String name;
+
+    /**
+     * Outcome names.
+     */
+    private final String[] outcomeNames;
+
+    /**
+     * Outcome grades.
+     */
+    private final LitmusExpect[] outcomeExpects;
+
+    /**
+     * Outcome counts.
+     */
+    private final long[] outcomeCounts;
+
+    /**
+     * Rounds run.
+     */
+    private final long roundCount;
+
+    /**
+     * Run time in NS.
+     */
+    private final long runTimeInNs;
+
+    /**
+     * Basic ctor.
+     *
+     * @param test          Test.
+     * @param outcomeCounts Outcome counts (taken, not copied).
+     * @param roundCount    Rounds run.
+     * @param runTimeInNs   Run time in NS.
+     */
+    LitmusResult(final LitmusTest<?> test,
+                 final long[] outcomeCounts,
+                 final long roundCount,
+                 final long runTimeInNs) {
+
+        this.name = test.getName();
+        this.outcomeNames = new String[outcomeCounts.length];
+        this.outcomeExpects = new LitmusExpect[outcomeCounts.length];
+        this.outcomeCounts = outcomeCounts;
+        this.roundCount = roundCount;
+        this.runTimeInNs = runTimeInNs;
+
+        for (int ctr = 0; ctr < outcomeCounts.length; ctr++) {
+
+            this.outcomeNames[ctr] = test.getOutcomeName(ctr);
+            this.outcomeExpects[ctr] = test.getExpect(ctr);
+        }
+    }
+
+    /**
+     * Gets test name.
+     *
+     * @return Name.
+     */
+    public String getName() {
+
+        return this.name;
+    }
+
+    /**
+     * Gets samples (state instances classified).
+     *
+     * @return Sample count.
+     */
+    public long getSampleCount() {
+
+        long result = 0L;
+
+        for (final long item : this.outcomeCounts) {
+
+            result += item;
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets samples with forbidden outcomes.
+     *
+     * @return Forbidden count.
+     */
+    public long getForbiddenCount() {
+
+        return this.getCount(LitmusExpect.FORBIDDEN);
+    }
+
+    /**
+     * Gets samples with interesting (acceptable, but raced) outcomes.
+     *
+     * @return Interesting count.
+     */
+    public long getInterestingCount() {
+
+        return this.getCount(LitmusExpect.ACCEPTABLE_INTERESTING);
+    }
+
+    /**
+     * Gets samples with outcomes of a grade.
+     *
+     * @param expect Grade.
+     * @return Sample count.
+     */
+    private long getCount(final LitmusExpect expect) {
+
+        long result = 0L;
+
+        for (int ctr = 0; ctr < this.outcomeCounts.length; ctr++) {
+
+            if (this.outcomeExpects[ctr] == expect) {
+
+                result += this.outcomeCounts[ctr];
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets samples per second.
+     *
+     * @return Samples/sec.
+     */
+    public double getSamplesPerSec() {
+
+        return ((this.runTimeInNs > 0L) ?
+                ((this.getSampleCount() * (double) TimeUnit.SECONDS.toNanos(1L)) / this.runTimeInNs) : 0.0);
+    }
+
+    /**
+     * Gets rounds run.
+     *
+     * @return Round count.
+     */
+    public long getRoundCount() {
+
+        return this.roundCount;
+    }
+
+    /**
+     * Formats as a table: one row per observed outcome.
+     *
+     * @return Formatted result.
+     */
+    public String format() {
+
+        final StringBuilder result = new StringBuilder();
+
+        result.append(String.format("%s: %d samples in %d rounds (%.0f samples/sec), %d interesting, %d forbidden\n",
+                this.name, this.getSampleCount(), this.roundCount, this.getSamplesPerSec(),
+                this.getInterestingCount(), this.getForbiddenCount()));
+
+        for (int ctr = 0; ctr < this.outcomeCounts.length; ctr++) {
+
+            if (this.outcomeCounts[ctr] > 0L) {
+
+                result.append(String.format("  %-34s %14d  %s\n", this.outcomeNames[ctr], this.outcomeCounts[ctr],
+                        this.outcomeExpects[ctr]));
+            }
+        }
+
+        return result.toString();
+    }
+}
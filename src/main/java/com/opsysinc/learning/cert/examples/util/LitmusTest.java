@@ -0,0 +1,79 @@
+package com.opsysinc.learning.cert.examples.util;
+
+/**
+ * Litmus test: actors each act once on a small, independent state instance, then
+ * the outcome is classified (see LitmusEngine).
+ *
+ * @param <S> State type.
+ */
+public interface LitmusTest<S> {
+
+    /**
+     * Gets name.
+     *
+     * @return Name.
+     */
+    String getName();
+
+    /**
+     * Gets actors (one thread each).
+     *
+     * @return Actor count.
+     */
+    int getActorCount();
+
+    /**
+     * Builds state, in its initial state.
+     *
+     * @return State.
+     */
+    S newState();
+
+    /**
+     * Resets state to its initial state, for reuse.
+     *
+     * @param state State.
+     */
+    void reset(S state);
+
+    /**
+     * Acts on state (actor's thread).
+     *
+     * @param actor Actor index.
+     * @param state State.
+     * @return Observed value, or 0 if none.
+     */
+    long act(int actor, S state);
+
+    /**
+     * Classifies outcome, once all actors acted on state.
+     *
+     * @param state        State.
+     * @param actorResults Actors' observed values, by actor index.
+     * @return Outcome (0 to getOutcomeCount() - 1).
+     */
+    int outcomeOf(S state, long[] actorResults);
+
+    /**
+     * Gets possible outcomes.
+     *
+     * @return Outcome count.
+     */
+    int getOutcomeCount();
+
+    /**
+     * Gets outcome name.
+     *
+     * @param outcome Outcome.
+     * @return Name.
+     */
+    String getOutcomeName(int outcome);
+
+    /**
+     * Grades outcome.
+     *
+     * @param outcome Outcome.
+     * @return Grade.
+     */
+    LitmusExpect getExpect(int outcome);
+}
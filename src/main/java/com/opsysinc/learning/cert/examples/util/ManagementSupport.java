@@ -0,0 +1,78 @@
+package com.opsysinc.learning.cert.examples.util;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registers MBeans with the platform MBean server, under one domain.
+ */
+public final class ManagementSupport {
+
+    /**
+     * MBean domain.
+     */
+    public static final String DOMAIN = "com.opsysinc.learning.cert.examples";
+
+    /**
+     * Registrations so far, keeping names unique when ids repeat.
+     */
+    private static final AtomicLong REGISTRATION_COUNT = new AtomicLong(0L);
+
+    /**
+     * Hidden ctor.
+     */
+    private ManagementSupport() {
+
+        // ignore;
+    }
+
+    /**
+     * Registers MBean.
+     *
+     * @param type  Type key (e.g., "Test").
+     * @param name  Name key (quoted as needed).
+     * @param mbean MBean.
+     * @return Registered name, or null on failure (reported).
+     */
+    public static ObjectName register(final String type,
+                                      final String name,
+                                      final Object mbean) {
+
+        try {
+
+            final ObjectName result = new ObjectName(String.format("%s:type=%s,name=%s,instance=%d",
+                    ManagementSupport.DOMAIN, type, ObjectName.quote(name),
+                    ManagementSupport.REGISTRATION_COUNT.incrementAndGet()));
+
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, result);
+            return result;
+
+        } catch (final JMException ex) {
+
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Unregisters MBean.
+     *
+     * @param objectName Registered name, or null (ignored).
+     */
+    public static void unregister(final ObjectName objectName) {
+
+        if (objectName != null) {
+
+            try {
+
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+
+            } catch (final JMException ex) {
+
+                ex.printStackTrace();
+            }
+        }
+    }
+}
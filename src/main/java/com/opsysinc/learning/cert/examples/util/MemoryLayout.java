@@ -0,0 +1,17 @@
+package com.opsysinc.learning.cert.examples.util;
+
+/**
+ * Memory layouts for hot, per-thread or shared mutable state.
+ */
+public enum MemoryLayout {
+
+    /**
+     * No padding; objects allocated together may share cache lines.
+     */
+    COMPACT,
+
+    /**
+     * Padded, so each object's hot fields get cache lines of their own.
+     */
+    PADDED
+}
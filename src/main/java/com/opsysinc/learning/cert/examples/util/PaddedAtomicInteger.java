@@ -0,0 +1,34 @@
+package com.opsysinc.learning.cert.examples.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AtomicInteger followed by two cache lines of padding.
+ * <p/>
+ * Keeps objects allocated after a shared counter (e.g., worker state) off the
+ * counter's cache line.
+ */
+public final class PaddedAtomicInteger extends AtomicInteger {
+
+    /**
+     * Serial version.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Padding.
+     */
+    @SuppressWarnings("unused")
+    private long p01, p02, p03, p04, p05, p06, p07, p08,
+            p09, p10, p11, p12, p13, p14, p15, p16;
+
+    /**
+     * Basic ctor.
+     *
+     * @param initialValue Initial value.
+     */
+    public PaddedAtomicInteger(final int initialValue) {
+
+        super(initialValue);
+    }
+}
@@ -0,0 +1,17 @@
+package com.opsysinc.learning.cert.examples.util;
+
+/**
+ * IntSampleSlot followed by two cache lines of padding.
+ * <p/>
+ * Slots are allocated back to back at start up, so trailing padding alone keeps
+ * each slot's fields off its neighbors' cache lines (and adjacent-line prefetch).
+ */
+final class PaddedIntSampleSlot extends IntSampleSlot {
+
+    /**
+     * Padding.
+     */
+    @SuppressWarnings("unused")
+    private long p01, p02, p03, p04, p05, p06, p07, p08,
+            p09, p10, p11, p12, p13, p14, p15, p16;
+}
@@ -1,37 +1,21 @@
 package com.opsysinc.learning.cert.examples.util;
 
 
-import java.util.*;
-import java.util.concurrent.BrokenBarrierException;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.CyclicBarrier;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * Reader/writer base class.
  * <p/>
  * Created by Michael J. Kitchin on 8/12/2015.
  */
-public abstract class ReaderWriterBase<T extends Comparable> {
+public abstract class ReaderWriterBase<T extends Comparable<? super T>>
+        extends AbstractReaderWriterBase<ReaderWriterBase.ReaderWriterWorker<T>> {
 
     /**
-     * Reader threads.
+     * Latest expected value, or null if none (volatile for JMX readers).
      */
-    private List<Thread> workerThreads;
-
-    /**
-     * Reader workers.
-     */
-    private List<ReaderWriterBase.ReaderWriterWorker<T>> readerWorkers;
-
-    /**
-     * Writer workers.
-     */
-    private List<ReaderWriterBase.ReaderWriterWorker<T>> writerWorkers;
-
-    /**
-     * My id.
-     */
-    private final String id;
+    private volatile T lastExpectedValue;
 
     /**
      * Basic ctor.
@@ -40,113 +24,85 @@ public abstract class ReaderWriterBase<T extends Comparable> {
      */
     public ReaderWriterBase(final String id) {
 
-        this.id = id;
+        super(id);
     }
 
-    /**
-     * Start up.
-     *
-     * @param readerWorkers Readers.
-     * @param writerWorkers Writers.
-     */
-    public void startUp(final List<ReaderWriterBase.ReaderWriterWorker<T>> readerWorkers,
-                        final List<ReaderWriterBase.ReaderWriterWorker<T>> writerWorkers) {
+    @Override
+    protected void checkWorkers() throws InterruptedException {
 
-        if (this.workerThreads == null) {
+        final long workTime = System.nanoTime();
+        final List<ReaderWriterBase.ReaderWriterWorker<T>> allWorkers = this.getAllWorkers();
 
-            this.readerWorkers = readerWorkers;
-            this.writerWorkers = writerWorkers;
+        final T expectedValue = this.nextExpectedValue();
 
-            final int totalWorkers = (this.readerWorkers.size() + this.writerWorkers.size());
+        this.lastExpectedValue = expectedValue;
+        T highestWriterValue = null;
 
-            final CountDownLatch startUpLatch = new CountDownLatch(totalWorkers + 1);
-            final CyclicBarrier workerBarrier = new CyclicBarrier(totalWorkers, new Runnable() {
+        for (final ReaderWriterBase.ReaderWriterWorker<T> workerItem : allWorkers) {
 
-                @Override
-                public void run() {
+            if (!workerItem.isReader()) {
 
-                    try {
+                final T prevValue = workerItem.getPrevData();
 
-                        ReaderWriterBase.this.checkWorkers();
+                if (prevValue != null) {
 
-                    } catch (final InterruptedException ex) {
+                    if ((highestWriterValue == null) ||
+                            (highestWriterValue.compareTo(prevValue) < 0)) {
 
-                        // ignore;
+                        highestWriterValue = prevValue;
                     }
                 }
-            });
-
-            this.workerThreads = new ArrayList<>();
-
-            for (final ReaderWriterBase.ReaderWriterWorker<T> item : readerWorkers) {
-
-                item.setStartUpLatch(startUpLatch);
-                item.setWorkBarrier(workerBarrier);
-
-                final Thread readerThread = new Thread(item);
-
-                readerThread.setDaemon(true);
-                readerThread.start();
-
-                this.workerThreads.add(readerThread);
             }
+        }
 
-            for (final ReaderWriterBase.ReaderWriterWorker<T> item : writerWorkers) {
-
-                item.setStartUpLatch(startUpLatch);
-                item.setWorkBarrier(workerBarrier);
+        boolean isOutOfOrder = false;
 
-                final Thread writerThread = new Thread(item);
+        if ((expectedValue != null) &&
+                (highestWriterValue != null)) {
 
-                writerThread.setDaemon(true);
-                writerThread.start();
+            if (!expectedValue.equals(highestWriterValue)) {
 
-                this.workerThreads.add(writerThread);
+                isOutOfOrder = true;
             }
-
-            startUpLatch.countDown();
         }
-    }
 
-    /**
-     * Checks workers.
-     */
-    private void checkWorkers() throws InterruptedException {
-
-        final long workTime = System.nanoTime();
+        if (isOutOfOrder) {
 
-        final T expectedValue = this.nextExpectedValue();
-        T highestWriterValue = null;
+            this.recordViolation("WRITERS OUT OF ORDER",
+                    ReaderWriterBase.toLong(expectedValue), ReaderWriterBase.toLong(highestWriterValue));
 
-        for (final List<ReaderWriterBase.ReaderWriterWorker<T>> listItem :
-                Arrays.asList(this.writerWorkers, this.readerWorkers)) {
+            final ViolationReport report = this.claimViolationReport(
+                    ViolationReport.Kind.WRITERS_OUT_OF_ORDER, workTime);
 
-            for (final ReaderWriterBase.ReaderWriterWorker<T> workerItem : listItem) {
+            if (report != null) {
 
-                workerItem.setWorkTime(workTime);
+                report.setValues(0L, expectedValue, highestWriterValue);
 
-                if (!workerItem.isReader()) {
+                for (final ReaderWriterBase.ReaderWriterWorker<T> workerItem : allWorkers) {
 
                     final T prevValue = workerItem.getPrevData();
 
                     if (prevValue != null) {
 
-                        if ((highestWriterValue == null) ||
-                                (highestWriterValue.compareTo(prevValue) < 0)) {
-
-                            highestWriterValue = prevValue;
-                        }
+                        report.addRow(workerItem.isReader(), null, prevValue,
+                                (!workerItem.isReader() && !prevValue.equals(expectedValue)));
                     }
                 }
+
+                ViolationReporter.submit(report);
             }
         }
+    }
+
+    @Override
+    protected void verifyWorkers() throws InterruptedException {
 
+        final List<ReaderWriterBase.ReaderWriterWorker<T>> allWorkers = this.getAllWorkers();
         boolean isOutOfOrder = false;
 
-        if ((expectedValue != null) &&
-                (highestWriterValue != null)) {
+        for (final ReaderWriterBase.ReaderWriterWorker<T> workerItem : allWorkers) {
 
-            if (!expectedValue.equals(highestWriterValue)) {
+            if (!workerItem.sample()) {
 
                 isOutOfOrder = true;
             }
@@ -154,55 +110,102 @@ public abstract class ReaderWriterBase<T extends Comparable> {
 
         if (isOutOfOrder) {
 
-            synchronized (System.out) {
+            ReaderWriterBase.ReaderWriterWorker<T> firstItem = null;
+
+            for (final ReaderWriterBase.ReaderWriterWorker<T> workerItem : allWorkers) {
+
+                if ((firstItem == null) &&
+                        workerItem.isSampledOutOfOrder()) {
 
-                System.out.println(String.format("\n%s - WRITERS OUT OF ORDER (stopping)", this.id));
-                System.out.println(String.format("Expected value=%s\n", String.valueOf(expectedValue)));
+                    firstItem = workerItem;
+                }
+            }
+
+            this.recordViolation("WORKERS OUT OF ORDER",
+                    ((firstItem == null) ? 0L : ReaderWriterBase.toLong(firstItem.getVerifiedData())),
+                    ((firstItem == null) ? 0L : ReaderWriterBase.toLong(firstItem.getSampledData())));
+
+            final ViolationReport report = this.claimViolationReport(
+                    ViolationReport.Kind.WORKERS_OUT_OF_ORDER, System.nanoTime());
 
-                for (final List<ReaderWriterBase.ReaderWriterWorker<T>> listItem :
-                        Arrays.asList(this.writerWorkers, this.readerWorkers)) {
+            if (report != null) {
 
-                    for (final ReaderWriterBase.ReaderWriterWorker<T> workerItem : listItem) {
+                for (final ReaderWriterBase.ReaderWriterWorker<T> workerItem : allWorkers) {
 
-                        final T prevValue = workerItem.getPrevData();
+                    final T sampledValue = workerItem.getSampledData();
 
-                        if (prevValue != null) {
+                    if (sampledValue != null) {
 
-                            System.out.println(String.format("%s / %s / %s%s",
-                                    (workerItem.isReader() ? "READER" : "WRITER"),
-                                    String.valueOf(workTime),
-                                    String.valueOf(prevValue),
-                                    ((!workerItem.isReader() && !prevValue.equals(expectedValue)) ? " / ***" : "")));
-                        }
+                        report.addRow(workerItem.isReader(), workerItem.getVerifiedData(), sampledValue,
+                                workerItem.isSampledOutOfOrder());
                     }
                 }
 
-                this.cleanUp();
+                ViolationReporter.submit(report);
+            }
+
+        } else {
+
+            for (final ReaderWriterBase.ReaderWriterWorker<T> workerItem : allWorkers) {
+
+                workerItem.acceptSample();
             }
         }
     }
 
-    /**
-     * Clean up.
-     */
-    public void cleanUp() throws InterruptedException {
+    @Override
+    protected void checkWriterTotals() {
 
-        if (this.workerThreads != null) {
+        long totalWrites = 0L;
+        T highestWriterValue = null;
 
-            for (final Thread item : this.workerThreads) {
+        for (final ReaderWriterBase.ReaderWriterWorker<T> workerItem : this.getWriterWorkers()) {
 
-                item.interrupt();
-            }
+            totalWrites += workerItem.getOpCount();
 
-            for (final Thread item : this.workerThreads) {
+            final T prevValue = workerItem.getPrevData();
 
-                item.join();
+            if ((prevValue != null) &&
+                    ((highestWriterValue == null) ||
+                            (highestWriterValue.compareTo(prevValue) < 0))) {
+
+                highestWriterValue = prevValue;
             }
+        }
+
+        final T expectedValue = this.expectedValueAfter(totalWrites);
 
-            this.workerThreads = null;
+        this.lastExpectedValue = expectedValue;
+
+        if ((expectedValue != null) &&
+                (highestWriterValue != null) &&
+                !expectedValue.equals(highestWriterValue)) {
+
+            this.recordViolation("WRITERS LOST UPDATES",
+                    ReaderWriterBase.toLong(expectedValue), ReaderWriterBase.toLong(highestWriterValue));
+
+            final ViolationReport report = this.claimViolationReport(
+                    ViolationReport.Kind.WRITERS_LOST_UPDATES, System.nanoTime());
+
+            if (report != null) {
+
+                report.setValues(totalWrites, expectedValue, highestWriterValue);
+                ViolationReporter.submit(report);
+            }
         }
     }
 
+    /**
+     * Gets value as a long, for violation events.
+     *
+     * @param value Value (may be null).
+     * @return Value, if a number, or 0 otherwise.
+     */
+    private static long toLong(final Object value) {
+
+        return ((value instanceof Number) ? ((Number) value).longValue() : 0L);
+    }
+
     /**
      * Gets next expected value.
      *
@@ -210,10 +213,36 @@ public abstract class ReaderWriterBase<T extends Comparable> {
      */
     protected abstract T nextExpectedValue();
 
+    @Override
+    public String getExpectedValue() {
+
+        final T lastExpectedValue = this.lastExpectedValue;
+
+        return ((lastExpectedValue == null) ? "" : String.valueOf(lastExpectedValue));
+    }
+
+    /**
+     * Gets expected value after a given number of writes (free-running mode).
+     *
+     * @param totalWrites Total writes.
+     * @return Expected value, or null to skip this check.
+     */
+    protected T expectedValueAfter(final long totalWrites) {
+
+        return null;
+    }
+
     /**
      * Base worker class.
      */
-    protected abstract static class ReaderWriterWorker<T> implements Runnable {
+    public abstract static class ReaderWriterWorker<T extends Comparable<? super T>> extends AbstractReaderWriterBase.AbstractReaderWriterWorker {
+
+        /**
+         * Published data updater.
+         */
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<ReaderWriterWorker, Object> PUBLISHED_DATA_UPDATER =
+                AtomicReferenceFieldUpdater.newUpdater(ReaderWriterWorker.class, Object.class, "publishedData");
 
         /**
          * Last reader data.
@@ -221,24 +250,24 @@ public abstract class ReaderWriterBase<T extends Comparable> {
         private T prevData;
 
         /**
-         * True if reader, false otherwise.
+         * Last data, published for the verifier (free-running mode).
          */
-        private final boolean isReader;
+        private volatile T publishedData;
 
         /**
-         * Start up latch.
+         * Data from the verifier's current pass (free-running mode).
          */
-        private CountDownLatch startUpLatch;
+        private T sampledData;
 
         /**
-         * Work barrier
+         * Completed operations.
          */
-        private CyclicBarrier workBarrier;
+        private long opCount;
 
         /**
-         * Work time.
+         * Data accepted on the verifier's previous pass (free-running mode).
          */
-        private long workTime;
+        private T verifiedData;
 
         /**
          * Basic ctor.
@@ -247,99 +276,109 @@ public abstract class ReaderWriterBase<T extends Comparable> {
          */
         public ReaderWriterWorker(final boolean isReader) {
 
-            this.isReader = isReader;
+            super(isReader);
         }
 
         @Override
-        public void run() {
+        protected void countOp() {
 
-            try {
+            this.opCount++;
+        }
 
-                this.startUpLatch.countDown();
-                this.startUpLatch.await();
+        @Override
+        public long getOpCount() {
 
-                while (!Thread.interrupted()) {
+            return this.opCount;
+        }
 
-                    this.workBarrier.await();
+        /**
+         * Log sample.
+         *
+         * @param data Sample data.
+         */
+        public void logSample(final T data) {
 
-                    this.runImpl();
-                    Thread.sleep(1L);
-                }
+            this.prevData = data;
 
-            } catch (final InterruptedException |
-                    BrokenBarrierException ex) {
+            if (this.isFreeRunning()) {
 
-                // ignore;
+                ReaderWriterWorker.PUBLISHED_DATA_UPDATER.lazySet(this, data);
+            }
 
-            } catch (final Exception ex) {
+            if (data instanceof Number) {
 
-                ex.printStackTrace();
+                this.journalSample(((Number) data).longValue());
             }
         }
 
         /**
-         * Run implementation.
-         */
-        protected abstract void runImpl();
-
-        /**
-         * Gets is reader flag.
+         * Gets prev data.
          *
-         * @return True if reader, false otherwise.
+         * @return Prev data.
          */
-        public boolean isReader() {
+        public T getPrevData() {
 
-            return this.isReader;
+            return this.prevData;
         }
 
         /**
-         * Log sample.
+         * Samples published data (verifier thread only).
          *
-         * @param data Sample data.
+         * @return True if in order with the previous pass, false otherwise.
          */
-        public void logSample(final T data) {
+        boolean sample() {
 
-            this.prevData = data;
+            final T publishedData = this.publishedData;
+
+            if (publishedData != null) {
+
+                this.sampledData = publishedData;
+            }
+
+            return !this.isSampledOutOfOrder();
         }
 
         /**
-         * Sets startup latch.
-         *
-         * @param startUpLatch Startup latch.
+         * Accepts sampled data as verified (verifier thread only).
          */
-        public void setStartUpLatch(final CountDownLatch startUpLatch) {
+        void acceptSample() {
+
+            if (this.sampledData != null) {
 
-            this.startUpLatch = startUpLatch;
+                this.verifiedData = this.sampledData;
+            }
         }
 
         /**
-         * Gets prev data.
+         * Gets sampled out of order flag.
          *
-         * @return Prev data.
+         * @return True if sampled data is behind verified data, false otherwise.
          */
-        public T getPrevData() {
+        public boolean isSampledOutOfOrder() {
 
-            return this.prevData;
+            return ((this.sampledData != null) &&
+                    (this.verifiedData != null) &&
+                    (this.sampledData.compareTo(this.verifiedData) < 0));
         }
 
         /**
-         * Sets work barrier.
+         * Gets sampled data.
          *
-         * @param workBarrier Work barrier.
+         * @return Sampled data.
          */
-        public void setWorkBarrier(final CyclicBarrier workBarrier) {
+        public T getSampledData() {
 
-            this.workBarrier = workBarrier;
+            return this.sampledData;
         }
 
         /**
-         * Sets work time.
+         * Gets verified data.
          *
-         * @param workTime Work time.
+         * @return Verified data.
          */
-        public void setWorkTime(final long workTime) {
+        public T getVerifiedData() {
 
-            this.workTime = workTime;
+            return this.verifiedData;
         }
     }
 }
@@ -0,0 +1,80 @@
+package com.opsysinc.learning.cert.examples.util;
+
+/**
+ * Live test metrics, registered over JMX while a test runs.
+ * <p/>
+ * Op counts are summed from per-worker counters on read, so workers never share a
+ * counter; live figures are approximate until the test is cleaned up.
+ */
+public interface ReaderWriterBaseMXBean {
+
+    /**
+     * Gets my id.
+     *
+     * @return Id.
+     */
+    String getId();
+
+    /**
+     * Gets run mode.
+     *
+     * @return Run mode.
+     */
+    RunMode getRunMode();
+
+    /**
+     * Gets completed worker operations, so far.
+     *
+     * @return Op count.
+     */
+    long getOpCount();
+
+    /**
+     * Gets completed worker operations per second, so far.
+     *
+     * @return Ops/sec.
+     */
+    double getOpsPerSec();
+
+    /**
+     * Gets work barrier trips, so far.
+     *
+     * @return Trip count.
+     */
+    long getBarrierTripCount();
+
+    /**
+     * Gets work barrier trips per second, so far.
+     *
+     * @return Trips/sec.
+     */
+    double getTripsPerSec();
+
+    /**
+     * Gets latest expected value.
+     *
+     * @return Expected value, or an empty string if none yet.
+     */
+    String getExpectedValue();
+
+    /**
+     * Gets violations detected, so far.
+     *
+     * @return Violation count.
+     */
+    int getViolationCount();
+
+    /**
+     * Gets live worker threads.
+     *
+     * @return Active worker count.
+     */
+    int getActiveWorkerCount();
+
+    /**
+     * Gets elapsed (or, once cleaned up, total) run time in MS.
+     *
+     * @return Elapsed time in MS.
+     */
+    long getElapsedTimeInMs();
+}
@@ -0,0 +1,30 @@
+package com.opsysinc.learning.cert.examples.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event: one sampled runImpl() call.
+ */
+@Name("cert.examples.RunImpl")
+@Label("Run Impl")
+@Category("CERT Examples")
+@Description("One sampled reader/writer runImpl() call.")
+@StackTrace(false)
+final class RunImplEvent extends jdk.jfr.Event {
+
+    /**
+     * True if reader, false if writer.
+     */
+    @Label("Reader")
+    boolean isReader;
+
+    /**
+     * Worker operations completed before this one.
+     */
+    @Label("Op Count")
+    long opCount;
+}
@@ -0,0 +1,17 @@
+package com.opsysinc.learning.cert.examples.util;
+
+/**
+ * Worker run modes.
+ */
+public enum RunMode {
+
+    /**
+     * Workers step together through a shared barrier, which checks them on every trip.
+     */
+    LOCKSTEP,
+
+    /**
+     * Workers run without pausing; a sampling verifier checks them without stopping them.
+     */
+    FREE_RUNNING
+}
@@ -0,0 +1,132 @@
+package com.opsysinc.learning.cert.examples.util;
+
+
+/**
+ * Single-writer ring buffer of timestamped samples.
+ * <p/>
+ * Preallocated, so recording doesn't allocate, lock or fence; once full, the oldest
+ * samples are overwritten. Only the owning worker writes, and entries are read only
+ * once that worker has stopped (its thread joined), which publishes them.
+ */
+public final class SampleJournal {
+
+    /**
+     * Longs per entry (time, value).
+     */
+    static final int ENTRY_LONGS = 2;
+
+    /**
+     * Entries, as time/value pairs.
+     */
+    private final long[] entries;
+
+    /**
+     * Capacity mask (capacity - 1).
+     */
+    private final int mask;
+
+    /**
+     * Samples recorded, including any overwritten.
+     */
+    private long recordedCount;
+
+    /**
+     * Basic ctor.
+     *
+     * @param capacity Capacity, in samples (rounded up to a power of two).
+     */
+    public SampleJournal(final int capacity) {
+
+        if ((capacity < 1) ||
+                (capacity > (1 << 26))) {
+
+            throw new IllegalArgumentException(String.format(
+                    "Invalid journal capacity (capacity=%d).", capacity));
+        }
+
+        final int roundedCapacity = ((capacity == 1) ? 1 : Integer.highestOneBit((capacity - 1) << 1));
+
+        this.entries = new long[roundedCapacity * SampleJournal.ENTRY_LONGS];
+        this.mask = (roundedCapacity - 1);
+    }
+
+    /**
+     * Records sample (owning worker only).
+     *
+     * @param timeInNs Sample time (System.nanoTime()).
+     * @param value    Sample value.
+     */
+    public void record(final long timeInNs, final long value) {
+
+        final int index = (((int) this.recordedCount & this.mask) * SampleJournal.ENTRY_LONGS);
+
+        this.entries[index] = timeInNs;
+        this.entries[index + 1] = value;
+        this.recordedCount++;
+    }
+
+    /**
+     * Gets capacity.
+     *
+     * @return Capacity, in samples.
+     */
+    public int getCapacity() {
+
+        return (this.mask + 1);
+    }
+
+    /**
+     * Gets samples recorded, including any overwritten.
+     *
+     * @return Recorded count.
+     */
+    public long getRecordedCount() {
+
+        return this.recordedCount;
+    }
+
+    /**
+     * Gets samples retained.
+     *
+     * @return Retained count.
+     */
+    public int getRetainedCount() {
+
+        return (int) Math.min(this.recordedCount, this.getCapacity());
+    }
+
+    /**
+     * Gets retained sample time, oldest first.
+     *
+     * @param index Retained sample index.
+     * @return Sample time.
+     */
+    public long getTimeAt(final int index) {
+
+        return this.entries[this.entryIndexOf(index)];
+    }
+
+    /**
+     * Gets retained sample value, oldest first.
+     *
+     * @param index Retained sample index.
+     * @return Sample value.
+     */
+    public long getValueAt(final int index) {
+
+        return this.entries[this.entryIndexOf(index) + 1];
+    }
+
+    /**
+     * Gets entry array index for retained sample index.
+     *
+     * @param index Retained sample index.
+     * @return Entry array index.
+     */
+    private int entryIndexOf(final int index) {
+
+        final long firstRetained = (this.recordedCount - this.getRetainedCount());
+
+        return (((int) (firstRetained + index) & this.mask) * SampleJournal.ENTRY_LONGS);
+    }
+}
@@ -0,0 +1,297 @@
+package com.opsysinc.learning.cert.examples.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Binary, memory-mapped dump of worker sample journals.
+ * <p/>
+ * Layout (big-endian): magic, version, test start time (ns), id (length-prefixed
+ * UTF-8), worker count; then per worker (writers first, then readers): reader flag,
+ * samples recorded, samples retained, and retained time/value pairs, oldest first.
+ * <p/>
+ * Files are mapped a window at a time, as one mapping can't exceed 2 GB (and
+ * 20 workers journaling up to 2^26 samples each can).
+ * <p/>
+ * Run as a program to print a dump as one trace, merged by time:
+ * <pre>
+ * mvn -B exec:java -Dexec.mainClass=com.opsysinc.learning.cert.examples.util.SampleJournalFile -Dexec.args="&lt;file&gt;"
+ * </pre>
+ */
+public final class SampleJournalFile {
+
+    /**
+     * File magic ("VNAJ").
+     */
+    private static final int MAGIC = 0x564E414A;
+
+    /**
+     * File version.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Mapped window size, in bytes.
+     */
+    private static final long WINDOW_SIZE = (64L << 20);
+
+    /**
+     * Hidden ctor.
+     */
+    private SampleJournalFile() {
+
+        // ignore;
+    }
+
+    /**
+     * Writes journals of stopped workers (or, best effort, of running workers, whose
+     * latest samples may be torn or missing).
+     *
+     * @param directory     Target directory (created if needed).
+     * @param id            Test id.
+     * @param startTimeInNs Test start time (System.nanoTime()).
+     * @param workers       Stopped workers.
+     * @return Written file.
+     * @throws IOException On write failure.
+     */
+    public static Path write(final Path directory,
+                             final String id,
+                             final long startTimeInNs,
+                             final List<? extends AbstractReaderWriterBase.AbstractReaderWriterWorker> workers)
+            throws IOException {
+
+        final byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        final long[] recordedCounts = new long[workers.size()];
+        final int[] retainedCounts = new int[workers.size()];
+        long fileSize = (4L + 4L + 8L + 4L + idBytes.length + 4L);
+
+        // snapshot counts first, so running workers can't outgrow the file;
+        for (int ctr = 0; ctr < workers.size(); ctr++) {
+
+            final SampleJournal journal = workers.get(ctr).getJournal();
+
+            if (journal != null) {
+
+                recordedCounts[ctr] = journal.getRecordedCount();
+                retainedCounts[ctr] = (int) Math.min(recordedCounts[ctr], journal.getCapacity());
+            }
+
+            fileSize += (1L + 8L + 4L + ((long) retainedCounts[ctr] * SampleJournal.ENTRY_LONGS * 8L));
+        }
+
+        Files.createDirectories(directory);
+
+        final Path file = directory.resolve(String.format("%s-%d.journal",
+                id.replaceAll("[^A-Za-z0-9._-]+", "_"), startTimeInNs));
+
+        try (final FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            final MappedWindow window = new MappedWindow(channel, FileChannel.MapMode.READ_WRITE, fileSize);
+
+            window.ensure(4 + 4 + 8 + 4).putInt(SampleJournalFile.MAGIC)
+                    .putInt(SampleJournalFile.VERSION)
+                    .putLong(startTimeInNs)
+                    .putInt(idBytes.length);
+            window.ensure(idBytes.length).put(idBytes);
+            window.ensure(4).putInt(workers.size());
+
+            for (int workerCtr = 0; workerCtr < workers.size(); workerCtr++) {
+
+                final AbstractReaderWriterBase.AbstractReaderWriterWorker item = workers.get(workerCtr);
+                final SampleJournal journal = item.getJournal();
+
+                window.ensure(1 + 8 + 4).put((byte) (item.isReader() ? 1 : 0))
+                        .putLong(recordedCounts[workerCtr])
+                        .putInt(retainedCounts[workerCtr]);
+
+                for (int ctr = 0; ctr < retainedCounts[workerCtr]; ctr++) {
+
+                    window.ensure(8 + 8).putLong(journal.getTimeAt(ctr))
+                            .putLong(journal.getValueAt(ctr));
+                }
+            }
+
+            window.force();
+        }
+
+        return file;
+    }
+
+    /**
+     * Prints a dump as one trace, merged by time.
+     *
+     * @param args Dump file.
+     */
+    public static void main(final String[] args) {
+
+        try {
+
+            if (args.length != 1) {
+
+                System.out.println("Usage: SampleJournalFile <file>");
+                return;
+            }
+
+            try (final FileChannel channel = FileChannel.open(Paths.get(args[0]), StandardOpenOption.READ)) {
+
+                final MappedWindow window = new MappedWindow(channel, FileChannel.MapMode.READ_ONLY, channel.size());
+                ByteBuffer buffer = window.ensure(4 + 4 + 8 + 4);
+
+                if ((buffer.getInt() != SampleJournalFile.MAGIC) ||
+                        (buffer.getInt() != SampleJournalFile.VERSION)) {
+
+                    throw new IOException("Not a sample journal: " + args[0]);
+                }
+
+                final long startTimeInNs = buffer.getLong();
+                final byte[] idBytes = new byte[buffer.getInt()];
+
+                window.ensure(idBytes.length).get(idBytes);
+
+                final int workerCount = window.ensure(4).getInt();
+                final List<long[]> entries = new ArrayList<>();
+
+                System.out.println(new String(idBytes, StandardCharsets.UTF_8));
+
+                for (int workerCtr = 0; workerCtr < workerCount; workerCtr++) {
+
+                    buffer = window.ensure(1 + 8 + 4);
+
+                    final boolean isReader = (buffer.get() != 0);
+                    final long recordedCount = buffer.getLong();
+                    final int retainedCount = buffer.getInt();
+
+                    System.out.println(String.format("%s #%d: %d recorded, %d retained",
+                            (isReader ? "READER" : "WRITER"), workerCtr, recordedCount, retainedCount));
+
+                    for (int ctr = 0; ctr < retainedCount; ctr++) {
+
+                        buffer = window.ensure(8 + 8);
+
+                        final long timeInNs = buffer.getLong();
+
+                        entries.add(new long[]{timeInNs, workerCtr, (isReader ? 1L : 0L), buffer.getLong()});
+                    }
+                }
+
+                entries.sort(Comparator.comparingLong((final long[] item) -> item[0]));
+
+                System.out.println(String.format("\n%14s %-14s %s", "ns", "worker", "value"));
+
+                for (final long[] item : entries) {
+
+                    System.out.println(String.format("%14d %-14s %d",
+                            (item[0] - startTimeInNs),
+                            String.format("%s #%d", ((item[2] != 0L) ? "READER" : "WRITER"), item[1]),
+                            item[3]));
+                }
+            }
+
+        } catch (final Exception ex) {
+
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * Sequential access to a file through a window of it, mapped (and remapped) as needed.
+     */
+    private static final class MappedWindow {
+
+        /**
+         * File channel.
+         */
+        private final FileChannel channel;
+
+        /**
+         * Map mode.
+         */
+        private final FileChannel.MapMode mapMode;
+
+        /**
+         * File size, in bytes.
+         */
+        private final long fileSize;
+
+        /**
+         * Window start, in bytes.
+         */
+        private long windowStart;
+
+        /**
+         * Window, or null if none mapped yet.
+         */
+        private MappedByteBuffer buffer;
+
+        /**
+         * Basic ctor.
+         *
+         * @param channel  File channel.
+         * @param mapMode  Map mode.
+         * @param fileSize File size, in bytes.
+         */
+        private MappedWindow(final FileChannel channel,
+                             final FileChannel.MapMode mapMode,
+                             final long fileSize) {
+
+            this.channel = channel;
+            this.mapMode = mapMode;
+            this.fileSize = fileSize;
+        }
+
+        /**
+         * Ensures the window holds the next bytes, remapping it from the current
+         * position if not.
+         *
+         * @param byteCount Bytes needed.
+         * @return Window, positioned at the next byte.
+         * @throws IOException On map failure, or if the file ends first.
+         */
+        private MappedByteBuffer ensure(final int byteCount) throws IOException {
+
+            if ((this.buffer == null) ||
+                    (this.buffer.remaining() < byteCount)) {
+
+                final long position = ((this.buffer == null) ? 0L : (this.windowStart + this.buffer.position()));
+
+                if ((position + byteCount) > this.fileSize) {
+
+                    throw new EOFException(String.format(
+                            "Sample journal truncated (position=%d, fileSize=%d).", position, this.fileSize));
+                }
+
+                this.force();
+                this.windowStart = position;
+                this.buffer = this.channel.map(this.mapMode, position,
+                        Math.max(byteCount, Math.min(SampleJournalFile.WINDOW_SIZE, (this.fileSize - position))));
+            }
+
+            return this.buffer;
+        }
+
+        /**
+         * Forces writes in the window, if writable.
+         */
+        private void force() {
+
+            if ((this.buffer != null) &&
+                    (this.mapMode == FileChannel.MapMode.READ_WRITE)) {
+
+                this.buffer.force();
+            }
+        }
+    }
+}
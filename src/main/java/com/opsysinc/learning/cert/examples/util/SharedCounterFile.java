@@ -0,0 +1,317 @@
+package com.opsysinc.learning.cert.examples.util;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Shared counter, with control fields and per-worker result slots, in a
+ * memory-mapped file (ideally on tmpfs, e.g., /dev/shm), for processes to share.
+ * <p/>
+ * Every field gets a cache line of its own. Fields are accessed through byte
+ * buffer view handles, which support atomic access modes on aligned offsets of
+ * direct buffers (as mapped buffers are). The mapping lasts until the buffer
+ * is collected.
+ */
+public final class SharedCounterFile {
+
+    /**
+     * Counter access modes (after the VNA00J examples).
+     */
+    public enum AccessMode {
+
+        /**
+         * Plain reads; increments read, add and write (as Non-Compliant).
+         */
+        PLAIN,
+
+        /**
+         * Opaque reads (as Compliant #5); increments read, add and write, so may be lost.
+         */
+        OPAQUE,
+
+        /**
+         * Acquire reads (as Compliant #6); increments read, add and release, so may be lost.
+         */
+        ACQUIRE_RELEASE,
+
+        /**
+         * Volatile reads; atomic increments (as Compliant #2).
+         */
+        ATOMIC
+    }
+
+    /**
+     * Round field: published by the coordinator to start each round of writes.
+     */
+    public static final int ROUND = 1;
+
+    /**
+     * Done field: writes completed, over all rounds.
+     */
+    public static final int DONE = 2;
+
+    /**
+     * Ready field: workers started.
+     */
+    public static final int READY = 3;
+
+    /**
+     * Stop field: non-zero to stop workers.
+     */
+    public static final int STOP = 4;
+
+    /**
+     * Slot field: operations.
+     */
+    public static final int SLOT_OP_COUNT = 0;
+
+    /**
+     * Slot field: last publish time in NS (writers).
+     */
+    public static final int SLOT_PUBLISH_TIME = 1;
+
+    /**
+     * Slot field: samples out of order (readers).
+     */
+    public static final int SLOT_OUT_OF_ORDER_COUNT = 1;
+
+    /**
+     * Slot field: publish latencies recorded (readers).
+     */
+    public static final int SLOT_LATENCY_COUNT = 2;
+
+    /**
+     * Slot field: publish latency p50 in NS (readers).
+     */
+    public static final int SLOT_LATENCY_P50 = 3;
+
+    /**
+     * Slot field: publish latency p99 in NS (readers).
+     */
+    public static final int SLOT_LATENCY_P99 = 4;
+
+    /**
+     * Slot field: publish latency p99.9 in NS (readers).
+     */
+    public static final int SLOT_LATENCY_P999 = 5;
+
+    /**
+     * Slot field: publish latency max in NS (readers).
+     */
+    public static final int SLOT_LATENCY_MAX = 6;
+
+    /**
+     * Cache line size, in bytes.
+     */
+    private static final int LINE_SIZE = 64;
+
+    /**
+     * Control fields (counter, then ROUND to STOP), one cache line each.
+     */
+    private static final int CONTROL_FIELD_COUNT = 5;
+
+    /**
+     * Long handle.
+     */
+    private static final VarHandle LONG_VALUE =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    /**
+     * Int handle.
+     */
+    private static final VarHandle INT_VALUE =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    /**
+     * Mapped file.
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * Worker slots.
+     */
+    private final int workerCount;
+
+    /**
+     * Basic ctor: maps file, creating (and zeroing) it as needed.
+     *
+     * @param file        File.
+     * @param workerCount Worker slots.
+     * @throws IOException On map failure.
+     */
+    public SharedCounterFile(final Path file,
+                             final int workerCount) throws IOException {
+
+        this.workerCount = workerCount;
+
+        try (final FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0L,
+                    (long) (SharedCounterFile.CONTROL_FIELD_COUNT + workerCount) * SharedCounterFile.LINE_SIZE);
+        }
+    }
+
+    /**
+     * Gets worker slots.
+     *
+     * @return Worker count.
+     */
+    public int getWorkerCount() {
+
+        return this.workerCount;
+    }
+
+    /**
+     * Reads counter.
+     *
+     * @param accessMode Access mode.
+     * @return Value.
+     */
+    public int readCounter(final AccessMode accessMode) {
+
+        switch (accessMode) {
+
+            case PLAIN:
+
+                return (int) SharedCounterFile.INT_VALUE.get(this.buffer, 0);
+
+            case OPAQUE:
+
+                return (int) SharedCounterFile.INT_VALUE.getOpaque(this.buffer, 0);
+
+            case ACQUIRE_RELEASE:
+
+                return (int) SharedCounterFile.INT_VALUE.getAcquire(this.buffer, 0);
+
+            default:
+
+                return (int) SharedCounterFile.INT_VALUE.getVolatile(this.buffer, 0);
+        }
+    }
+
+    /**
+     * Increments counter.
+     *
+     * @param accessMode Access mode.
+     * @return Value written.
+     */
+    public int incrementCounter(final AccessMode accessMode) {
+
+        switch (accessMode) {
+
+            case PLAIN: {
+
+                final int nextValue = ((int) SharedCounterFile.INT_VALUE.get(this.buffer, 0) + 1);
+
+                SharedCounterFile.INT_VALUE.set(this.buffer, 0, nextValue);
+                return nextValue;
+            }
+
+            case OPAQUE: {
+
+                final int nextValue = ((int) SharedCounterFile.INT_VALUE.getOpaque(this.buffer, 0) + 1);
+
+                SharedCounterFile.INT_VALUE.setOpaque(this.buffer, 0, nextValue);
+                return nextValue;
+            }
+
+            case ACQUIRE_RELEASE: {
+
+                final int nextValue = ((int) SharedCounterFile.INT_VALUE.getAcquire(this.buffer, 0) + 1);
+
+                SharedCounterFile.INT_VALUE.setRelease(this.buffer, 0, nextValue);
+                return nextValue;
+            }
+
+            default:
+
+                return ((int) SharedCounterFile.INT_VALUE.getAndAdd(this.buffer, 0, 1) + 1);
+        }
+    }
+
+    /**
+     * Gets control field (acquire).
+     *
+     * @param field Field (ROUND to STOP).
+     * @return Value.
+     */
+    public long getControl(final int field) {
+
+        return (long) SharedCounterFile.LONG_VALUE.getAcquire(this.buffer, (field * SharedCounterFile.LINE_SIZE));
+    }
+
+    /**
+     * Sets control field (release).
+     *
+     * @param field Field (ROUND to STOP).
+     * @param value Value.
+     */
+    public void setControl(final int field, final long value) {
+
+        SharedCounterFile.LONG_VALUE.setRelease(this.buffer, (field * SharedCounterFile.LINE_SIZE), value);
+    }
+
+    /**
+     * Adds to control field (atomically).
+     *
+     * @param field Field (ROUND to STOP).
+     * @param delta Delta.
+     * @return Value after.
+     */
+    public long addControl(final int field, final long delta) {
+
+        return ((long) SharedCounterFile.LONG_VALUE.getAndAdd(this.buffer,
+                (field * SharedCounterFile.LINE_SIZE), delta) + delta);
+    }
+
+    /**
+     * Gets worker slot field (acquire).
+     *
+     * @param worker Worker (writers first, then readers).
+     * @param field  Field (SLOT_OP_COUNT to SLOT_LATENCY_MAX).
+     * @return Value.
+     */
+    public long getSlot(final int worker, final int field) {
+
+        return (long) SharedCounterFile.LONG_VALUE.getAcquire(this.buffer, this.slotOffset(worker, field));
+    }
+
+    /**
+     * Sets worker slot field (release).
+     *
+     * @param worker Worker (writers first, then readers).
+     * @param field  Field (SLOT_OP_COUNT to SLOT_LATENCY_MAX).
+     * @param value  Value.
+     */
+    public void setSlot(final int worker, final int field, final long value) {
+
+        SharedCounterFile.LONG_VALUE.setRelease(this.buffer, this.slotOffset(worker, field), value);
+    }
+
+    /**
+     * Gets worker slot field offset.
+     *
+     * @param worker Worker.
+     * @param field  Field.
+     * @return Offset, in bytes.
+     */
+    private int slotOffset(final int worker, final int field) {
+
+        if ((worker < 0) ||
+                (worker >= this.workerCount)) {
+
+            throw new IndexOutOfBoundsException(String.format(
+                    "Invalid worker (worker=%d, workerCount=%d).", worker, this.workerCount));
+        }
+
+        return (((SharedCounterFile.CONTROL_FIELD_COUNT + worker) * SharedCounterFile.LINE_SIZE) +
+                (field * Long.BYTES));
+    }
+}
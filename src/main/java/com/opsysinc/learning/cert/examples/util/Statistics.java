@@ -0,0 +1,301 @@
+package com.opsysinc.learning.cert.examples.util;
+
+
+/**
+ * Significance tests for comparing runs.
+ */
+public final class Statistics {
+
+    /**
+     * Continued fraction iteration limit.
+     */
+    private static final int MAX_ITERATIONS = 300;
+
+    /**
+     * Continued fraction convergence tolerance.
+     */
+    private static final double EPSILON = 1.0e-12;
+
+    /**
+     * Smallest non-zero divisor.
+     */
+    private static final double TINY = 1.0e-300;
+
+    /**
+     * Lanczos coefficients (g=7, n=9).
+     */
+    private static final double[] LANCZOS = {
+            0.99999999999980993, 676.5203681218851, -1259.1392167224028,
+            771.32342877765313, -176.61502916214059, 12.507343278686905,
+            -0.13857109526572012, 9.9843695780195716e-6, 1.5056327351493116e-7};
+
+    /**
+     * Hidden ctor.
+     */
+    private Statistics() {
+
+        // ignore;
+    }
+
+    /**
+     * Gets mean.
+     *
+     * @param values Values (at least one).
+     * @return Mean.
+     */
+    public static double mean(final double[] values) {
+
+        double total = 0.0;
+
+        for (final double item : values) {
+
+            total += item;
+        }
+
+        return (total / values.length);
+    }
+
+    /**
+     * Gets sample variance.
+     *
+     * @param values Values (at least two).
+     * @return Sample variance.
+     */
+    public static double variance(final double[] values) {
+
+        final double mean = Statistics.mean(values);
+        double total = 0.0;
+
+        for (final double item : values) {
+
+            total += ((item - mean) * (item - mean));
+        }
+
+        return (total / (values.length - 1));
+    }
+
+    /**
+     * Welch's t-test, one-sided: the probability of a difference at least this far
+     * below the baseline mean, were the two means equal.
+     *
+     * @param baseline Baseline values (at least two).
+     * @param current  Current values (at least two).
+     * @return p-value, or NaN if undefined (too few values, or no variance).
+     */
+    public static double welchLowerPValue(final double[] baseline,
+                                          final double[] current) {
+
+        if ((baseline.length < 2) ||
+                (current.length < 2)) {
+
+            return Double.NaN;
+        }
+
+        final double baselineError = (Statistics.variance(baseline) / baseline.length);
+        final double currentError = (Statistics.variance(current) / current.length);
+        final double totalError = (baselineError + currentError);
+
+        if (totalError <= 0.0) {
+
+            return Double.NaN;
+        }
+
+        final double t = ((Statistics.mean(current) - Statistics.mean(baseline)) / Math.sqrt(totalError));
+        final double df = ((totalError * totalError) /
+                (((baselineError * baselineError) / (baseline.length - 1)) +
+                        ((currentError * currentError) / (current.length - 1))));
+
+        return Statistics.studentTCdf(t, df);
+    }
+
+    /**
+     * Fisher's exact test, one-sided: the probability of at least this many current
+     * failures, were failure rates equal.
+     *
+     * @param baselineFailures Baseline failures.
+     * @param baselineTotal    Baseline trials.
+     * @param currentFailures  Current failures.
+     * @param currentTotal     Current trials.
+     * @return p-value.
+     */
+    public static double fisherUpperPValue(final int baselineFailures,
+                                           final int baselineTotal,
+                                           final int currentFailures,
+                                           final int currentTotal) {
+
+        final int total = (baselineTotal + currentTotal);
+        final int totalFailures = (baselineFailures + currentFailures);
+        final int maxFailures = Math.min(totalFailures, currentTotal);
+        double result = 0.0;
+
+        for (int ctr = currentFailures; ctr <= maxFailures; ctr++) {
+
+            result += Math.exp(Statistics.logChoose(totalFailures, ctr) +
+                    Statistics.logChoose(total - totalFailures, currentTotal - ctr) -
+                    Statistics.logChoose(total, currentTotal));
+        }
+
+        return Math.min(1.0, result);
+    }
+
+    /**
+     * Trials needed, all without failure, to bound the failure rate below a maximum
+     * at a given confidence (one-sided, exact binomial).
+     *
+     * @param maxFailureRate Maximum failure rate (0-1, exclusive).
+     * @param confidence     Confidence (0-1, exclusive).
+     * @return Trials needed (at least one).
+     */
+    public static long zeroFailureTrials(final double maxFailureRate,
+                                         final double confidence) {
+
+        if ((maxFailureRate <= 0.0) ||
+                (maxFailureRate >= 1.0) ||
+                (confidence <= 0.0) ||
+                (confidence >= 1.0)) {
+
+            throw new IllegalArgumentException(String.format(
+                    "Invalid rate or confidence (maxFailureRate=%s, confidence=%s).", maxFailureRate, confidence));
+        }
+
+        return Math.max(1L, (long) Math.ceil(Math.log1p(-confidence) / Math.log1p(-maxFailureRate)));
+    }
+
+    /**
+     * Student's t cumulative distribution.
+     *
+     * @param t  t statistic.
+     * @param df Degrees of freedom.
+     * @return P(T &lt;= t).
+     */
+    public static double studentTCdf(final double t,
+                                     final double df) {
+
+        final double tail = (0.5 * Statistics.regularizedBeta(df / (df + (t * t)), (df / 2.0), 0.5));
+
+        return ((t < 0.0) ? tail : (1.0 - tail));
+    }
+
+    /**
+     * Regularized incomplete beta function.
+     *
+     * @param x Upper limit (0-1).
+     * @param a Shape a.
+     * @param b Shape b.
+     * @return I_x(a, b).
+     */
+    private static double regularizedBeta(final double x,
+                                          final double a,
+                                          final double b) {
+
+        if (x <= 0.0) {
+
+            return 0.0;
+        }
+
+        if (x >= 1.0) {
+
+            return 1.0;
+        }
+
+        final double front = Math.exp((Statistics.logGamma(a + b) - Statistics.logGamma(a) - Statistics.logGamma(b)) +
+                (a * Math.log(x)) + (b * Math.log(1.0 - x)));
+
+        if (x < ((a + 1.0) / (a + b + 2.0))) {
+
+            return ((front * Statistics.betaFraction(x, a, b)) / a);
+
+        } else {
+
+            return (1.0 - ((front * Statistics.betaFraction(1.0 - x, b, a)) / b));
+        }
+    }
+
+    /**
+     * Continued fraction for the incomplete beta function (modified Lentz).
+     *
+     * @param x Upper limit.
+     * @param a Shape a.
+     * @param b Shape b.
+     * @return Continued fraction value.
+     */
+    private static double betaFraction(final double x,
+                                       final double a,
+                                       final double b) {
+
+        double c = 1.0;
+        double d = (1.0 - (((a + b) * x) / (a + 1.0)));
+
+        d = (1.0 / ((Math.abs(d) < Statistics.TINY) ? Statistics.TINY : d));
+
+        double result = d;
+
+        for (int ctr = 1; ctr <= Statistics.MAX_ITERATIONS; ctr++) {
+
+            final int ctr2 = (2 * ctr);
+            double step = ((ctr * (b - ctr) * x) / ((a + ctr2 - 1.0) * (a + ctr2)));
+
+            d = (1.0 + (step * d));
+            d = (1.0 / ((Math.abs(d) < Statistics.TINY) ? Statistics.TINY : d));
+            c = (1.0 + (step / c));
+            c = ((Math.abs(c) < Statistics.TINY) ? Statistics.TINY : c);
+            result *= (d * c);
+
+            step = (-((a + ctr) * (a + b + ctr) * x) / ((a + ctr2) * (a + ctr2 + 1.0)));
+            d = (1.0 + (step * d));
+            d = (1.0 / ((Math.abs(d) < Statistics.TINY) ? Statistics.TINY : d));
+            c = (1.0 + (step / c));
+            c = ((Math.abs(c) < Statistics.TINY) ? Statistics.TINY : c);
+
+            final double delta = (d * c);
+
+            result *= delta;
+
+            if (Math.abs(delta - 1.0) < Statistics.EPSILON) {
+
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Log of binomial coefficient.
+     *
+     * @param n Total.
+     * @param k Chosen.
+     * @return ln(n choose k).
+     */
+    private static double logChoose(final int n,
+                                    final int k) {
+
+        return (Statistics.logGamma(n + 1.0) - Statistics.logGamma(k + 1.0) - Statistics.logGamma((n - k) + 1.0));
+    }
+
+    /**
+     * Log gamma function (Lanczos approximation).
+     *
+     * @param x Argument (positive).
+     * @return ln(gamma(x)).
+     */
+    private static double logGamma(final double x) {
+
+        if (x < 0.5) {
+
+            return (Math.log(Math.PI / Math.abs(Math.sin(Math.PI * x))) - Statistics.logGamma(1.0 - x));
+        }
+
+        final double z = (x - 1.0);
+        double sum = Statistics.LANCZOS[0];
+
+        for (int ctr = 1; ctr < Statistics.LANCZOS.length; ctr++) {
+
+            sum += (Statistics.LANCZOS[ctr] / (z + ctr));
+        }
+
+        final double t = (z + 7.5);
+
+        return ((0.5 * Math.log(2.0 * Math.PI)) + ((z + 0.5) * Math.log(t)) - t + Math.log(sum));
+    }
+}
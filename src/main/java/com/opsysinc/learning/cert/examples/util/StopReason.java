@@ -0,0 +1,27 @@
+package com.opsysinc.learning.cert.examples.util;
+
+/**
+ * Why a test stopped.
+ */
+public enum StopReason {
+
+    /**
+     * A check detected a violation.
+     */
+    VIOLATION,
+
+    /**
+     * Enough clean checks to satisfy the stopping rule.
+     */
+    STOPPING_RULE,
+
+    /**
+     * Test length elapsed.
+     */
+    TIMEOUT,
+
+    /**
+     * Cleaned up by its owner, before any of the above.
+     */
+    CLEAN_UP
+}
@@ -0,0 +1,90 @@
+package com.opsysinc.learning.cert.examples.util;
+
+/**
+ * Statistical stopping rule: stop a test once enough clean checks (barrier trips, or
+ * verifier passes) bound its per-check violation rate below a maximum, at a given
+ * confidence.
+ * <p/>
+ * With no violations in n checks, the rate is below 1 - (1 - confidence)^(1/n), so
+ * n = ln(1 - confidence) / ln(1 - maxViolationRate) clean checks suffice (e.g., about
+ * 3/maxViolationRate at 95%).
+ */
+public final class StoppingRule {
+
+    /**
+     * Maximum per-check violation rate.
+     */
+    private final double maxViolationRate;
+
+    /**
+     * Confidence.
+     */
+    private final double confidence;
+
+    /**
+     * Clean checks required.
+     */
+    private final long requiredCleanChecks;
+
+    /**
+     * Basic ctor.
+     *
+     * @param maxViolationRate Maximum per-check violation rate (0-1, exclusive).
+     * @param confidence       Confidence (0-1, exclusive).
+     */
+    public StoppingRule(final double maxViolationRate,
+                        final double confidence) {
+
+        this.maxViolationRate = maxViolationRate;
+        this.confidence = confidence;
+        this.requiredCleanChecks = Statistics.zeroFailureTrials(maxViolationRate, confidence);
+    }
+
+    /**
+     * Gets maximum per-check violation rate.
+     *
+     * @return Maximum violation rate.
+     */
+    public double getMaxViolationRate() {
+
+        return this.maxViolationRate;
+    }
+
+    /**
+     * Gets confidence.
+     *
+     * @return Confidence.
+     */
+    public double getConfidence() {
+
+        return this.confidence;
+    }
+
+    /**
+     * Gets clean checks required.
+     *
+     * @return Required clean checks.
+     */
+    public long getRequiredCleanChecks() {
+
+        return this.requiredCleanChecks;
+    }
+
+    /**
+     * Tests whether satisfied.
+     *
+     * @param cleanChecks Clean checks so far.
+     * @return True if satisfied, false otherwise.
+     */
+    public boolean isSatisfied(final long cleanChecks) {
+
+        return (cleanChecks >= this.requiredCleanChecks);
+    }
+
+    @Override
+    public String toString() {
+
+        return String.format("%d clean checks (rate < %s at %s)",
+                this.requiredCleanChecks, this.maxViolationRate, this.confidence);
+    }
+}
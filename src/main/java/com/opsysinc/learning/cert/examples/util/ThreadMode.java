@@ -0,0 +1,72 @@
+package com.opsysinc.learning.cert.examples.util;
+
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Thread modes, for test drivers and workers.
+ */
+public enum ThreadMode {
+
+    /**
+     * Platform (OS) daemon threads.
+     */
+    PLATFORM,
+
+    /**
+     * Virtual threads, scheduled on carrier threads (requires Java 21+).
+     */
+    VIRTUAL;
+
+    /**
+     * Builds thread factory.
+     *
+     * @return Thread factory.
+     * @throws IllegalStateException If this mode isn't supported by the running JVM.
+     */
+    public ThreadFactory newThreadFactory() {
+
+        if (this == ThreadMode.VIRTUAL) {
+
+            return ThreadMode.newVirtualThreadFactory();
+        }
+
+        return new ThreadFactory() {
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+
+                final Thread result = new Thread(runnable);
+                result.setDaemon(true);
+
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Builds virtual thread factory.
+     * <p/>
+     * Resolved reflectively, so the build can keep targeting a JDK without
+     * virtual threads.
+     *
+     * @return Thread factory.
+     * @throws IllegalStateException If virtual threads aren't supported by the running JVM.
+     */
+    private static ThreadFactory newVirtualThreadFactory() {
+
+        try {
+
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder")
+                    .getMethod("factory").invoke(builder);
+
+        } catch (final ReflectiveOperationException ex) {
+
+            throw new IllegalStateException(String.format(
+                    "Virtual threads require Java 21+ (running %s).",
+                    System.getProperty("java.version")), ex);
+        }
+    }
+}
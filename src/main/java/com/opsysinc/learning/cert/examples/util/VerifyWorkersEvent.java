@@ -0,0 +1,30 @@
+package com.opsysinc.learning.cert.examples.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event: free-running verifier pass over all workers.
+ */
+@Name("cert.examples.VerifyWorkers")
+@Label("Verify Workers")
+@Category("CERT Examples")
+@Description("Free-running verifier pass over all workers' published samples.")
+@StackTrace(false)
+final class VerifyWorkersEvent extends jdk.jfr.Event {
+
+    /**
+     * Test id.
+     */
+    @Label("Test")
+    String testId;
+
+    /**
+     * True if the pass found a violation, false otherwise.
+     */
+    @Label("Violation")
+    boolean isViolation;
+}
@@ -0,0 +1,40 @@
+package com.opsysinc.learning.cert.examples.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event: violation detected, with the expected and actual values.
+ */
+@Name("cert.examples.Violation")
+@Label("Violation")
+@Category("CERT Examples")
+@Description("Violation detected by a worker check, with the expected and actual values.")
+final class ViolationEvent extends jdk.jfr.Event {
+
+    /**
+     * Test id.
+     */
+    @Label("Test")
+    String testId;
+
+    /**
+     * Violation kind (e.g., "WRITERS OUT OF ORDER").
+     */
+    @Label("Kind")
+    String kind;
+
+    /**
+     * Expected value.
+     */
+    @Label("Expected Value")
+    long expectedValue;
+
+    /**
+     * Actual value.
+     */
+    @Label("Actual Value")
+    long actualValue;
+}
@@ -0,0 +1,338 @@
+package com.opsysinc.learning.cert.examples.util;
+
+
+/**
+ * Preallocated snapshot of one violation, for the violation reporter to format.
+ * <p/>
+ * The checking thread claims it, copies values in (no formatting, no allocation) and
+ * submits it; the reporter formats and prints it, then releases it. Values are held as
+ * longs (int/long samples) or as references (boxed samples).
+ */
+final class ViolationReport {
+
+    /**
+     * Violation kinds.
+     */
+    enum Kind {
+
+        /**
+         * Settled writer value isn't the expected value, at a barrier trip.
+         */
+        WRITERS_OUT_OF_ORDER("WRITERS OUT OF ORDER (stopping)"),
+
+        /**
+         * Some worker's sample went backwards, at a verifier pass.
+         */
+        WORKERS_OUT_OF_ORDER("WORKERS OUT OF ORDER (stopping)"),
+
+        /**
+         * Settled writer value isn't the total writes, at clean up.
+         */
+        WRITERS_LOST_UPDATES("WRITERS LOST UPDATES");
+
+        /**
+         * Report title.
+         */
+        private final String title;
+
+        /**
+         * Basic ctor.
+         *
+         * @param title Report title.
+         */
+        Kind(final String title) {
+
+            this.title = title;
+        }
+    }
+
+    /**
+     * Test id.
+     */
+    private final String testId;
+
+    /**
+     * Row reader flags.
+     */
+    private final boolean[] rowIsReader;
+
+    /**
+     * Row previous value flags.
+     */
+    private final boolean[] rowHasPrevValue;
+
+    /**
+     * Row previous values (int/long samples).
+     */
+    private final long[] rowPrevValues;
+
+    /**
+     * Row values (int/long samples).
+     */
+    private final long[] rowValues;
+
+    /**
+     * Row previous values (boxed samples).
+     */
+    private final Object[] rowPrevObjects;
+
+    /**
+     * Row values (boxed samples).
+     */
+    private final Object[] rowObjects;
+
+    /**
+     * Row flags (marks the offending workers).
+     */
+    private final boolean[] rowIsFlagged;
+
+    /**
+     * Row count.
+     */
+    private int rowCount;
+
+    /**
+     * Kind.
+     */
+    private Kind kind;
+
+    /**
+     * True if values are references (boxed samples), false if longs.
+     */
+    private boolean isBoxed;
+
+    /**
+     * Check time in NS.
+     */
+    private long workTime;
+
+    /**
+     * Total writes (lost updates only).
+     */
+    private long totalWrites;
+
+    /**
+     * Expected value (int/long samples).
+     */
+    private long expectedValue;
+
+    /**
+     * Settled value (int/long samples).
+     */
+    private long settledValue;
+
+    /**
+     * Expected value (boxed samples).
+     */
+    private Object expectedObject;
+
+    /**
+     * Settled value (boxed samples).
+     */
+    private Object settledObject;
+
+    /**
+     * True while claimed (until the reporter releases it), false otherwise.
+     */
+    private boolean isClaimed;
+
+    /**
+     * Basic ctor.
+     *
+     * @param testId      Test id.
+     * @param workerCount Rows to allocate (one per worker).
+     */
+    ViolationReport(final String testId,
+                    final int workerCount) {
+
+        this.testId = testId;
+        this.rowIsReader = new boolean[workerCount];
+        this.rowHasPrevValue = new boolean[workerCount];
+        this.rowPrevValues = new long[workerCount];
+        this.rowValues = new long[workerCount];
+        this.rowPrevObjects = new Object[workerCount];
+        this.rowObjects = new Object[workerCount];
+        this.rowIsFlagged = new boolean[workerCount];
+    }
+
+    /**
+     * Claims, if not already claimed.
+     *
+     * @param kind     Kind.
+     * @param workTime Check time in NS.
+     * @return True if claimed, false if still held by an earlier report.
+     */
+    synchronized boolean tryClaim(final Kind kind,
+                                  final long workTime) {
+
+        if (this.isClaimed) {
+
+            return false;
+        }
+
+        this.isClaimed = true;
+        this.kind = kind;
+        this.workTime = workTime;
+        this.rowCount = 0;
+
+        return true;
+    }
+
+    /**
+     * Releases, once reported.
+     */
+    synchronized void release() {
+
+        this.isClaimed = false;
+        this.notifyAll();
+    }
+
+    /**
+     * Awaits release, if claimed.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    synchronized void awaitRelease() throws InterruptedException {
+
+        while (this.isClaimed) {
+
+            this.wait();
+        }
+    }
+
+    /**
+     * Sets expected and settled values (int/long samples).
+     *
+     * @param totalWrites   Total writes (lost updates only).
+     * @param expectedValue Expected value.
+     * @param settledValue  Settled value.
+     */
+    void setValues(final long totalWrites,
+                   final long expectedValue,
+                   final long settledValue) {
+
+        this.isBoxed = false;
+        this.totalWrites = totalWrites;
+        this.expectedValue = expectedValue;
+        this.settledValue = settledValue;
+    }
+
+    /**
+     * Sets expected and settled values (boxed samples).
+     *
+     * @param totalWrites    Total writes (lost updates only).
+     * @param expectedObject Expected value.
+     * @param settledObject  Settled value.
+     */
+    void setValues(final long totalWrites,
+                   final Object expectedObject,
+                   final Object settledObject) {
+
+        this.isBoxed = true;
+        this.totalWrites = totalWrites;
+        this.expectedObject = expectedObject;
+        this.settledObject = settledObject;
+    }
+
+    /**
+     * Adds worker row (int/long samples).
+     *
+     * @param isReader     True if reader, false otherwise.
+     * @param hasPrevValue True if previous value is set, false otherwise.
+     * @param prevValue    Previous value (workers out of order only).
+     * @param value        Value.
+     * @param isFlagged    True if offending, false otherwise.
+     */
+    void addRow(final boolean isReader,
+                final boolean hasPrevValue,
+                final long prevValue,
+                final long value,
+                final boolean isFlagged) {
+
+        this.rowIsReader[this.rowCount] = isReader;
+        this.rowHasPrevValue[this.rowCount] = hasPrevValue;
+        this.rowPrevValues[this.rowCount] = prevValue;
+        this.rowValues[this.rowCount] = value;
+        this.rowIsFlagged[this.rowCount] = isFlagged;
+        this.rowCount++;
+    }
+
+    /**
+     * Adds worker row (boxed samples).
+     *
+     * @param isReader   True if reader, false otherwise.
+     * @param prevObject Previous value (workers out of order only).
+     * @param object     Value.
+     * @param isFlagged  True if offending, false otherwise.
+     */
+    void addRow(final boolean isReader,
+                final Object prevObject,
+                final Object object,
+                final boolean isFlagged) {
+
+        this.rowIsReader[this.rowCount] = isReader;
+        this.rowHasPrevValue[this.rowCount] = true;
+        this.rowPrevObjects[this.rowCount] = prevObject;
+        this.rowObjects[this.rowCount] = object;
+        this.rowIsFlagged[this.rowCount] = isFlagged;
+        this.rowCount++;
+    }
+
+    /**
+     * Formats (reporter thread only), dropping boxed references.
+     *
+     * @return Report text.
+     */
+    String format() {
+
+        final StringBuilder result = new StringBuilder();
+        final String expected = (this.isBoxed ? String.valueOf(this.expectedObject) : String.valueOf(this.expectedValue));
+        final String settled = (this.isBoxed ? String.valueOf(this.settledObject) : String.valueOf(this.settledValue));
+
+        result.append(String.format("\n%s - %s\n", this.testId, this.kind.title));
+
+        if (this.kind == Kind.WRITERS_OUT_OF_ORDER) {
+
+            result.append(String.format("Expected value=%s, settled value=%s\n\n", expected, settled));
+
+        } else if (this.kind == Kind.WORKERS_OUT_OF_ORDER) {
+
+            result.append("Previous value / current value\n\n");
+
+        } else {
+
+            result.append(String.format("Writes=%d, expected value=%s, settled value=%s\n",
+                    this.totalWrites, expected, settled));
+        }
+
+        for (int ctr = 0; ctr < this.rowCount; ctr++) {
+
+            final String value = (this.isBoxed ? String.valueOf(this.rowObjects[ctr]) : String.valueOf(this.rowValues[ctr]));
+            final String prevValue;
+
+            if (this.kind == Kind.WRITERS_OUT_OF_ORDER) {
+
+                prevValue = String.valueOf(this.workTime);
+
+            } else if (!this.rowHasPrevValue[ctr]) {
+
+                prevValue = "null";
+
+            } else {
+
+                prevValue = (this.isBoxed ? String.valueOf(this.rowPrevObjects[ctr]) : String.valueOf(this.rowPrevValues[ctr]));
+            }
+
+            result.append(String.format("%s / %s / %s%s\n",
+                    (this.rowIsReader[ctr] ? "READER" : "WRITER"), prevValue, value,
+                    (this.rowIsFlagged[ctr] ? " / ***" : "")));
+            this.rowPrevObjects[ctr] = null;
+            this.rowObjects[ctr] = null;
+        }
+
+        this.expectedObject = null;
+        this.settledObject = null;
+
+        return result.toString();
+    }
+}
@@ -0,0 +1,167 @@
+package com.opsysinc.learning.cert.examples.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background violation reporter, shared by all tests.
+ * <p/>
+ * Checking threads (barrier actions, verifiers) only snapshot into preallocated
+ * reports and hand them over through a bounded queue, never blocking; one daemon
+ * thread formats and prints them, so workers aren't held while output is written,
+ * and tests don't contend on System.out. Reports that don't fit are dropped, and
+ * counted.
+ * <p/>
+ * Reports print whenever they're formatted, so callers printing results flush()
+ * first, then print under System.out's lock, to keep reports out of their lines.
+ */
+public final class ViolationReporter {
+
+    /**
+     * Queue capacity, in reports.
+     */
+    private static final int QUEUE_CAPACITY = 256;
+
+    /**
+     * Pending reports.
+     */
+    private static final BlockingQueue<ViolationReport> QUEUE = new ArrayBlockingQueue<>(ViolationReporter.QUEUE_CAPACITY);
+
+    /**
+     * Reports dropped (queue full, or test's report still pending).
+     */
+    private static final AtomicLong DROPPED_COUNT = new AtomicLong(0L);
+
+    /**
+     * Reports queued or being printed.
+     */
+    private static final AtomicInteger PENDING_COUNT = new AtomicInteger(0);
+
+    /**
+     * Flush lock: notified when no reports are pending.
+     */
+    private static final Object FLUSH_LOCK = new Object();
+
+    static {
+
+        final Thread reporterThread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+
+                ViolationReporter.report();
+            }
+        }, "violation-reporter");
+
+        reporterThread.setDaemon(true);
+        reporterThread.start();
+    }
+
+    /**
+     * Hidden ctor.
+     */
+    private ViolationReporter() {
+
+        // ignore;
+    }
+
+    /**
+     * Gets reports dropped.
+     *
+     * @return Dropped count.
+     */
+    public static long getDroppedCount() {
+
+        return ViolationReporter.DROPPED_COUNT.get();
+    }
+
+    /**
+     * Submits claimed report, without blocking; released (and counted) if dropped.
+     *
+     * @param report Claimed report.
+     */
+    static void submit(final ViolationReport report) {
+
+        ViolationReporter.PENDING_COUNT.incrementAndGet();
+
+        if (!ViolationReporter.QUEUE.offer(report)) {
+
+            report.release();
+            ViolationReporter.countDropped();
+            ViolationReporter.countDone();
+        }
+    }
+
+    /**
+     * Awaits all reports submitted so far (and any submitted meanwhile) being printed.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public static void flush() throws InterruptedException {
+
+        synchronized (ViolationReporter.FLUSH_LOCK) {
+
+            while (ViolationReporter.PENDING_COUNT.get() > 0) {
+
+                ViolationReporter.FLUSH_LOCK.wait();
+            }
+        }
+    }
+
+    /**
+     * Counts a report done (printed or dropped), waking flushers if none are left.
+     */
+    private static void countDone() {
+
+        if (ViolationReporter.PENDING_COUNT.decrementAndGet() == 0) {
+
+            synchronized (ViolationReporter.FLUSH_LOCK) {
+
+                ViolationReporter.FLUSH_LOCK.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Counts dropped report.
+     */
+    static void countDropped() {
+
+        ViolationReporter.DROPPED_COUNT.incrementAndGet();
+    }
+
+    /**
+     * Formats and prints reports, until interrupted (reporter thread).
+     */
+    private static void report() {
+
+        try {
+
+            while (!Thread.interrupted()) {
+
+                final ViolationReport item = ViolationReporter.QUEUE.take();
+
+                try {
+
+                    final String text = item.format();
+
+                    synchronized (System.out) {
+
+                        System.out.print(text);
+                    }
+
+                } finally {
+
+                    item.release();
+                    ViolationReporter.countDone();
+                }
+            }
+
+        } catch (final InterruptedException ex) {
+
+            // ignore;
+        }
+    }
+}
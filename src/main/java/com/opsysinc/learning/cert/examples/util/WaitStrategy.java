@@ -0,0 +1,314 @@
+package com.opsysinc.learning.cert.examples.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How a worker paces itself between lockstep iterations.
+ * <p/>
+ * Shorter pauses raise throughput and the rate barrier trips (and so checks)
+ * happen, at the cost of CPU; longer pauses free the CPU but let the timer's
+ * granularity set the pace. Strategies are stateless and may be shared.
+ */
+public interface WaitStrategy {
+
+    /**
+     * Default pause period, in ns (1 ms, as for the original Thread.sleep(1L)).
+     */
+    long DEFAULT_PERIOD_IN_NS = TimeUnit.MILLISECONDS.toNanos(1L);
+
+    /**
+     * Pauses the calling worker.
+     *
+     * @param idleCount Consecutive iterations the worker arrived at the work barrier
+     *                  ahead of others (0 when it was last to arrive).
+     * @return True if blocked (slept or parked, so counted as waited by ThreadMXBean),
+     * false otherwise (spun, yielded or didn't pause).
+     * @throws InterruptedException If interrupted while paused.
+     */
+    boolean pause(int idleCount) throws InterruptedException;
+
+    /**
+     * Wait strategy kinds, as selected by name.
+     */
+    enum Kind {
+
+        /**
+         * Thread.sleep() for the period.
+         */
+        SLEEP,
+
+        /**
+         * No pause at all.
+         */
+        BUSY_SPIN,
+
+        /**
+         * One Thread.onSpinWait() hint.
+         */
+        ON_SPIN_WAIT,
+
+        /**
+         * Thread.yield().
+         */
+        YIELD,
+
+        /**
+         * LockSupport.parkNanos() for the period.
+         */
+        PARK,
+
+        /**
+         * Spins, then yields, then parks for up to the period, escalating while the
+         * worker keeps arriving at the work barrier ahead of others.
+         */
+        BACKOFF;
+
+        /**
+         * Builds strategy.
+         *
+         * @param periodInNs Pause period, in ns (SLEEP, PARK and BACKOFF only).
+         * @return Strategy.
+         */
+        public WaitStrategy build(final long periodInNs) {
+
+            if (periodInNs < 0L) {
+
+                throw new IllegalArgumentException(String.format(
+                        "Invalid wait period (periodInNs=%d).", periodInNs));
+            }
+
+            switch (this) {
+
+                case SLEEP:
+                    return new SleepWaitStrategy(periodInNs);
+
+                case BUSY_SPIN:
+                    return new BusySpinWaitStrategy();
+
+                case ON_SPIN_WAIT:
+                    return new OnSpinWaitStrategy();
+
+                case YIELD:
+                    return new YieldWaitStrategy();
+
+                case PARK:
+                    return new ParkWaitStrategy(periodInNs);
+
+                case BACKOFF:
+                    return new BackoffWaitStrategy(periodInNs);
+
+                default:
+                    throw new IllegalStateException("Unknown wait strategy: " + this);
+            }
+        }
+    }
+
+    /**
+     * Sleeps for the period.
+     */
+    final class SleepWaitStrategy implements WaitStrategy {
+
+        /**
+         * Period, in ms.
+         */
+        private final long periodInMs;
+
+        /**
+         * Period remainder, in ns.
+         */
+        private final int periodRemainderInNs;
+
+        /**
+         * Basic ctor.
+         *
+         * @param periodInNs Period, in ns.
+         */
+        public SleepWaitStrategy(final long periodInNs) {
+
+            this.periodInMs = TimeUnit.NANOSECONDS.toMillis(periodInNs);
+            this.periodRemainderInNs = (int) (periodInNs - TimeUnit.MILLISECONDS.toNanos(this.periodInMs));
+        }
+
+        @Override
+        public boolean pause(final int idleCount) throws InterruptedException {
+
+            Thread.sleep(this.periodInMs, this.periodRemainderInNs);
+            return true;
+        }
+
+        @Override
+        public String toString() {
+
+            return String.format("SLEEP(%d ns)",
+                    (TimeUnit.MILLISECONDS.toNanos(this.periodInMs) + this.periodRemainderInNs));
+        }
+    }
+
+    /**
+     * Doesn't pause.
+     */
+    final class BusySpinWaitStrategy implements WaitStrategy {
+
+        @Override
+        public boolean pause(final int idleCount) {
+
+            return false;
+        }
+
+        @Override
+        public String toString() {
+
+            return "BUSY_SPIN";
+        }
+    }
+
+    /**
+     * Hints a spin wait.
+     */
+    final class OnSpinWaitStrategy implements WaitStrategy {
+
+        @Override
+        public boolean pause(final int idleCount) {
+
+            Thread.onSpinWait();
+            return false;
+        }
+
+        @Override
+        public String toString() {
+
+            return "ON_SPIN_WAIT";
+        }
+    }
+
+    /**
+     * Yields.
+     */
+    final class YieldWaitStrategy implements WaitStrategy {
+
+        @Override
+        public boolean pause(final int idleCount) {
+
+            Thread.yield();
+            return false;
+        }
+
+        @Override
+        public String toString() {
+
+            return "YIELD";
+        }
+    }
+
+    /**
+     * Parks for the period.
+     */
+    final class ParkWaitStrategy implements WaitStrategy {
+
+        /**
+         * Period, in ns.
+         */
+        private final long periodInNs;
+
+        /**
+         * Basic ctor.
+         *
+         * @param periodInNs Period, in ns.
+         */
+        public ParkWaitStrategy(final long periodInNs) {
+
+            this.periodInNs = periodInNs;
+        }
+
+        @Override
+        public boolean pause(final int idleCount) throws InterruptedException {
+
+            LockSupport.parkNanos(this.periodInNs);
+
+            if (Thread.interrupted()) {
+
+                throw new InterruptedException();
+            }
+
+            return true;
+        }
+
+        @Override
+        public String toString() {
+
+            return String.format("PARK(%d ns)", this.periodInNs);
+        }
+    }
+
+    /**
+     * Spins, then yields, then parks for exponentially longer, up to the period.
+     */
+    final class BackoffWaitStrategy implements WaitStrategy {
+
+        /**
+         * Idle iterations spent spinning.
+         */
+        private static final int SPIN_LIMIT = 10;
+
+        /**
+         * Idle iterations spent spinning or yielding.
+         */
+        private static final int YIELD_LIMIT = 20;
+
+        /**
+         * Shortest park, in ns.
+         */
+        private static final long MIN_PARK_IN_NS = 1000L;
+
+        /**
+         * Longest park, in ns.
+         */
+        private final long maxParkInNs;
+
+        /**
+         * Basic ctor.
+         *
+         * @param maxParkInNs Longest park, in ns.
+         */
+        public BackoffWaitStrategy(final long maxParkInNs) {
+
+            this.maxParkInNs = maxParkInNs;
+        }
+
+        @Override
+        public boolean pause(final int idleCount) throws InterruptedException {
+
+            if (idleCount < BackoffWaitStrategy.SPIN_LIMIT) {
+
+                Thread.onSpinWait();
+                return false;
+
+            } else if (idleCount < BackoffWaitStrategy.YIELD_LIMIT) {
+
+                Thread.yield();
+                return false;
+
+            } else {
+
+                final int shift = Math.min(30, (idleCount - BackoffWaitStrategy.YIELD_LIMIT));
+
+                LockSupport.parkNanos(Math.min(this.maxParkInNs,
+                        (BackoffWaitStrategy.MIN_PARK_IN_NS << shift)));
+
+                if (Thread.interrupted()) {
+
+                    throw new InterruptedException();
+                }
+
+                return true;
+            }
+        }
+
+        @Override
+        public String toString() {
+
+            return String.format("BACKOFF(%d ns)", this.maxParkInNs);
+        }
+    }
+}
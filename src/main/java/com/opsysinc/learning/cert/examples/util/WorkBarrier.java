@@ -0,0 +1,512 @@
+package com.opsysinc.learning.cert.examples.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Barrier holding lockstep workers between iterations, running an action once all
+ * have arrived, and reducing a value each contributes (e.g., the highest writer
+ * value) for the action to check.
+ * <p/>
+ * As with CyclicBarrier, a participant interrupted while waiting breaks the barrier
+ * for all others, as does an action that throws.
+ */
+public interface WorkBarrier {
+
+    /**
+     * No value (the reduction's identity). Never a sample: contributed values are
+     * int samples, widened.
+     */
+    long NO_VALUE = Long.MIN_VALUE;
+
+    /**
+     * Awaits all participants, contributing a value.
+     *
+     * @param participant Participant (0 to parties - 1).
+     * @param value       Value, or NO_VALUE if none.
+     * @return 0 if last to arrive (so ran the action), positive otherwise.
+     * @throws InterruptedException   If interrupted while waiting.
+     * @throws BrokenBarrierException If broken while waiting.
+     */
+    int await(int participant, long value) throws InterruptedException, BrokenBarrierException;
+
+    /**
+     * Gets this round's reduced value (during the action only).
+     *
+     * @return Reduced value, or NO_VALUE if none contributed.
+     */
+    long getReducedValue();
+
+    /**
+     * Work barrier kinds, as selected by name.
+     */
+    enum Kind {
+
+        /**
+         * One CyclicBarrier: every arrival takes one lock, and values are reduced
+         * into one shared cell, so trips cost grows linearly with participants.
+         */
+        CYCLIC,
+
+        /**
+         * Combining tree: participants arrive in groups of up to FAN_IN, the last to
+         * arrive in each group carrying the group's reduced value up to the next level;
+         * the last to arrive at the root runs the action, then each group's last
+         * arrival wakes its group on the way back down. Trip cost grows with
+         * log(participants).
+         */
+        COMBINING_TREE;
+
+        /**
+         * Builds barrier.
+         *
+         * @param parties Participants (at least one).
+         * @param reducer Reduction (of two values, neither NO_VALUE).
+         * @param action  Action, run by the last to arrive.
+         * @return Barrier.
+         */
+        public WorkBarrier build(final int parties,
+                                 final LongBinaryOperator reducer,
+                                 final Runnable action) {
+
+            if (parties < 1) {
+
+                throw new IllegalArgumentException(String.format(
+                        "Invalid barrier parties (parties=%d).", parties));
+            }
+
+            switch (this) {
+
+                case CYCLIC:
+                    return new CyclicWorkBarrier(parties, reducer, action);
+
+                case COMBINING_TREE:
+                    return new CombiningTreeWorkBarrier(parties, reducer, action);
+
+                default:
+                    throw new IllegalStateException("Unknown work barrier: " + this);
+            }
+        }
+    }
+
+    /**
+     * Reduces two values, either of which may be NO_VALUE.
+     *
+     * @param reducer Reduction (of two values, neither NO_VALUE).
+     * @param left    Left value.
+     * @param right   Right value.
+     * @return Reduced value.
+     */
+    static long reduce(final LongBinaryOperator reducer,
+                       final long left,
+                       final long right) {
+
+        if (left == WorkBarrier.NO_VALUE) {
+
+            return right;
+        }
+
+        if (right == WorkBarrier.NO_VALUE) {
+
+            return left;
+        }
+
+        return reducer.applyAsLong(left, right);
+    }
+
+    /**
+     * One CyclicBarrier, reducing values into one shared cell.
+     */
+    final class CyclicWorkBarrier implements WorkBarrier {
+
+        /**
+         * Barrier.
+         */
+        private final CyclicBarrier barrier;
+
+        /**
+         * Reduction.
+         */
+        private final LongBinaryOperator reducer;
+
+        /**
+         * Reduced value, this round.
+         */
+        private final AtomicLong reducedValue;
+
+        /**
+         * Basic ctor.
+         *
+         * @param parties Participants.
+         * @param reducer Reduction.
+         * @param action  Action.
+         */
+        public CyclicWorkBarrier(final int parties,
+                                 final LongBinaryOperator reducer,
+                                 final Runnable action) {
+
+            this.reducer = reducer;
+            this.reducedValue = new AtomicLong(WorkBarrier.NO_VALUE);
+            this.barrier = new CyclicBarrier(parties, new Runnable() {
+
+                @Override
+                public void run() {
+
+                    try {
+
+                        action.run();
+
+                    } finally {
+
+                        CyclicWorkBarrier.this.reducedValue.set(WorkBarrier.NO_VALUE);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public int await(final int participant,
+                         final long value) throws InterruptedException, BrokenBarrierException {
+
+            if (value != WorkBarrier.NO_VALUE) {
+
+                this.reducedValue.accumulateAndGet(value, (left, right) ->
+                        WorkBarrier.reduce(this.reducer, left, right));
+            }
+
+            return this.barrier.await();
+        }
+
+        @Override
+        public long getReducedValue() {
+
+            return this.reducedValue.get();
+        }
+    }
+
+    /**
+     * Combining tree of small groups, each arrived at and released through its
+     * own counters, so no lock or cache line is shared by more than FAN_IN threads.
+     */
+    final class CombiningTreeWorkBarrier implements WorkBarrier {
+
+        /**
+         * Participants (or child groups) per group.
+         */
+        public static final int FAN_IN = 4;
+
+        /**
+         * Spins before parking, while waiting for release.
+         */
+        private static final int SPIN_LIMIT = 100;
+
+        /**
+         * Leaf groups, by participant.
+         */
+        private final Node[] leaves;
+
+        /**
+         * All groups (to wake on break).
+         */
+        private final List<Node> nodes;
+
+        /**
+         * Reduction.
+         */
+        private final LongBinaryOperator reducer;
+
+        /**
+         * Action.
+         */
+        private final Runnable action;
+
+        /**
+         * Reduced value, set by the last to arrive, before the action.
+         */
+        private long reducedValue;
+
+        /**
+         * True if broken, false otherwise.
+         */
+        private volatile boolean isBroken;
+
+        /**
+         * Basic ctor.
+         *
+         * @param parties Participants.
+         * @param reducer Reduction.
+         * @param action  Action.
+         */
+        public CombiningTreeWorkBarrier(final int parties,
+                                        final LongBinaryOperator reducer,
+                                        final Runnable action) {
+
+            this.leaves = new Node[parties];
+            this.nodes = new ArrayList<>();
+            this.reducer = reducer;
+            this.action = action;
+            this.reducedValue = WorkBarrier.NO_VALUE;
+
+            List<Node> levelNodes = this.buildLevel(parties);
+
+            for (int ctr = 0; ctr < parties; ctr++) {
+
+                this.leaves[ctr] = levelNodes.get(ctr / CombiningTreeWorkBarrier.FAN_IN);
+            }
+
+            while (levelNodes.size() > 1) {
+
+                final List<Node> parentNodes = this.buildLevel(levelNodes.size());
+
+                for (int ctr = 0; ctr < levelNodes.size(); ctr++) {
+
+                    levelNodes.get(ctr).parent = parentNodes.get(ctr / CombiningTreeWorkBarrier.FAN_IN);
+                }
+
+                levelNodes = parentNodes;
+            }
+        }
+
+        /**
+         * Builds a level of groups.
+         *
+         * @param childCount Children (participants, or groups below).
+         * @return Groups.
+         */
+        private List<Node> buildLevel(final int childCount) {
+
+            final List<Node> result = new ArrayList<>();
+
+            for (int ctr = 0; ctr < childCount; ctr += CombiningTreeWorkBarrier.FAN_IN) {
+
+                final Node item = new Node(Math.min(CombiningTreeWorkBarrier.FAN_IN, (childCount - ctr)));
+
+                result.add(item);
+                this.nodes.add(item);
+            }
+
+            return result;
+        }
+
+        @Override
+        public int await(final int participant,
+                         final long value) throws InterruptedException, BrokenBarrierException {
+
+            if (this.isBroken) {
+
+                throw new BrokenBarrierException();
+            }
+
+            return this.arrive(this.leaves[participant], value);
+        }
+
+        @Override
+        public long getReducedValue() {
+
+            return this.reducedValue;
+        }
+
+        /**
+         * Arrives at group: waits for release if others are still to arrive; otherwise
+         * carries the group's value up (or runs the action, at the root), then
+         * releases the group.
+         *
+         * @param node  Group.
+         * @param value Value, or NO_VALUE if none.
+         * @return 0 if last to arrive at the root, positive otherwise.
+         * @throws InterruptedException   If interrupted while waiting.
+         * @throws BrokenBarrierException If broken while waiting.
+         */
+        private int arrive(final Node node,
+                           final long value) throws InterruptedException, BrokenBarrierException {
+
+            // read before arriving: once I arrive, the group may be released at any time;
+            final int releaseCount = node.releaseCount;
+
+            if (value != WorkBarrier.NO_VALUE) {
+
+                node.value.accumulateAndGet(value, (left, right) ->
+                        WorkBarrier.reduce(this.reducer, left, right));
+            }
+
+            final int arrivalCount = node.arrivalCount.incrementAndGet();
+
+            if (arrivalCount < node.childCount) {
+
+                this.awaitRelease(node, (arrivalCount - 1), releaseCount);
+                return arrivalCount;
+            }
+
+            // last to arrive: no one arrives again until I release the group;
+            final long nodeValue = node.value.getAndSet(WorkBarrier.NO_VALUE);
+            final int result;
+
+            node.arrivalCount.set(0);
+
+            if (node.parent == null) {
+
+                this.reducedValue = nodeValue;
+
+                try {
+
+                    this.action.run();
+
+                } catch (final RuntimeException | Error ex) {
+
+                    this.breakBarrier();
+                    throw ex;
+                }
+
+                result = 0;
+
+            } else {
+
+                result = this.arrive(node.parent, nodeValue);
+            }
+
+            node.releaseCount = (releaseCount + 1);
+
+            for (int ctr = 0; ctr < (node.childCount - 1); ctr++) {
+
+                final Thread waiterThread = node.waiters.get(ctr);
+
+                if (waiterThread != null) {
+
+                    LockSupport.unpark(waiterThread);
+                }
+            }
+
+            return result;
+        }
+
+        /**
+         * Waits for group's release: spins, then parks.
+         *
+         * @param node         Group.
+         * @param waiterIndex  My waiter slot.
+         * @param releaseCount Group's release count when I arrived.
+         * @throws InterruptedException   If interrupted while waiting.
+         * @throws BrokenBarrierException If broken while waiting.
+         */
+        private void awaitRelease(final Node node,
+                                  final int waiterIndex,
+                                  final int releaseCount) throws InterruptedException, BrokenBarrierException {
+
+            final Thread currentThread = Thread.currentThread();
+            int spinCount = 0;
+
+            // publish myself before checking for release, as releasers publish release
+            // before waking waiters;
+            node.waiters.set(waiterIndex, currentThread);
+
+            try {
+
+                while (node.releaseCount == releaseCount) {
+
+                    if (this.isBroken) {
+
+                        throw new BrokenBarrierException();
+                    }
+
+                    if (spinCount < CombiningTreeWorkBarrier.SPIN_LIMIT) {
+
+                        Thread.onSpinWait();
+                        spinCount++;
+
+                    } else {
+
+                        LockSupport.park(this);
+                    }
+
+                    if (Thread.interrupted()) {
+
+                        this.breakBarrier();
+                        throw new InterruptedException();
+                    }
+                }
+
+            } finally {
+
+                // a later round's waiter may already hold my slot;
+                node.waiters.compareAndSet(waiterIndex, currentThread, null);
+            }
+        }
+
+        /**
+         * Breaks barrier, waking all waiters.
+         */
+        private void breakBarrier() {
+
+            this.isBroken = true;
+
+            for (final Node nodeItem : this.nodes) {
+
+                for (int ctr = 0; ctr < nodeItem.waiters.length(); ctr++) {
+
+                    final Thread waiterThread = nodeItem.waiters.get(ctr);
+
+                    if (waiterThread != null) {
+
+                        LockSupport.unpark(waiterThread);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Group.
+         */
+        private static final class Node {
+
+            /**
+             * Children (participants, or groups below).
+             */
+            private final int childCount;
+
+            /**
+             * Arrivals, this round.
+             */
+            private final AtomicInteger arrivalCount;
+
+            /**
+             * Reduced value, this round.
+             */
+            private final AtomicLong value;
+
+            /**
+             * Waiting threads, by arrival (all but the last to arrive).
+             */
+            private final AtomicReferenceArray<Thread> waiters;
+
+            /**
+             * Rounds released (written only by each round's last to arrive).
+             */
+            private volatile int releaseCount;
+
+            /**
+             * Parent group, or null if root.
+             */
+            private Node parent;
+
+            /**
+             * Basic ctor.
+             *
+             * @param childCount Children.
+             */
+            private Node(final int childCount) {
+
+                this.childCount = childCount;
+                this.arrivalCount = new AtomicInteger(0);
+                this.value = new AtomicLong(WorkBarrier.NO_VALUE);
+                this.waiters = new AtomicReferenceArray<>(Math.max(1, (childCount - 1)));
+            }
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.opsysinc.learning.cert.examples.vna00j;
 
-import com.opsysinc.learning.cert.examples.util.ReaderWriterBase;
+import com.opsysinc.learning.cert.examples.util.IntReaderWriterBase;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -15,23 +15,13 @@ import java.util.concurrent.atomic.AtomicInteger;
  * <p/>
  * Created by Michael J. Kitchin on 8/12/2015.
  */
-public abstract class VNA00JBase extends ReaderWriterBase<Integer> implements Runnable {
+public abstract class VNA00JBase extends IntReaderWriterBase {
 
     /**
      * Default test length in MS.
      */
     private static final long DEFAULT_TEST_LENGTH_IN_MS = 60000L;
 
-    /**
-     * Default writer workers.
-     */
-    private static final int DEFAULT_WRITER_WORKERS = 10;
-
-    /**
-     * Default reader workers.
-     */
-    private static final int DEFAULT_READER_WORKERS = 10;
-
     /**
      * Test length in MS.
      */
@@ -52,7 +42,7 @@ public abstract class VNA00JBase extends ReaderWriterBase<Integer> implements Ru
         super(id);
         this.testLengthInMs = ((testLengthInMs < 1L) ?
                 VNA00JBase.DEFAULT_TEST_LENGTH_IN_MS : testLengthInMs);
-        this.nextExpectedValue = new AtomicInteger((VNA00JBase.DEFAULT_WRITER_WORKERS * -1));
+        this.nextExpectedValue = new AtomicInteger(0);
     }
 
     @Override
@@ -60,22 +50,25 @@ public abstract class VNA00JBase extends ReaderWriterBase<Integer> implements Ru
 
         try {
 
-            final List<ReaderWriterBase.ReaderWriterWorker<Integer>> readerWorkers = new ArrayList<>();
+            this.setUpSharedState();
 
-            for (int ctr = 0; ctr < VNA00JBase.DEFAULT_READER_WORKERS; ctr++) {
+            final List<IntReaderWriterBase.IntReaderWriterWorker> readerWorkers = new ArrayList<>();
+
+            for (int ctr = 0; ctr < this.getReaderWorkerCount(); ctr++) {
 
                 readerWorkers.add(this.buildReaderWorker());
             }
 
-            final List<ReaderWriterBase.ReaderWriterWorker<Integer>> writerWorkers = new ArrayList<>();
+            final List<IntReaderWriterBase.IntReaderWriterWorker> writerWorkers = new ArrayList<>();
 
-            for (int ctr = 0; ctr < VNA00JBase.DEFAULT_WRITER_WORKERS; ctr++) {
+            for (int ctr = 0; ctr < this.getWriterWorkerCount(); ctr++) {
 
                 writerWorkers.add(this.buildWriterWorker());
             }
 
+            this.nextExpectedValue.set(this.getWriterWorkerCount() * -1);
             this.startUp(readerWorkers, writerWorkers);
-            Thread.sleep(this.testLengthInMs);
+            this.awaitStop(this.testLengthInMs);
 
             this.cleanUp();
 
@@ -86,9 +79,25 @@ public abstract class VNA00JBase extends ReaderWriterBase<Integer> implements Ru
     }
 
     @Override
-    protected Integer nextExpectedValue() {
+    protected int nextExpectedValue() {
+
+        return this.nextExpectedValue.addAndGet(this.getWriterWorkerCount());
+    }
+
+    @Override
+    protected int expectedValueAfter(final long totalWrites) {
+
+        return (int) totalWrites;
+    }
+
+    /**
+     * Sets up shared state, ahead of building workers. Default: none.
+     * <p/>
+     * Variants whose shared state depends on the memory layout allocate it here.
+     */
+    protected void setUpSharedState() {
 
-        return this.nextExpectedValue.addAndGet(VNA00JBase.DEFAULT_WRITER_WORKERS);
+        // ignore;
     }
 
     /**
@@ -96,12 +105,12 @@ public abstract class VNA00JBase extends ReaderWriterBase<Integer> implements Ru
      *
      * @return Reader worker.
      */
-    protected abstract ReaderWriterBase.ReaderWriterWorker<Integer> buildReaderWorker();
+    protected abstract IntReaderWriterBase.IntReaderWriterWorker buildReaderWorker();
 
     /**
      * Builds writer worker.
      *
      * @return Writer worker.
      */
-    protected abstract ReaderWriterBase.ReaderWriterWorker<Integer> buildWriterWorker();
+    protected abstract IntReaderWriterBase.IntReaderWriterWorker buildWriterWorker();
 }
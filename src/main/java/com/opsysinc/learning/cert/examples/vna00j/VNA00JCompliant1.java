@@ -1,6 +1,6 @@
 package com.opsysinc.learning.cert.examples.vna00j;
 
-import com.opsysinc.learning.cert.examples.util.ReaderWriterBase;
+import com.opsysinc.learning.cert.examples.util.IntReaderWriterBase;
 
 /**
  * VNA00-J. Ensure visibility when accessing shared primitive variables.
@@ -27,9 +27,9 @@ public class VNA00JCompliant1 extends VNA00JBase {
     }
 
     @Override
-    protected ReaderWriterBase.ReaderWriterWorker<Integer> buildReaderWorker() {
+    protected IntReaderWriterBase.IntReaderWriterWorker buildReaderWorker() {
 
-        return new ReaderWriterBase.ReaderWriterWorker<Integer>(true) {
+        return new IntReaderWriterBase.IntReaderWriterWorker(true) {
 
             @Override
             protected void runImpl() {
@@ -40,9 +40,9 @@ public class VNA00JCompliant1 extends VNA00JBase {
     }
 
     @Override
-    protected ReaderWriterBase.ReaderWriterWorker<Integer> buildWriterWorker() {
+    protected IntReaderWriterBase.IntReaderWriterWorker buildWriterWorker() {
 
-        return new ReaderWriterBase.ReaderWriterWorker<Integer>(false) {
+        return new IntReaderWriterBase.IntReaderWriterWorker(false) {
 
             @Override
             protected void runImpl() {
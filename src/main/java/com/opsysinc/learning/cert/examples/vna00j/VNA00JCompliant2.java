@@ -1,6 +1,8 @@
 package com.opsysinc.learning.cert.examples.vna00j;
 
-import com.opsysinc.learning.cert.examples.util.ReaderWriterBase;
+import com.opsysinc.learning.cert.examples.util.IntReaderWriterBase;
+import com.opsysinc.learning.cert.examples.util.MemoryLayout;
+import com.opsysinc.learning.cert.examples.util.PaddedAtomicInteger;
 
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -16,7 +18,7 @@ public class VNA00JCompliant2 extends VNA00JBase {
     /**
      * Current value.
      */
-    private final AtomicInteger currentValue;
+    private AtomicInteger currentValue;
 
     /**
      * Basic ctor.
@@ -30,9 +32,16 @@ public class VNA00JCompliant2 extends VNA00JBase {
     }
 
     @Override
-    protected ReaderWriterBase.ReaderWriterWorker<Integer> buildReaderWorker() {
+    protected void setUpSharedState() {
 
-        return new ReaderWriterBase.ReaderWriterWorker<Integer>(true) {
+        this.currentValue = ((this.getMemoryLayout() == MemoryLayout.PADDED) ?
+                new PaddedAtomicInteger(0) : new AtomicInteger(0));
+    }
+
+    @Override
+    protected IntReaderWriterBase.IntReaderWriterWorker buildReaderWorker() {
+
+        return new IntReaderWriterBase.IntReaderWriterWorker(true) {
 
             @Override
             protected void runImpl() {
@@ -43,13 +52,15 @@ public class VNA00JCompliant2 extends VNA00JBase {
     }
 
     @Override
-    protected ReaderWriterBase.ReaderWriterWorker<Integer> buildWriterWorker() {
+    protected IntReaderWriterBase.IntReaderWriterWorker buildWriterWorker() {
 
-        return new ReaderWriterBase.ReaderWriterWorker<Integer>(false) {
+        return new IntReaderWriterBase.IntReaderWriterWorker(false) {
 
             @Override
             protected void runImpl() {
 
+                // a single atomic add (as on x86 and AArch64), so never retries,
+                // and reports no retries when profiling contention (see Compliant #7);
                 this.logSample(VNA00JCompliant2.this.currentValue.incrementAndGet());
             }
         };
@@ -0,0 +1,113 @@
+package com.opsysinc.learning.cert.examples.vna00j;
+
+import com.opsysinc.learning.cert.examples.util.IntReaderWriterBase;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * VNA00-J. Ensure visibility when accessing shared primitive variables.
+ * <p/>
+ * Compliant example #4 (striped counter).
+ * <p/>
+ * Like LongAdder, the value is spread across per-core cells, each on its own cache
+ * line; each writer is pinned to one cell, so writers only contend with others
+ * sharing that cell. Readers sum the cells. As writers only see their own cell,
+ * checks use the summed cells, taken while writers are held at the work barrier.
+ */
+public class VNA00JCompliant4 extends VNA00JBase {
+
+    /**
+     * Cell stride, in ints (one 64-byte cache line).
+     */
+    private static final int CELL_STRIDE = 16;
+
+    /**
+     * Cells, CELL_STRIDE apart.
+     */
+    private AtomicIntegerArray cells;
+
+    /**
+     * Cell count (a power of two).
+     */
+    private final int cellCount;
+
+    /**
+     * Next cell to assign a writer.
+     */
+    private AtomicInteger nextCell;
+
+    /**
+     * Basic ctor.
+     *
+     * @param testLengthInMs Test length in MS.
+     */
+    public VNA00JCompliant4(final String id, final long testLengthInMs) {
+
+        super(id, testLengthInMs);
+
+        this.cellCount = Integer.highestOneBit(
+                (Runtime.getRuntime().availableProcessors() * 2) - 1);
+        this.cells = new AtomicIntegerArray(this.cellCount * VNA00JCompliant4.CELL_STRIDE);
+        this.nextCell = new AtomicInteger(0);
+    }
+
+    @Override
+    protected void setUpSharedState() {
+
+        this.cells = new AtomicIntegerArray(this.cellCount * VNA00JCompliant4.CELL_STRIDE);
+        this.nextCell = new AtomicInteger(0);
+    }
+
+    @Override
+    protected IntReaderWriterBase.IntReaderWriterWorker buildReaderWorker() {
+
+        return new IntReaderWriterBase.IntReaderWriterWorker(true) {
+
+            @Override
+            protected void runImpl() {
+
+                this.logSample(VNA00JCompliant4.this.sumCells());
+            }
+        };
+    }
+
+    @Override
+    protected IntReaderWriterBase.IntReaderWriterWorker buildWriterWorker() {
+
+        final int cellIndex = ((this.nextCell.getAndIncrement() & (this.cellCount - 1)) *
+                VNA00JCompliant4.CELL_STRIDE);
+
+        return new IntReaderWriterBase.IntReaderWriterWorker(false) {
+
+            @Override
+            protected void runImpl() {
+
+                this.logSample(VNA00JCompliant4.this.cells.incrementAndGet(cellIndex));
+            }
+        };
+    }
+
+    @Override
+    protected int settledValue(final int highestWriterValue) {
+
+        return this.sumCells();
+    }
+
+    /**
+     * Sums cells.
+     *
+     * @return Sum of cells.
+     */
+    private int sumCells() {
+
+        int result = 0;
+
+        for (int ctr = 0; ctr < this.cellCount; ctr++) {
+
+            result += this.cells.get(ctr * VNA00JCompliant4.CELL_STRIDE);
+        }
+
+        return result;
+    }
+}
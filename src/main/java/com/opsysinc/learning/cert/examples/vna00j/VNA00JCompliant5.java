@@ -0,0 +1,78 @@
+package com.opsysinc.learning.cert.examples.vna00j;
+
+import com.opsysinc.learning.cert.examples.util.IntReaderWriterBase;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * VNA00-J. Ensure visibility when accessing shared primitive variables.
+ * <p/>
+ * Compliant example #5 (VarHandle opaque access).
+ * <p/>
+ * Opaque reads guarantee writes become visible and each reader sees them in
+ * order, but add no ordering against other variables. Increments are atomic
+ * (getAndAdd(), as VarHandle has no opaque read-modify-write), so readers' opaque
+ * access is what's under test, not lost updates.
+ */
+public class VNA00JCompliant5 extends VNA00JBase {
+
+    /**
+     * Current value handle.
+     */
+    private static final VarHandle CURRENT_VALUE;
+
+    static {
+
+        try {
+
+            CURRENT_VALUE = MethodHandles.lookup()
+                    .findVarHandle(VNA00JCompliant5.class, "currentValue", int.class);
+
+        } catch (final ReflectiveOperationException ex) {
+
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    /**
+     * Current value.
+     */
+    private int currentValue;
+
+    /**
+     * Basic ctor.
+     *
+     * @param testLengthInMs Test length in MS.
+     */
+    public VNA00JCompliant5(final String id, final long testLengthInMs) {
+
+        super(id, testLengthInMs);
+    }
+
+    @Override
+    protected IntReaderWriterBase.IntReaderWriterWorker buildReaderWorker() {
+
+        return new IntReaderWriterBase.IntReaderWriterWorker(true) {
+
+            @Override
+            protected void runImpl() {
+
+                this.logSample((int) VNA00JCompliant5.CURRENT_VALUE.getOpaque(VNA00JCompliant5.this));
+            }
+        };
+    }
+
+    @Override
+    protected IntReaderWriterBase.IntReaderWriterWorker buildWriterWorker() {
+
+        return new IntReaderWriterBase.IntReaderWriterWorker(false) {
+
+            @Override
+            protected void runImpl() {
+
+                this.logSample((int) VNA00JCompliant5.CURRENT_VALUE.getAndAdd(VNA00JCompliant5.this, 1) + 1);
+            }
+        };
+    }
+}
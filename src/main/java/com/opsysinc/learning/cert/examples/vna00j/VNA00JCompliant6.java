@@ -0,0 +1,78 @@
+package com.opsysinc.learning.cert.examples.vna00j;
+
+import com.opsysinc.learning.cert.examples.util.IntReaderWriterBase;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * VNA00-J. Ensure visibility when accessing shared primitive variables.
+ * <p/>
+ * Compliant example #6 (VarHandle acquire/release access).
+ * <p/>
+ * Release writes and acquire reads order the value against earlier writes and
+ * later reads, without the full fence of volatile. Increments are atomic
+ * (getAndAddRelease()), so readers' acquire access is what's under test, not lost
+ * updates.
+ */
+public class VNA00JCompliant6 extends VNA00JBase {
+
+    /**
+     * Current value handle.
+     */
+    private static final VarHandle CURRENT_VALUE;
+
+    static {
+
+        try {
+
+            CURRENT_VALUE = MethodHandles.lookup()
+                    .findVarHandle(VNA00JCompliant6.class, "currentValue", int.class);
+
+        } catch (final ReflectiveOperationException ex) {
+
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    /**
+     * Current value.
+     */
+    private int currentValue;
+
+    /**
+     * Basic ctor.
+     *
+     * @param testLengthInMs Test length in MS.
+     */
+    public VNA00JCompliant6(final String id, final long testLengthInMs) {
+
+        super(id, testLengthInMs);
+    }
+
+    @Override
+    protected IntReaderWriterBase.IntReaderWriterWorker buildReaderWorker() {
+
+        return new IntReaderWriterBase.IntReaderWriterWorker(true) {
+
+            @Override
+            protected void runImpl() {
+
+                this.logSample((int) VNA00JCompliant6.CURRENT_VALUE.getAcquire(VNA00JCompliant6.this));
+            }
+        };
+    }
+
+    @Override
+    protected IntReaderWriterBase.IntReaderWriterWorker buildWriterWorker() {
+
+        return new IntReaderWriterBase.IntReaderWriterWorker(false) {
+
+            @Override
+            protected void runImpl() {
+
+                this.logSample((int) VNA00JCompliant6.CURRENT_VALUE.getAndAddRelease(VNA00JCompliant6.this, 1) + 1);
+            }
+        };
+    }
+}
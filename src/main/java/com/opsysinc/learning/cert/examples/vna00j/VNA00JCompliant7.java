@@ -0,0 +1,104 @@
+package com.opsysinc.learning.cert.examples.vna00j;
+
+import com.opsysinc.learning.cert.examples.util.IntReaderWriterBase;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * VNA00-J. Ensure visibility when accessing shared primitive variables.
+ * <p/>
+ * Compliant example #7 (VarHandle compareAndExchange).
+ * <p/>
+ * Increments retry compareAndExchange() until it succeeds, taking each retry's
+ * expected value from the previous attempt's witness value, so increments are
+ * atomic. Readers use acquire reads.
+ */
+public class VNA00JCompliant7 extends VNA00JBase {
+
+    /**
+     * Current value handle.
+     */
+    private static final VarHandle CURRENT_VALUE;
+
+    static {
+
+        try {
+
+            CURRENT_VALUE = MethodHandles.lookup()
+                    .findVarHandle(VNA00JCompliant7.class, "currentValue", int.class);
+
+        } catch (final ReflectiveOperationException ex) {
+
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    /**
+     * Current value.
+     */
+    private int currentValue;
+
+    /**
+     * Basic ctor.
+     *
+     * @param testLengthInMs Test length in MS.
+     */
+    public VNA00JCompliant7(final String id, final long testLengthInMs) {
+
+        super(id, testLengthInMs);
+    }
+
+    @Override
+    protected IntReaderWriterBase.IntReaderWriterWorker buildReaderWorker() {
+
+        return new IntReaderWriterBase.IntReaderWriterWorker(true) {
+
+            @Override
+            protected void runImpl() {
+
+                this.logSample((int) VNA00JCompliant7.CURRENT_VALUE.getAcquire(VNA00JCompliant7.this));
+            }
+        };
+    }
+
+    @Override
+    protected IntReaderWriterBase.IntReaderWriterWorker buildWriterWorker() {
+
+        return new IntReaderWriterBase.IntReaderWriterWorker(false) {
+
+            @Override
+            protected void runImpl() {
+
+                this.logSample(VNA00JCompliant7.this.incrementCurrentValue(this));
+            }
+        };
+    }
+
+    /**
+     * Increments & returns current value.
+     *
+     * @param worker Worker, to count retries.
+     * @return Current value.
+     */
+    private int incrementCurrentValue(final IntReaderWriterBase.IntReaderWriterWorker worker) {
+
+        int expectedValue = (int) VNA00JCompliant7.CURRENT_VALUE.getAcquire(this);
+        int retries = 0;
+
+        while (true) {
+
+            final int witnessValue = (int) VNA00JCompliant7.CURRENT_VALUE.compareAndExchange(
+                    this, expectedValue, (expectedValue + 1));
+
+            if (witnessValue == expectedValue) {
+
+                worker.addRetries(retries);
+                return (expectedValue + 1);
+            }
+
+            expectedValue = witnessValue;
+            retries++;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.opsysinc.learning.cert.examples.vna00j;
+
+import com.opsysinc.learning.cert.examples.util.IntReaderWriterBase;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * VNA00-J. Ensure visibility when accessing shared primitive variables.
+ * <p/>
+ * Compliant example #8 (ReentrantReadWriteLock).
+ * <p/>
+ * Unlike #3, readers share the read lock, so they only wait on writers.
+ */
+public class VNA00JCompliant8 extends VNA00JBase {
+
+    /**
+     * Current value lock.
+     */
+    private final ReadWriteLock currentValueLock;
+
+    /**
+     * Current value.
+     */
+    private int currentValue;
+
+    /**
+     * Basic ctor.
+     *
+     * @param testLengthInMs Test length in MS.
+     */
+    public VNA00JCompliant8(final String id, final long testLengthInMs) {
+
+        super(id, testLengthInMs);
+        this.currentValueLock = new ReentrantReadWriteLock();
+    }
+
+    @Override
+    protected IntReaderWriterBase.IntReaderWriterWorker buildReaderWorker() {
+
+        return new IntReaderWriterBase.IntReaderWriterWorker(true) {
+
+            @Override
+            protected void runImpl() {
+
+                this.logSample(VNA00JCompliant8.this.getCurrentValue());
+            }
+        };
+    }
+
+    @Override
+    protected IntReaderWriterBase.IntReaderWriterWorker buildWriterWorker() {
+
+        return new IntReaderWriterBase.IntReaderWriterWorker(false) {
+
+            @Override
+            protected void runImpl() {
+
+                this.logSample(VNA00JCompliant8.this.setCurrentValue());
+            }
+        };
+    }
+
+    /**
+     * Gets current value.
+     *
+     * @return Current value.
+     */
+    private int getCurrentValue() {
+
+        this.currentValueLock.readLock().lock();
+
+        try {
+
+            return this.currentValue;
+
+        } finally {
+
+            this.currentValueLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sets & returns current value.
+     *
+     * @return Current value.
+     */
+    private int setCurrentValue() {
+
+        this.currentValueLock.writeLock().lock();
+
+        try {
+
+            this.currentValue++;
+            return this.currentValue;
+
+        } finally {
+
+            this.currentValueLock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.opsysinc.learning.cert.examples.vna00j;
+
+import com.opsysinc.learning.cert.examples.util.IntReaderWriterBase;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * VNA00-J. Ensure visibility when accessing shared primitive variables.
+ * <p/>
+ * Compliant example #9 (StampedLock optimistic reads).
+ * <p/>
+ * Readers take no lock unless a write overlaps their read, in which case they
+ * fall back to the read lock.
+ */
+public class VNA00JCompliant9 extends VNA00JBase {
+
+    /**
+     * Current value lock.
+     */
+    private final StampedLock currentValueLock;
+
+    /**
+     * Current value.
+     */
+    private int currentValue;
+
+    /**
+     * Basic ctor.
+     *
+     * @param testLengthInMs Test length in MS.
+     */
+    public VNA00JCompliant9(final String id, final long testLengthInMs) {
+
+        super(id, testLengthInMs);
+        this.currentValueLock = new StampedLock();
+    }
+
+    @Override
+    protected IntReaderWriterBase.IntReaderWriterWorker buildReaderWorker() {
+
+        return new IntReaderWriterBase.IntReaderWriterWorker(true) {
+
+            @Override
+            protected void runImpl() {
+
+                this.logSample(VNA00JCompliant9.this.getCurrentValue(this));
+            }
+        };
+    }
+
+    @Override
+    protected IntReaderWriterBase.IntReaderWriterWorker buildWriterWorker() {
+
+        return new IntReaderWriterBase.IntReaderWriterWorker(false) {
+
+            @Override
+            protected void runImpl() {
+
+                this.logSample(VNA00JCompliant9.this.setCurrentValue());
+            }
+        };
+    }
+
+    /**
+     * Gets current value, counting failed optimistic reads as retries (when
+     * profiling contention).
+     *
+     * @param worker Worker, to count retries.
+     * @return Current value.
+     */
+    private int getCurrentValue(final IntReaderWriterBase.IntReaderWriterWorker worker) {
+
+        final long optimisticStamp = this.currentValueLock.tryOptimisticRead();
+        final int result = this.currentValue;
+
+        if (this.currentValueLock.validate(optimisticStamp)) {
+
+            return result;
+        }
+
+        worker.addRetries(1);
+
+        final long readStamp = this.currentValueLock.readLock();
+
+        try {
+
+            return this.currentValue;
+
+        } finally {
+
+            this.currentValueLock.unlockRead(readStamp);
+        }
+    }
+
+    /**
+     * Sets & returns current value.
+     *
+     * @return Current value.
+     */
+    private int setCurrentValue() {
+
+        final long writeStamp = this.currentValueLock.writeLock();
+
+        try {
+
+            this.currentValue++;
+            return this.currentValue;
+
+        } finally {
+
+            this.currentValueLock.unlockWrite(writeStamp);
+        }
+    }
+}
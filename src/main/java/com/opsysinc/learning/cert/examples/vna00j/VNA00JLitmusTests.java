@@ -0,0 +1,726 @@
+package com.opsysinc.learning.cert.examples.vna00j;
+
+import com.opsysinc.learning.cert.examples.util.LitmusExpect;
+import com.opsysinc.learning.cert.examples.util.LitmusTest;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * VNA00-J. Ensure visibility when accessing shared primitive variables.
+ * <p/>
+ * Litmus tests, one per scenario (and named for it): two writers each increment a
+ * counter once, while a reader reads it once, as the scenario's example does. Each
+ * state is a small counter, with the example's access mode (or lock), so millions
+ * can be batched per round.
+ * <p/>
+ * Two things are graded. Atomicity: once all actors have acted, the counter should
+ * be 2, but with non-atomic increments (plain or volatile read-then-write) a lost
+ * update is the expected race, so it's interesting, and forbidden only where
+ * increments are atomic. Visibility: each writer also sets a
+ * plain payload before incrementing (message passing), and the reader reads the
+ * counter, then the payloads; seeing fewer payloads than the count read is a stale
+ * read, forbidden only where the counter's access mode orders them (volatile,
+ * acquire/release, atomics or locks), and interesting otherwise (plain, opaque).
+ */
+public final class VNA00JLitmusTests {
+
+    /**
+     * Writer actors (0 to WRITER_COUNT - 1); the reader follows.
+     */
+    private static final int WRITER_COUNT = 2;
+
+    /**
+     * Counter values in range (0 to WRITER_COUNT).
+     */
+    private static final int VALUE_COUNT = (VNA00JLitmusTests.WRITER_COUNT + 1);
+
+    /**
+     * Outcome for values out of range (i.e., neither 0, 1 nor 2); outcomes below it
+     * are ((final value * VALUE_COUNT) + value read) * 2 + stale flag.
+     */
+    private static final int OTHER_OUTCOME = (VNA00JLitmusTests.VALUE_COUNT * VNA00JLitmusTests.VALUE_COUNT * 2);
+
+    /**
+     * Tests, in scenario order.
+     */
+    private static final List<LitmusTest<?>> TESTS = Collections.unmodifiableList(Arrays.asList(
+            new CounterTest<IntState>("NonCompliant", false, false) {
+
+                @Override
+                protected IntState newCounter() {
+
+                    return new IntState();
+                }
+
+                @Override
+                protected void setValue(final IntState state, final int value) {
+
+                    state.value = value;
+                }
+
+                @Override
+                protected int write(final IntState state) {
+
+                    return ++state.value;
+                }
+
+                @Override
+                protected int read(final IntState state) {
+
+                    return state.value;
+                }
+            },
+            new CounterTest<VolatileIntState>("Compliant1", false, true) {
+
+                @Override
+                protected VolatileIntState newCounter() {
+
+                    return new VolatileIntState();
+                }
+
+                @Override
+                protected void setValue(final VolatileIntState state, final int value) {
+
+                    state.value = value;
+                }
+
+                @Override
+                protected int write(final VolatileIntState state) {
+
+                    return ++state.value;
+                }
+
+                @Override
+                protected int read(final VolatileIntState state) {
+
+                    return state.value;
+                }
+            },
+            new CounterTest<AtomicInteger>("Compliant2", true, true) {
+
+                @Override
+                protected AtomicInteger newCounter() {
+
+                    return new AtomicInteger(0);
+                }
+
+                @Override
+                protected void setValue(final AtomicInteger state, final int value) {
+
+                    state.set(value);
+                }
+
+                @Override
+                protected int write(final AtomicInteger state) {
+
+                    return state.incrementAndGet();
+                }
+
+                @Override
+                protected int read(final AtomicInteger state) {
+
+                    return state.get();
+                }
+            },
+            new CounterTest<IntState>("Compliant3", true, true) {
+
+                @Override
+                protected IntState newCounter() {
+
+                    return new IntState();
+                }
+
+                @Override
+                protected void setValue(final IntState state, final int value) {
+
+                    synchronized (state) {
+
+                        state.value = value;
+                    }
+                }
+
+                @Override
+                protected int write(final IntState state) {
+
+                    synchronized (state) {
+
+                        return ++state.value;
+                    }
+                }
+
+                @Override
+                protected int read(final IntState state) {
+
+                    synchronized (state) {
+
+                        return state.value;
+                    }
+                }
+            },
+            new CounterTest<AtomicIntegerArray>("Compliant4", true, true) {
+
+                @Override
+                protected AtomicIntegerArray newCounter() {
+
+                    return new AtomicIntegerArray(VNA00JLitmusTests.WRITER_COUNT);
+                }
+
+                @Override
+                protected void setValue(final AtomicIntegerArray state, final int value) {
+
+                    for (int ctr = 0; ctr < state.length(); ctr++) {
+
+                        state.set(ctr, 0);
+                    }
+
+                    state.set(0, value);
+                }
+
+                @Override
+                protected int write(final AtomicIntegerArray state, final int writer) {
+
+                    // one cell per writer, as each writer is pinned to its own cell;
+                    return state.incrementAndGet(writer);
+                }
+
+                @Override
+                protected int write(final AtomicIntegerArray state) {
+
+                    return state.incrementAndGet(0);
+                }
+
+                @Override
+                protected int read(final AtomicIntegerArray state) {
+
+                    int result = 0;
+
+                    for (int ctr = 0; ctr < state.length(); ctr++) {
+
+                        result += state.get(ctr);
+                    }
+
+                    return result;
+                }
+            },
+            new CounterTest<IntState>("Compliant5", true, false) {
+
+                @Override
+                protected IntState newCounter() {
+
+                    return new IntState();
+                }
+
+                @Override
+                protected void setValue(final IntState state, final int value) {
+
+                    IntState.VALUE.setOpaque(state, value);
+                }
+
+                @Override
+                protected int write(final IntState state) {
+
+                    return ((int) IntState.VALUE.getAndAdd(state, 1) + 1);
+                }
+
+                @Override
+                protected int read(final IntState state) {
+
+                    return (int) IntState.VALUE.getOpaque(state);
+                }
+            },
+            new CounterTest<IntState>("Compliant6", true, true) {
+
+                @Override
+                protected IntState newCounter() {
+
+                    return new IntState();
+                }
+
+                @Override
+                protected void setValue(final IntState state, final int value) {
+
+                    IntState.VALUE.setRelease(state, value);
+                }
+
+                @Override
+                protected int write(final IntState state) {
+
+                    return ((int) IntState.VALUE.getAndAddRelease(state, 1) + 1);
+                }
+
+                @Override
+                protected int read(final IntState state) {
+
+                    return (int) IntState.VALUE.getAcquire(state);
+                }
+            },
+            new CounterTest<IntState>("Compliant7", true, true) {
+
+                @Override
+                protected IntState newCounter() {
+
+                    return new IntState();
+                }
+
+                @Override
+                protected void setValue(final IntState state, final int value) {
+
+                    IntState.VALUE.setRelease(state, value);
+                }
+
+                @Override
+                protected int write(final IntState state) {
+
+                    int expectedValue = (int) IntState.VALUE.getAcquire(state);
+
+                    while (true) {
+
+                        final int witnessValue = (int) IntState.VALUE.compareAndExchange(
+                                state, expectedValue, (expectedValue + 1));
+
+                        if (witnessValue == expectedValue) {
+
+                            return (expectedValue + 1);
+                        }
+
+                        expectedValue = witnessValue;
+                    }
+                }
+
+                @Override
+                protected int read(final IntState state) {
+
+                    return (int) IntState.VALUE.getAcquire(state);
+                }
+            },
+            new CounterTest<ReadWriteLockIntState>("Compliant8", true, true) {
+
+                @Override
+                protected ReadWriteLockIntState newCounter() {
+
+                    return new ReadWriteLockIntState();
+                }
+
+                @Override
+                protected void setValue(final ReadWriteLockIntState state, final int value) {
+
+                    state.lock.writeLock().lock();
+
+                    try {
+
+                        state.value = value;
+
+                    } finally {
+
+                        state.lock.writeLock().unlock();
+                    }
+                }
+
+                @Override
+                protected int write(final ReadWriteLockIntState state) {
+
+                    state.lock.writeLock().lock();
+
+                    try {
+
+                        return ++state.value;
+
+                    } finally {
+
+                        state.lock.writeLock().unlock();
+                    }
+                }
+
+                @Override
+                protected int read(final ReadWriteLockIntState state) {
+
+                    state.lock.readLock().lock();
+
+                    try {
+
+                        return state.value;
+
+                    } finally {
+
+                        state.lock.readLock().unlock();
+                    }
+                }
+            },
+            new CounterTest<StampedLockIntState>("Compliant9", true, true) {
+
+                @Override
+                protected StampedLockIntState newCounter() {
+
+                    return new StampedLockIntState();
+                }
+
+                @Override
+                protected void setValue(final StampedLockIntState state, final int value) {
+
+                    final long writeStamp = state.lock.writeLock();
+
+                    try {
+
+                        state.value = value;
+
+                    } finally {
+
+                        state.lock.unlockWrite(writeStamp);
+                    }
+                }
+
+                @Override
+                protected int write(final StampedLockIntState state) {
+
+                    final long writeStamp = state.lock.writeLock();
+
+                    try {
+
+                        return ++state.value;
+
+                    } finally {
+
+                        state.lock.unlockWrite(writeStamp);
+                    }
+                }
+
+                @Override
+                protected int read(final StampedLockIntState state) {
+
+                    final long optimisticStamp = state.lock.tryOptimisticRead();
+                    final int optimisticValue = state.value;
+
+                    if (state.lock.validate(optimisticStamp)) {
+
+                        return optimisticValue;
+                    }
+
+                    final long readStamp = state.lock.readLock();
+
+                    try {
+
+                        return state.value;
+
+                    } finally {
+
+                        state.lock.unlockRead(readStamp);
+                    }
+                }
+            }));
+
+    /**
+     * Hidden ctor.
+     */
+    private VNA00JLitmusTests() {
+
+        // ignore;
+    }
+
+    /**
+     * Gets tests.
+     *
+     * @return Tests, in scenario order.
+     */
+    public static List<LitmusTest<?>> getTests() {
+
+        return VNA00JLitmusTests.TESTS;
+    }
+
+    /**
+     * Counter test: writers each set their payload, then increment once; the reader
+     * reads the counter, then the payloads. Grades lost updates and stale reads by
+     * whether the variant's increments are atomic and its accesses ordered.
+     *
+     * @param <S> Counter type.
+     */
+    private abstract static class CounterTest<S> implements LitmusTest<CounterState<S>> {
+
+        /**
+         * Name.
+         */
+        private final String name;
+
+        /**
+         * True if increments are atomic (lost updates forbidden).
+         */
+        private final boolean isAtomic;
+
+        /**
+         * True if counter accesses order the payloads (stale reads forbidden).
+         */
+        private final boolean isOrdered;
+
+        /**
+         * Basic ctor.
+         *
+         * @param name      Name (the scenario's).
+         * @param isAtomic  True if increments are atomic.
+         * @param isOrdered True if counter accesses order the payloads.
+         */
+        protected CounterTest(final String name,
+                              final boolean isAtomic,
+                              final boolean isOrdered) {
+
+            this.name = name;
+            this.isAtomic = isAtomic;
+            this.isOrdered = isOrdered;
+        }
+
+        /**
+         * Builds counter, at 0.
+         *
+         * @return Counter.
+         */
+        protected abstract S newCounter();
+
+        /**
+         * Sets counter (reset only).
+         *
+         * @param state Counter.
+         * @param value Value.
+         */
+        protected abstract void setValue(S state, int value);
+
+        /**
+         * Increments counter (writer actor).
+         *
+         * @param state Counter.
+         * @return Value written.
+         */
+        protected abstract int write(S state);
+
+        /**
+         * Increments counter, for a given writer (writer actor); defaults to write(state).
+         *
+         * @param state  Counter.
+         * @param writer Writer index.
+         * @return Value written.
+         */
+        protected int write(final S state, final int writer) {
+
+            return this.write(state);
+        }
+
+        /**
+         * Reads counter (reader actor, and final value).
+         *
+         * @param state Counter.
+         * @return Value read.
+         */
+        protected abstract int read(S state);
+
+        @Override
+        public String getName() {
+
+            return this.name;
+        }
+
+        @Override
+        public int getActorCount() {
+
+            return (VNA00JLitmusTests.WRITER_COUNT + 1);
+        }
+
+        @Override
+        public CounterState<S> newState() {
+
+            return new CounterState<>(this.newCounter());
+        }
+
+        @Override
+        public void reset(final CounterState<S> state) {
+
+            this.setValue(state.counter, 0);
+            Arrays.fill(state.payloads, 0);
+        }
+
+        @Override
+        public long act(final int actor, final CounterState<S> state) {
+
+            if (actor < VNA00JLitmusTests.WRITER_COUNT) {
+
+                state.payloads[actor] = 1;
+                return this.write(state.counter, actor);
+            }
+
+            // counter first, so each increment read should have its payload in view;
+            final int readValue = this.read(state.counter);
+            int payloadCount = 0;
+
+            for (final int item : state.payloads) {
+
+                payloadCount += item;
+            }
+
+            return ((readValue * 2L) + ((payloadCount < readValue) ? 1L : 0L));
+        }
+
+        @Override
+        public int outcomeOf(final CounterState<S> state, final long[] actorResults) {
+
+            final int finalValue = this.read(state.counter);
+            final long readResult = actorResults[VNA00JLitmusTests.WRITER_COUNT];
+
+            if ((finalValue < 0) || (finalValue > VNA00JLitmusTests.WRITER_COUNT) ||
+                    (readResult < 0L) || ((readResult / 2L) > VNA00JLitmusTests.WRITER_COUNT)) {
+
+                return VNA00JLitmusTests.OTHER_OUTCOME;
+            }
+
+            return ((finalValue * VNA00JLitmusTests.VALUE_COUNT * 2) + (int) readResult);
+        }
+
+        @Override
+        public int getOutcomeCount() {
+
+            return (VNA00JLitmusTests.OTHER_OUTCOME + 1);
+        }
+
+        @Override
+        public String getOutcomeName(final int outcome) {
+
+            if (outcome == VNA00JLitmusTests.OTHER_OUTCOME) {
+
+                return "other";
+            }
+
+            return String.format("final=%d, read=%d%s",
+                    (outcome / (VNA00JLitmusTests.VALUE_COUNT * 2)),
+                    ((outcome / 2) % VNA00JLitmusTests.VALUE_COUNT),
+                    (((outcome % 2) == 1) ? ", stale payload" : ""));
+        }
+
+        @Override
+        public LitmusExpect getExpect(final int outcome) {
+
+            if (outcome == VNA00JLitmusTests.OTHER_OUTCOME) {
+
+                return LitmusExpect.FORBIDDEN;
+            }
+
+            LitmusExpect result = LitmusExpect.ACCEPTABLE;
+
+            if ((outcome / (VNA00JLitmusTests.VALUE_COUNT * 2)) != VNA00JLitmusTests.WRITER_COUNT) {
+
+                result = (this.isAtomic ? LitmusExpect.FORBIDDEN : LitmusExpect.ACCEPTABLE_INTERESTING);
+            }
+
+            if (((outcome % 2) == 1) &&
+                    (result != LitmusExpect.FORBIDDEN)) {
+
+                result = (this.isOrdered ? LitmusExpect.FORBIDDEN : LitmusExpect.ACCEPTABLE_INTERESTING);
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * Counter test state: a counter, plus one plain payload per writer.
+     *
+     * @param <S> Counter type.
+     */
+    private static final class CounterState<S> {
+
+        /**
+         * Counter.
+         */
+        private final S counter;
+
+        /**
+         * Writers' payloads (plain; 1 once set).
+         */
+        private final int[] payloads;
+
+        /**
+         * Basic ctor.
+         *
+         * @param counter Counter.
+         */
+        private CounterState(final S counter) {
+
+            this.counter = counter;
+            this.payloads = new int[VNA00JLitmusTests.WRITER_COUNT];
+        }
+    }
+
+    /**
+     * Plain int counter.
+     */
+    private static final class IntState {
+
+        /**
+         * Value handle.
+         */
+        private static final VarHandle VALUE;
+
+        static {
+
+            try {
+
+                VALUE = MethodHandles.lookup()
+                        .findVarHandle(IntState.class, "value", int.class);
+
+            } catch (final ReflectiveOperationException ex) {
+
+                throw new ExceptionInInitializerError(ex);
+            }
+        }
+
+        /**
+         * Value.
+         */
+        private int value;
+    }
+
+    /**
+     * Volatile int counter.
+     */
+    private static final class VolatileIntState {
+
+        /**
+         * Value.
+         */
+        private volatile int value;
+    }
+
+    /**
+     * Int counter, guarded by a read/write lock.
+     */
+    private static final class ReadWriteLockIntState {
+
+        /**
+         * Lock.
+         */
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        /**
+         * Value.
+         */
+        private int value;
+    }
+
+    /**
+     * Int counter, guarded by a stamped lock.
+     */
+    private static final class StampedLockIntState {
+
+        /**
+         * Lock.
+         */
+        private final StampedLock lock = new StampedLock();
+
+        /**
+         * Value.
+         */
+        private int value;
+    }
+}
@@ -0,0 +1,49 @@
+package com.opsysinc.learning.cert.examples.vna00j;
+
+import com.opsysinc.learning.cert.examples.Scenario;
+import com.opsysinc.learning.cert.examples.ScenarioProvider;
+import com.opsysinc.learning.cert.examples.util.LitmusTest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * VNA00-J. Ensure visibility when accessing shared primitive variables.
+ * <p/>
+ * Scenario provider.
+ */
+public class VNA00JScenarioProvider implements ScenarioProvider {
+
+    /**
+     * Rule id.
+     */
+    private static final String RULE = "VNA00J";
+
+    /**
+     * Scenarios, in run order.
+     */
+    private static final List<Scenario> SCENARIOS = Collections.unmodifiableList(Arrays.asList(
+            new Scenario(VNA00JScenarioProvider.RULE, "NonCompliant", "Non-Compliant", VNA00JNonCompliant::new),
+            new Scenario(VNA00JScenarioProvider.RULE, "Compliant1", "Compliant #1 (volatile qualifier)", VNA00JCompliant1::new),
+            new Scenario(VNA00JScenarioProvider.RULE, "Compliant2", "Compliant #2 (AtomicInteger)", VNA00JCompliant2::new),
+            new Scenario(VNA00JScenarioProvider.RULE, "Compliant3", "Compliant #3 (synchronization)", VNA00JCompliant3::new),
+            new Scenario(VNA00JScenarioProvider.RULE, "Compliant4", "Compliant #4 (striped counter)", VNA00JCompliant4::new),
+            new Scenario(VNA00JScenarioProvider.RULE, "Compliant5", "Compliant #5 (VarHandle opaque)", VNA00JCompliant5::new),
+            new Scenario(VNA00JScenarioProvider.RULE, "Compliant6", "Compliant #6 (VarHandle acquire/release)", VNA00JCompliant6::new),
+            new Scenario(VNA00JScenarioProvider.RULE, "Compliant7", "Compliant #7 (VarHandle compareAndExchange)", VNA00JCompliant7::new),
+            new Scenario(VNA00JScenarioProvider.RULE, "Compliant8", "Compliant #8 (ReentrantReadWriteLock)", VNA00JCompliant8::new),
+            new Scenario(VNA00JScenarioProvider.RULE, "Compliant9", "Compliant #9 (StampedLock optimistic reads)", VNA00JCompliant9::new)));
+
+    @Override
+    public List<Scenario> getScenarios() {
+
+        return VNA00JScenarioProvider.SCENARIOS;
+    }
+
+    @Override
+    public List<LitmusTest<?>> getLitmusTests() {
+
+        return VNA00JLitmusTests.getTests();
+    }
+}
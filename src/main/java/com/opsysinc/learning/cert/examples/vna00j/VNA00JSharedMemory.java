@@ -0,0 +1,523 @@
+package com.opsysinc.learning.cert.examples.vna00j;
+
+import com.opsysinc.learning.cert.examples.ForkRunner;
+import com.opsysinc.learning.cert.examples.util.LatencyHistogram;
+import com.opsysinc.learning.cert.examples.util.SharedCounterFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VNA00-J. Ensure visibility when accessing shared primitive variables.
+ * <p/>
+ * Cross-process example: the current value lives in a memory-mapped file (see
+ * SharedCounterFile), written and read by worker processes (child JVMs, one per
+ * worker) with a given access mode.
+ * <p/>
+ * As in lockstep mode, this coordinator starts each round of writes (each writer
+ * writing once), waits for all writers, then checks the settled value went up by
+ * exactly the writer count (writers out of order); at the end, it checks the value
+ * against total writes (lost updates). Readers read continuously, checking their
+ * samples never go backwards (workers out of order), and timing each new value
+ * from the latest writer's publish (System.nanoTime(), which is system-wide on
+ * Linux; this slightly understates latency, as the latest publish may not be the
+ * one read).
+ */
+public final class VNA00JSharedMemory {
+
+    /**
+     * Writer role arg.
+     */
+    private static final String WRITER_ROLE = "writer";
+
+    /**
+     * Reader role arg.
+     */
+    private static final String READER_ROLE = "reader";
+
+    /**
+     * Time for workers to start, in MS.
+     */
+    private static final long READY_TIMEOUT_IN_MS = 30000L;
+
+    /**
+     * Time for writers to complete a round, in MS.
+     */
+    private static final long ROUND_TIMEOUT_IN_MS = 10000L;
+
+    /**
+     * Time for workers to stop, in MS.
+     */
+    private static final long STOP_TIMEOUT_IN_MS = 10000L;
+
+    /**
+     * Spins before yielding, while waiting.
+     */
+    private static final int SPIN_LIMIT = 1000;
+
+    /**
+     * Access mode.
+     */
+    private final SharedCounterFile.AccessMode accessMode;
+
+    /**
+     * Writer processes.
+     */
+    private final int writerCount;
+
+    /**
+     * Reader processes.
+     */
+    private final int readerCount;
+
+    /**
+     * Shared file directory (ideally tmpfs).
+     */
+    private final Path directory;
+
+    /**
+     * Test length in MS.
+     */
+    private final long testLengthInMs;
+
+    /**
+     * Basic ctor.
+     *
+     * @param accessMode     Access mode.
+     * @param writerCount    Writer processes (at least one).
+     * @param readerCount    Reader processes.
+     * @param directory      Shared file directory (ideally tmpfs).
+     * @param testLengthInMs Test length in MS.
+     */
+    public VNA00JSharedMemory(final SharedCounterFile.AccessMode accessMode,
+                              final int writerCount,
+                              final int readerCount,
+                              final Path directory,
+                              final long testLengthInMs) {
+
+        if ((writerCount < 1) ||
+                (readerCount < 0)) {
+
+            throw new IllegalArgumentException(String.format(
+                    "Invalid worker counts (writerCount=%d, readerCount=%d).", writerCount, readerCount));
+        }
+
+        this.accessMode = accessMode;
+        this.writerCount = writerCount;
+        this.readerCount = readerCount;
+        this.directory = directory;
+        this.testLengthInMs = testLengthInMs;
+    }
+
+    /**
+     * Runs test (coordinator): starts workers, runs rounds, stops workers, then
+     * prints correctness, throughput and latency.
+     *
+     * @return Violations (rounds out of order, lost updates and reader samples out of order).
+     * @throws IOException          On file or process failure.
+     * @throws InterruptedException If interrupted while waiting for workers.
+     */
+    public long run() throws IOException, InterruptedException {
+
+        final int workerCount = (this.writerCount + this.readerCount);
+        final Path file = this.directory.resolve("vna00j-shared-" + ProcessHandle.current().pid() + ".bin");
+        final List<Process> processes = new ArrayList<>(workerCount);
+
+        Files.createDirectories(this.directory);
+        Files.deleteIfExists(file);
+
+        final SharedCounterFile shared = new SharedCounterFile(file, workerCount);
+
+        try {
+
+            for (int ctr = 0; ctr < workerCount; ctr++) {
+
+                final List<String> command = new ArrayList<>();
+
+                command.add(ForkRunner.getJavaFile());
+                command.add("-cp");
+                command.add(ForkRunner.getClassPath());
+                command.add(VNA00JSharedMemory.class.getName());
+                command.add((ctr < this.writerCount) ? VNA00JSharedMemory.WRITER_ROLE : VNA00JSharedMemory.READER_ROLE);
+                command.add(String.valueOf(ctr));
+                command.add(String.valueOf(this.writerCount));
+                command.add(String.valueOf(workerCount));
+                command.add(this.accessMode.name());
+                command.add(file.toString());
+
+                processes.add(new ProcessBuilder(command).inheritIO().start());
+            }
+
+            System.out.println(String.format("\n=== VNA00J shared memory (%s, %d writer(s), %d reader(s), %s) ===",
+                    this.accessMode, this.writerCount, this.readerCount, file));
+
+            this.awaitReady(shared, processes);
+
+            final LatencyHistogram roundTripHistogram = new LatencyHistogram();
+            final long startTimeInNs = System.nanoTime();
+            final long endTimeInNs = (startTimeInNs + TimeUnit.MILLISECONDS.toNanos(this.testLengthInMs));
+            long roundCount = 0L;
+            long roundsOutOfOrder = 0L;
+            int prevSettledValue = 0;
+
+            do {
+
+                final long roundStartTimeInNs = System.nanoTime();
+
+                shared.setControl(SharedCounterFile.ROUND, ++roundCount);
+                this.awaitRound(shared, processes, roundCount, roundStartTimeInNs);
+
+                roundTripHistogram.record(System.nanoTime() - roundStartTimeInNs);
+
+                final int settledValue = shared.readCounter(SharedCounterFile.AccessMode.ATOMIC);
+
+                if (settledValue != (prevSettledValue + this.writerCount)) {
+
+                    roundsOutOfOrder++;
+                }
+
+                prevSettledValue = settledValue;
+
+            } while (System.nanoTime() < endTimeInNs);
+
+            final long runTimeInNs = (System.nanoTime() - startTimeInNs);
+
+            this.stopWorkers(shared, processes);
+
+            return this.printResults(shared, roundCount, roundsOutOfOrder, runTimeInNs, roundTripHistogram);
+
+        } finally {
+
+            shared.setControl(SharedCounterFile.STOP, 1L);
+
+            for (final Process item : processes) {
+
+                item.destroyForcibly();
+            }
+
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Waits for all workers to start.
+     *
+     * @param shared    Shared file.
+     * @param processes Worker processes.
+     * @throws InterruptedException If interrupted while waiting.
+     * @throws IllegalStateException If a worker exits, or workers don't start in time.
+     */
+    private void awaitReady(final SharedCounterFile shared,
+                            final List<Process> processes) throws InterruptedException {
+
+        final long endTimeInNs = (System.nanoTime() +
+                TimeUnit.MILLISECONDS.toNanos(VNA00JSharedMemory.READY_TIMEOUT_IN_MS));
+
+        while (shared.getControl(SharedCounterFile.READY) < processes.size()) {
+
+            for (final Process item : processes) {
+
+                if (!item.isAlive()) {
+
+                    throw new IllegalStateException(String.format(
+                            "Worker exited before starting (exit code=%d).", item.exitValue()));
+                }
+            }
+
+            if (System.nanoTime() > endTimeInNs) {
+
+                throw new IllegalStateException(String.format(
+                        "Workers didn't start (ready=%d, workerCount=%d).",
+                        shared.getControl(SharedCounterFile.READY), processes.size()));
+            }
+
+            Thread.sleep(1L);
+        }
+    }
+
+    /**
+     * Waits for writers to complete a round. Worker liveness and the deadline are
+     * only checked once spinning gives way to yielding, so quick rounds cost nothing
+     * extra.
+     *
+     * @param shared             Shared file.
+     * @param processes          Worker processes.
+     * @param roundCount         Rounds started, including this one.
+     * @param roundStartTimeInNs Round start time in NS.
+     * @throws IllegalStateException If a worker exits, or the round doesn't complete in time.
+     */
+    private void awaitRound(final SharedCounterFile shared,
+                            final List<Process> processes,
+                            final long roundCount,
+                            final long roundStartTimeInNs) {
+
+        final long doneCount = (roundCount * this.writerCount);
+        int spinCount = 0;
+
+        while (shared.getControl(SharedCounterFile.DONE) < doneCount) {
+
+            spinCount = VNA00JSharedMemory.spinWait(spinCount);
+
+            if (spinCount > VNA00JSharedMemory.SPIN_LIMIT) {
+
+                for (final Process item : processes) {
+
+                    if (!item.isAlive()) {
+
+                        throw new IllegalStateException(String.format(
+                                "Worker exited mid-run (round=%d, exit code=%d).", roundCount, item.exitValue()));
+                    }
+                }
+
+                if ((System.nanoTime() - roundStartTimeInNs) >
+                        TimeUnit.MILLISECONDS.toNanos(VNA00JSharedMemory.ROUND_TIMEOUT_IN_MS)) {
+
+                    throw new IllegalStateException(String.format(
+                            "Round didn't complete (round=%d, done=%d, doneCount=%d).",
+                            roundCount, shared.getControl(SharedCounterFile.DONE), doneCount));
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops workers, waiting for them to exit.
+     *
+     * @param shared    Shared file.
+     * @param processes Worker processes.
+     * @throws InterruptedException If interrupted while waiting.
+     * @throws IllegalStateException If a worker fails, or doesn't exit in time.
+     */
+    private void stopWorkers(final SharedCounterFile shared,
+                             final List<Process> processes) throws InterruptedException {
+
+        shared.setControl(SharedCounterFile.STOP, 1L);
+
+        for (final Process item : processes) {
+
+            if (!item.waitFor(VNA00JSharedMemory.STOP_TIMEOUT_IN_MS, TimeUnit.MILLISECONDS)) {
+
+                throw new IllegalStateException("Worker didn't stop.");
+            }
+
+            if (item.exitValue() != 0) {
+
+                throw new IllegalStateException(String.format(
+                        "Worker failed (exit code=%d).", item.exitValue()));
+            }
+        }
+    }
+
+    /**
+     * Checks final value, then prints results.
+     *
+     * @param shared             Shared file.
+     * @param roundCount         Rounds run.
+     * @param roundsOutOfOrder   Rounds out of order.
+     * @param runTimeInNs        Run time in NS.
+     * @param roundTripHistogram Round trip latencies.
+     * @return Violations.
+     */
+    private long printResults(final SharedCounterFile shared,
+                              final long roundCount,
+                              final long roundsOutOfOrder,
+                              final long runTimeInNs,
+                              final LatencyHistogram roundTripHistogram) {
+
+        final double runTimeInSecs = ((double) runTimeInNs / TimeUnit.SECONDS.toNanos(1L));
+        long totalWrites = 0L;
+        long totalReads = 0L;
+        long readsOutOfOrder = 0L;
+
+        for (int ctr = 0; ctr < this.writerCount; ctr++) {
+
+            totalWrites += shared.getSlot(ctr, SharedCounterFile.SLOT_OP_COUNT);
+        }
+
+        final int expectedValue = (int) totalWrites;
+        final int settledValue = shared.readCounter(SharedCounterFile.AccessMode.ATOMIC);
+        final long lostUpdates = ((settledValue != expectedValue) ? 1L : 0L);
+
+        System.out.println(String.format("Rounds: %d; writes: %d (%.0f writes/sec); expected value: %d; settled value: %d",
+                roundCount, totalWrites, (totalWrites / runTimeInSecs), expectedValue, settledValue));
+        System.out.println("\n" + LatencyHistogram.formatHeader("Latency (ns)"));
+        System.out.println(roundTripHistogram.format("Round trip (all writers)"));
+
+        for (int ctr = this.writerCount; ctr < shared.getWorkerCount(); ctr++) {
+
+            totalReads += shared.getSlot(ctr, SharedCounterFile.SLOT_OP_COUNT);
+            readsOutOfOrder += shared.getSlot(ctr, SharedCounterFile.SLOT_OUT_OF_ORDER_COUNT);
+
+            System.out.println(String.format("%-28s %12d %10d %10d %10d %12d",
+                    String.format("Publish to reader #%d", (ctr - this.writerCount + 1)),
+                    shared.getSlot(ctr, SharedCounterFile.SLOT_LATENCY_COUNT),
+                    shared.getSlot(ctr, SharedCounterFile.SLOT_LATENCY_P50),
+                    shared.getSlot(ctr, SharedCounterFile.SLOT_LATENCY_P99),
+                    shared.getSlot(ctr, SharedCounterFile.SLOT_LATENCY_P999),
+                    shared.getSlot(ctr, SharedCounterFile.SLOT_LATENCY_MAX)));
+        }
+
+        System.out.println(String.format("\nReads: %d (%.0f reads/sec)", totalReads, (totalReads / runTimeInSecs)));
+        System.out.println(String.format("Violations: writers out of order: %d round(s); writers lost updates: %s; " +
+                        "workers out of order: %d read(s)",
+                roundsOutOfOrder, ((lostUpdates > 0L) ? "yes" : "no"), readsOutOfOrder));
+
+        return (roundsOutOfOrder + lostUpdates + readsOutOfOrder);
+    }
+
+    /**
+     * Worker driver method (child JVM).
+     *
+     * @param args Args: role, worker index, writer count, worker count, access mode, file.
+     */
+    public static void main(final String[] args) {
+
+        try {
+
+            final int worker = Integer.parseInt(args[1]);
+            final int writerCount = Integer.parseInt(args[2]);
+            final SharedCounterFile.AccessMode accessMode = SharedCounterFile.AccessMode.valueOf(args[4]);
+            final SharedCounterFile shared = new SharedCounterFile(Paths.get(args[5]), Integer.parseInt(args[3]));
+
+            shared.addControl(SharedCounterFile.READY, 1L);
+
+            if (VNA00JSharedMemory.WRITER_ROLE.equals(args[0])) {
+
+                VNA00JSharedMemory.runWriter(shared, worker, accessMode);
+
+            } else {
+
+                VNA00JSharedMemory.runReader(shared, worker, writerCount, accessMode);
+            }
+
+        } catch (final Exception ex) {
+
+            ex.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Writes once per round, until stopped (writer process).
+     *
+     * @param shared     Shared file.
+     * @param worker     Worker index.
+     * @param accessMode Access mode.
+     */
+    private static void runWriter(final SharedCounterFile shared,
+                                  final int worker,
+                                  final SharedCounterFile.AccessMode accessMode) {
+
+        long prevRound = 0L;
+        long opCount = 0L;
+
+        while (true) {
+
+            int spinCount = 0;
+
+            while ((shared.getControl(SharedCounterFile.ROUND) == prevRound) &&
+                    (shared.getControl(SharedCounterFile.STOP) == 0L)) {
+
+                spinCount = VNA00JSharedMemory.spinWait(spinCount);
+            }
+
+            if (shared.getControl(SharedCounterFile.STOP) != 0L) {
+
+                break;
+            }
+
+            prevRound = shared.getControl(SharedCounterFile.ROUND);
+            shared.setSlot(worker, SharedCounterFile.SLOT_PUBLISH_TIME, System.nanoTime());
+            shared.incrementCounter(accessMode);
+            opCount++;
+            shared.addControl(SharedCounterFile.DONE, 1L);
+        }
+
+        shared.setSlot(worker, SharedCounterFile.SLOT_OP_COUNT, opCount);
+    }
+
+    /**
+     * Reads continuously, until stopped (reader process).
+     *
+     * @param shared      Shared file.
+     * @param worker      Worker index.
+     * @param writerCount Writer count.
+     * @param accessMode  Access mode.
+     */
+    private static void runReader(final SharedCounterFile shared,
+                                  final int worker,
+                                  final int writerCount,
+                                  final SharedCounterFile.AccessMode accessMode) {
+
+        final LatencyHistogram latencyHistogram = new LatencyHistogram();
+        int prevValue = shared.readCounter(accessMode);
+        long opCount = 1L;
+        long outOfOrderCount = 0L;
+
+        while (shared.getControl(SharedCounterFile.STOP) == 0L) {
+
+            final int nextValue = shared.readCounter(accessMode);
+
+            opCount++;
+
+            if (nextValue != prevValue) {
+
+                final long readTime = System.nanoTime();
+
+                if ((nextValue - prevValue) < 0) {
+
+                    outOfOrderCount++;
+
+                } else {
+
+                    long publishTime = 0L;
+
+                    for (int ctr = 0; ctr < writerCount; ctr++) {
+
+                        publishTime = Math.max(publishTime, shared.getSlot(ctr, SharedCounterFile.SLOT_PUBLISH_TIME));
+                    }
+
+                    if (publishTime > 0L) {
+
+                        latencyHistogram.record(Math.max(0L, (readTime - publishTime)));
+                    }
+                }
+
+                prevValue = nextValue;
+            }
+        }
+
+        shared.setSlot(worker, SharedCounterFile.SLOT_OUT_OF_ORDER_COUNT, outOfOrderCount);
+        shared.setSlot(worker, SharedCounterFile.SLOT_LATENCY_COUNT, latencyHistogram.getTotalCount());
+        shared.setSlot(worker, SharedCounterFile.SLOT_LATENCY_P50, latencyHistogram.getValueAtPercentile(50.0));
+        shared.setSlot(worker, SharedCounterFile.SLOT_LATENCY_P99, latencyHistogram.getValueAtPercentile(99.0));
+        shared.setSlot(worker, SharedCounterFile.SLOT_LATENCY_P999, latencyHistogram.getValueAtPercentile(99.9));
+        shared.setSlot(worker, SharedCounterFile.SLOT_LATENCY_MAX, latencyHistogram.getMaxValue());
+        shared.setSlot(worker, SharedCounterFile.SLOT_OP_COUNT, opCount);
+    }
+
+    /**
+     * Waits briefly: spins, then yields.
+     *
+     * @param spinCount Spins so far.
+     * @return Spins, including this one.
+     */
+    private static int spinWait(final int spinCount) {
+
+        if (spinCount < VNA00JSharedMemory.SPIN_LIMIT) {
+
+            Thread.onSpinWait();
+
+        } else {
+
+            Thread.yield();
+        }
+
+        return (spinCount + 1);
+    }
+}